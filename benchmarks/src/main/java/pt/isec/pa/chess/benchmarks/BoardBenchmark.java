@@ -0,0 +1,70 @@
+package pt.isec.pa.chess.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pt.isec.pa.chess.model.data.board.Bitboard;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
+import pt.isec.pa.chess.model.data.board.Position;
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das operações do tabuleiro: validar e aplicar um movimento, xeque e xeque-mate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+
+    @State(Scope.Thread)
+    public static class FirstMove {
+        Position from;
+        Position to;
+
+        @Setup
+        public void setup(Positions positions) {
+            MoveList moves = new MoveList();
+            MoveGenerator.generateLegalMoves(positions.board, positions.game.isWhiteToMove(), moves);
+            int move = moves.get(0);
+            from = new Position(Bitboard.row(Move.from(move)), Bitboard.col(Move.from(move)));
+            to = new Position(Bitboard.row(Move.to(move)), Bitboard.col(Move.to(move)));
+        }
+    }
+
+    /**
+     * Valida e aplica um movimento com {@code movePiece}, desfazendo-o a seguir
+     * para que todas as invocações partam da mesma posição.
+     */
+    @Benchmark
+    public boolean movePiece(Positions positions, FirstMove move) {
+        boolean moved = positions.board.movePiece(move.from, move.to);
+        positions.board.unmakeMove();
+        return moved;
+    }
+
+    @Benchmark
+    public boolean isCheck(Positions positions) {
+        return positions.board.isCheck(PieceType.KING, positions.game.isWhiteToMove());
+    }
+
+    @Benchmark
+    public boolean isCheckmate(Positions positions) {
+        return positions.board.isCheckmate(positions.game.isWhiteToMove());
+    }
+
+    @Benchmark
+    public int legalMoves(Positions positions, MoveBuffer buffer) {
+        buffer.moves.clear();
+        MoveGenerator.generateLegalMoves(positions.board, positions.game.isWhiteToMove(), buffer.moves);
+        return buffer.moves.size();
+    }
+
+    @State(Scope.Thread)
+    public static class MoveBuffer {
+        final MoveList moves = new MoveList();
+    }
+}
@@ -0,0 +1,106 @@
+package pt.isec.pa.chess.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
+import pt.isec.pa.chess.model.memento.CareTaker;
+import pt.isec.pa.chess.model.memento.IMemento;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de import/export do estado do jogo e do mecanismo de undo (Memento/CareTaker).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameStateBenchmark {
+
+    @State(Scope.Thread)
+    public static class Exported {
+        String data;
+        IMemento memento;
+        ChessGame target;
+
+        @Setup
+        public void setup(Positions positions) {
+            data = positions.game.exportGame();
+            memento = positions.game.save();
+            target = new ChessGame();
+        }
+    }
+
+    @Benchmark
+    public String exportGame(Positions positions) {
+        return positions.game.exportGame();
+    }
+
+    @Benchmark
+    public ChessGame importGame(Exported exported) {
+        exported.target.importGame(exported.data);
+        return exported.target;
+    }
+
+    @Benchmark
+    public IMemento mementoSave(Positions positions) {
+        return positions.game.save();
+    }
+
+    @Benchmark
+    public ChessGame mementoRestore(Exported exported) {
+        exported.target.restore(exported.memento);
+        return exported.target;
+    }
+
+    /**
+     * Histórico em modo de movimentos, como no jogo, com uma sequência fixa de {@value #BATCH} meios-lances
+     * legais a partir da posição.
+     */
+    @State(Scope.Thread)
+    public static class History {
+        static final int BATCH = 32;
+
+        ChessGame game;
+        CareTaker careTaker;
+        int[] line;
+
+        @Setup(Level.Trial)
+        public void setup(Positions positions) {
+            game = Positions.create(positions.position);
+            careTaker = new CareTaker(game, 32);
+
+            // Primeiro movimento legal em cada posição, desfeitos no fim para voltar à posição inicial
+            line = new int[BATCH];
+            MoveList moves = new MoveList();
+            for (int i = 0; i < BATCH; i++) {
+                moves.clear();
+                MoveGenerator.generateLegalMoves(game.getBoard(), game.isWhiteToMove(), moves);
+                if (moves.size() == 0)
+                    throw new IllegalStateException("Sequence ends after " + i + " plies in " + positions.position);
+                line[i] = moves.get(0);
+                game.redoMove(line[i]);
+            }
+            for (int i = 0; i < BATCH; i++)
+                game.undoMove();
+        }
+    }
+
+    /**
+     * Cada invocação joga e regista a sequência inteira no CareTaker e desfaz tudo,
+     * sem setup por invocação; o tempo é por meio-lance (jogar, registar e desfazer).
+     */
+    @Benchmark
+    @OperationsPerInvocation(History.BATCH)
+    public ChessGame careTakerUndo(History history) {
+        for (int move : history.line) {
+            history.game.redoMove(move);
+            history.careTaker.saveMove();
+        }
+        for (int i = 0; i < History.BATCH; i++)
+            history.careTaker.undo();
+        return history.game;
+    }
+}
@@ -0,0 +1,42 @@
+package pt.isec.pa.chess.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+
+/**
+ * Conjunto fixo de posições usado em todos os benchmarks: abertura, meio-jogo e final.
+ * Cada benchmark que recebe este estado corre uma vez por posição.
+ */
+@State(Scope.Thread)
+public class Positions {
+    public static final String OPENING = "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3";
+    public static final String MIDDLEGAME = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    public static final String ENDGAME = "8/5pk1/2n3p1/1p1b3p/3P3P/1B3NP1/5PK1/3R4 w - - 0 1";
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public String position;
+
+    public ChessGame game;
+    public Board board;
+
+    @Setup
+    public void setup() {
+        game = create(position);
+        board = game.getBoard();
+    }
+
+    public static ChessGame create(String name) {
+        ChessGame game = new ChessGame();
+        game.importFen(switch (name) {
+            case "OPENING" -> OPENING;
+            case "MIDDLEGAME" -> MIDDLEGAME;
+            case "ENDGAME" -> ENDGAME;
+            default -> throw new IllegalArgumentException("Unknown position: " + name);
+        });
+        return game;
+    }
+}
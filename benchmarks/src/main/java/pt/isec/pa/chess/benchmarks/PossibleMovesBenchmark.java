@@ -0,0 +1,49 @@
+package pt.isec.pa.chess.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.isec.pa.chess.model.data.board.Bitboard;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.piece.Piece;
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de {@link Piece#getPossibleMoves(Board)} para cada tipo de peça.
+ * Cada invocação pede os movimentos de todas as peças desse tipo (das duas cores) na posição;
+ * posições sem peças desse tipo não medem nada e devem ser ignoradas nos resultados.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PossibleMovesBenchmark {
+
+    @State(Scope.Thread)
+    public static class Pieces {
+        @Param({"KING", "QUEEN", "ROOK", "BISHOP", "KNIGHT", "PAWN"})
+        public PieceType type;
+
+        Piece[] pieces;
+
+        @Setup
+        public void setup(Positions positions) {
+            List<Piece> found = new ArrayList<>();
+            Board board = positions.board;
+            long squares = board.getPieceBitboard(type, true) | board.getPieceBitboard(type, false);
+            for (; squares != 0; squares &= squares - 1)
+                found.add(board.getPiece(Bitboard.lsb(squares)));
+            pieces = found.toArray(new Piece[0]);
+        }
+    }
+
+    @Benchmark
+    public void getPossibleMoves(Positions positions, Pieces pieces, Blackhole blackhole) {
+        for (Piece piece : pieces.pieces)
+            blackhole.consume(piece.getPossibleMoves(positions.board));
+    }
+}
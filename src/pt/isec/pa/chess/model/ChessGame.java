@@ -1,16 +1,24 @@
 package pt.isec.pa.chess.model;
 
+import pt.isec.pa.chess.model.data.board.Bitboard;
 import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
 import pt.isec.pa.chess.model.data.board.Position;
+import pt.isec.pa.chess.model.data.board.Zobrist;
 import pt.isec.pa.chess.model.data.piece.Piece;
-import pt.isec.pa.chess.model.data.piece.tools.PieceFactory;
 import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+import pt.isec.pa.chess.model.io.PositionCodec;
+import pt.isec.pa.chess.model.io.PositionFormat;
+import pt.isec.pa.chess.model.memento.HistoryMemento;
 import pt.isec.pa.chess.model.memento.IMemento;
-import pt.isec.pa.chess.model.memento.IOriginator;
-import pt.isec.pa.chess.model.memento.Memento;
+import pt.isec.pa.chess.model.memento.IMoveOriginator;
+import pt.isec.pa.chess.model.memento.PositionMemento;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,7 +26,7 @@ import java.util.List;
  * Implementa Serializable para permitir salvar/carregar jogos e IOriginator para o padrão Memento.
  * Gere o estado do jogo, movimentos, jogadores e regras do xadrez.
  */
-public class ChessGame implements Serializable, IOriginator {
+public class ChessGame implements Serializable, IMoveOriginator {
     @Serial
     private static final long serialVersionUID = 1L;
 
@@ -42,6 +50,12 @@ public class ChessGame implements Serializable, IOriginator {
      */
     private boolean whiteToMove;
 
+    /**
+     * Número do lance completo (como no FEN): começa em 1 e aumenta após cada jogada das pretas.
+     * Jogos gravados antes de existir este campo têm 0, tratado como 1.
+     */
+    private int fullmoveNumber = 1;
+
     /**
      * Modo de aprendizagem ativado para mostrar dicas e movimentos possíveis.
      */
@@ -52,6 +66,28 @@ public class ChessGame implements Serializable, IOriginator {
      */
     private Piece lastCapturedPiece;
 
+    /**
+     * Buffer de movimentos reutilizado nas consultas de movimentos possíveis.
+     * Não é serializado; é recriado quando necessário.
+     */
+    private transient MoveList moveBuffer;
+
+    /**
+     * Estado da posição atual, calculado na primeira consulta após cada alteração.
+     * Não é serializado; é recalculado quando necessário.
+     */
+    private transient GameStatus status;
+
+    /**
+     * Hash da posição para a qual {@link #status} foi calculado.
+     */
+    private transient long statusHash;
+
+    /**
+     * Buffer reutilizado pelas exportações em texto.
+     */
+    private transient StringBuilder textBuffer;
+
     /**
      * Construtor padrão que inicializa um novo jogo de xadrez.
      * Cria um tabuleiro vazio e define nomes padrão para os jogadores.
@@ -115,21 +151,37 @@ public class ChessGame implements Serializable, IOriginator {
 
     /**
      * Importa o estado do jogo a partir de uma string formatada.
-     * Limpa o tabuleiro atual e reconstroi baseado nos dados fornecidos.
+     * Reconstroi o tabuleiro com base nos dados fornecidos; se forem inválidos, o jogo não é alterado.
      * @param data string contendo o estado completo do jogo
+     * @throws IllegalArgumentException se alguma peça for inválida
      */
     public void importGame(String data) {
-        board.clearBoard();
-
-        data = data.replaceAll("[\\n\\r\\s]", "");
+        Board parsed = new Board();
+        setPosition(parsed, PositionFormat.parseExport(data, parsed));
+    }
 
-        whiteToMove = data.toUpperCase().startsWith("WHITE");
-        String[] parts = data.substring(data.indexOf(",") + 1).split(",");
+    /**
+     * Importa uma posição em notação FEN (peças, vez, roque, en passant e relógios).
+     * @param fen string FEN, ex.: "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"
+     * @throws IllegalArgumentException se o FEN for inválido (o jogo não é alterado)
+     */
+    public void importFen(String fen) {
+        Board parsed = new Board();
+        setPosition(parsed, PositionFormat.parseFen(fen, parsed));
+    }
 
-        for (String pieceStr : parts) {
-            Piece piece = PieceFactory.createPiece(pieceStr);
-            board.addPiece(piece, piece.getPosition());
-        }
+    /**
+     * Substitui a posição por um tabuleiro já lido com {@link PositionFormat}.
+     * A leitura é feita num tabuleiro à parte para que um texto inválido não altere o jogo.
+     * @param parsed tabuleiro lido (passa a pertencer ao jogo)
+     * @param info lado a jogar e número do lance devolvidos pela leitura
+     */
+    public void setPosition(Board parsed, PositionFormat.Info info) {
+        board = parsed;
+        whiteToMove = info.whiteToMove();
+        fullmoveNumber = info.fullmoveNumber();
+        lastCapturedPiece = null;
+        status = null;
     }
 
     /**
@@ -138,23 +190,59 @@ public class ChessGame implements Serializable, IOriginator {
      * @return string representando o estado completo do jogo
      */
     public String exportGame() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(whiteToMove ? "WHITE" : "BLACK").append(",");
-
-        for (int row = 0; row < Board.BOARD_SIZE; row++) {
-            for (int col = 0; col < Board.BOARD_SIZE; col++) {
-                Piece piece = board.getPiece(new Position(row, col));
-                if (piece != null) {
-                    sb.append(piece).append(",");
-                }
-            }
-        }
+        return PositionFormat.appendExport(board, whiteToMove, textBuffer()).toString();
+    }
 
-        if (!sb.isEmpty()) {
-            sb.deleteCharAt(sb.length() - 1); // Remove a última vírgula
-        }
+    /**
+     * Exporta a posição atual em notação FEN.
+     * @return string FEN
+     */
+    public String exportFen() {
+        return PositionFormat.appendFen(board, whiteToMove, getFullmoveNumber(), textBuffer()).toString();
+    }
 
-        return sb.toString();
+    private StringBuilder textBuffer() {
+        if (textBuffer == null)
+            textBuffer = new StringBuilder(256);
+        textBuffer.setLength(0);
+        return textBuffer;
+    }
+
+    /**
+     * Obtém o número do lance completo (como no FEN).
+     * @return número do lance, a partir de 1
+     */
+    public int getFullmoveNumber() {
+        return Math.max(1, fullmoveNumber);
+    }
+
+    /**
+     * Define o número do lance completo (por exemplo, ao carregar um jogo gravado).
+     * @param fullmoveNumber número do lance, a partir de 1
+     */
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = Math.max(1, fullmoveNumber);
+    }
+
+    /**
+     * Cria um snapshot binário compacto da posição atual (peças, vez, roque, en passant
+     * e relógio de meios-lances), sem nomes dos jogadores nem histórico.
+     * @return snapshot com {@link PositionCodec#SIZE} bytes
+     */
+    public byte[] toSnapshot() {
+        return PositionCodec.encode(board, whiteToMove);
+    }
+
+    /**
+     * Repõe a posição a partir de um snapshot criado com {@link #toSnapshot()}.
+     * O histórico de movimentos do tabuleiro é descartado.
+     * @param snapshot snapshot binário
+     * @throws IllegalArgumentException se o snapshot for inválido
+     */
+    public void fromSnapshot(byte[] snapshot) {
+        whiteToMove = PositionCodec.decode(snapshot, board);
+        lastCapturedPiece = null;
+        status = null;
     }
 
     /**
@@ -162,7 +250,6 @@ public class ChessGame implements Serializable, IOriginator {
      * Coloca todas as peças nas suas posições iniciais regulamentares.
      */
     public void initializeBoard() {
-        board.clearBoard();
         importGame("WHITE," +
                 "ra8*,nb8,bc8,qd8,ke8*,bf8,ng8,rh8*," +
                 "pa7,pb7,pc7,pd7,pe7,pf7,pg7,ph7," +
@@ -191,6 +278,23 @@ public class ChessGame implements Serializable, IOriginator {
         return whiteToMove;
     }
 
+    /**
+     * Obtém o tabuleiro do jogo (usado por ferramentas que exploram posições diretamente).
+     * @return tabuleiro
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Obtém o hash de Zobrist da posição atual, incluindo o lado a jogar.
+     * Posições iguais (mesmas peças, direitos de roque, en passant e vez) têm o mesmo hash.
+     * @return hash de 64 bits
+     */
+    public long getPositionHash() {
+        return board.getHash() ^ (whiteToMove ? 0L : Zobrist.SIDE);
+    }
+
 
     /**
      * Obtém todos os movimentos possíveis para uma peça numa posição.
@@ -199,11 +303,27 @@ public class ChessGame implements Serializable, IOriginator {
      * @return lista de posições para onde a peça pode mover-se
      */
     public List<Position> getPossibleMoves(Position pos) {
-        Piece piece = board.getPiece(pos);
-        List<Position> possibleMoves = piece.getPossibleMoves(board);
-        piece.removeCheckMoves(board, possibleMoves);
+        MoveList moves = generateMoves(pos);
+        if (moves == null)
+            return new ArrayList<>(); // Retorna lista vazia se não houver peça
+
+        return Bitboard.toPositions(moves.getTargets());
+    }
+
+    /**
+     * Gera os movimentos válidos de uma peça para o buffer reutilizável do jogo.
+     * @param pos posição da peça
+     * @return buffer com os movimentos codificados ou null se não houver peça
+     */
+    private MoveList generateMoves(Position pos) {
+        if (board.getPiece(pos) == null)
+            return null;
 
-        return possibleMoves; // Retorna lista vazia se não houver peça
+        if (moveBuffer == null)
+            moveBuffer = new MoveList();
+        moveBuffer.clear();
+        MoveGenerator.generateLegalMoves(board, Bitboard.square(pos), moveBuffer);
+        return moveBuffer;
     }
 
     /**
@@ -230,21 +350,63 @@ public class ChessGame implements Serializable, IOriginator {
             return false;
         }
 
-        whiteToMove = !whiteToMove;
+        switchTurn();
         return true;
     }
 
+    private void switchTurn() {
+        whiteToMove = !whiteToMove;
+        if (whiteToMove)
+            fullmoveNumber = getFullmoveNumber() + 1;
+        status = null;
+    }
+
+    /**
+     * Obtém o estado da posição atual (xeque, xeque-mate, empate, número de movimentos legais).
+     * É calculado uma vez por posição, numa única geração de movimentos, e reutilizado
+     * até a posição mudar.
+     * @return estado da posição atual
+     */
+    public GameStatus getStatus() {
+        long hash = getPositionHash();
+        if (status == null || statusHash != hash) {
+            status = computeStatus();
+            statusHash = hash;
+        }
+        return status;
+    }
+
+    private GameStatus computeStatus() {
+        if (moveBuffer == null)
+            moveBuffer = new MoveList();
+        moveBuffer.clear();
+        MoveGenerator.generateLegalMoves(board, whiteToMove, moveBuffer);
+
+        int legalMoves = moveBuffer.size();
+        boolean check = board.isCheck(PieceType.KING, whiteToMove);
+        boolean hasKing = board.getKingSquare(whiteToMove) >= 0;
+
+        // O xeque-mate tem prioridade sobre qualquer empate
+        GameStatus.DrawReason drawReason = GameStatus.DrawReason.NONE;
+        if (legalMoves == 0) {
+            if (hasKing && !check)
+                drawReason = GameStatus.DrawReason.STALEMATE;
+        } else if (board.isInsufficientMaterial())
+            drawReason = GameStatus.DrawReason.INSUFFICIENT_MATERIAL;
+        else if (board.isThreefoldRepetition())
+            drawReason = GameStatus.DrawReason.THREEFOLD_REPETITION;
+        else if (board.isFiftyMoveRule())
+            drawReason = GameStatus.DrawReason.FIFTY_MOVE_RULE;
+
+        return new GameStatus(whiteToMove, check, check && legalMoves == 0, drawReason, legalMoves);
+    }
+
     /**
      * Determina o vencedor ou estado atual do jogo.
      * @return 2/-2 para vitória branca/preta, 1/-1 para xeque branco/preto, 0 para jogo normal
      */
     public int getWinner() {
-        if (board.isCheckmate(whiteToMove))
-            return !whiteToMove ? 2 : -2;
-        else if (board.isCheck(PieceType.KING, whiteToMove))
-            return whiteToMove ? 1 : -1;
-
-        return 0;
+        return getStatus().getWinner();
     }
 
     /**
@@ -285,14 +447,7 @@ public class ChessGame implements Serializable, IOriginator {
      * @return string descrevendo xeque-mate, empate, xeque ou null se jogo continua
      */
     public String getEndState() {
-        if (board.isStalemate())
-            return "Stalemate";
-        else if (board.isCheckmate(whiteToMove))
-            return (!whiteToMove ? "White" : "Black") + " Won";
-        else if (board.isCheck(PieceType.KING, whiteToMove))
-            return (whiteToMove ? "White" : "Black") + " is in Check";
-
-        return null;
+        return getStatus().getEndState();
     }
 
     /**
@@ -351,15 +506,12 @@ public class ChessGame implements Serializable, IOriginator {
             return false; // Movimento inválido
         }
 
-        Piece piece = board.getPiece(from);
-        if (piece == null) {
+        MoveList moves = generateMoves(from);
+        if (moves == null) {
             return false; // Não há peça na posição de origem
         }
 
-        List<Position> possibleMoves = piece.getPossibleMoves(board);
-        piece.removeCheckMoves(board, possibleMoves);
-
-        return possibleMoves.contains(to); // Verifica se o movimento é possível
+        return moves.find(Bitboard.square(from), Bitboard.square(to)) != Move.NONE; // Verifica se o movimento é possível
     }
 
     /**
@@ -377,29 +529,114 @@ public class ChessGame implements Serializable, IOriginator {
     }
 
     /**
-     * Cria um memento com o estado atual do jogo.
-     * Implementação do padrão Memento para undo/redo.
+     * Cria um memento com a posição atual (snapshot compacto, sem o histórico de movimentos).
+     * Implementação do padrão Memento para undo/redo; ver {@link #saveWithHistory()} para manter o histórico.
      */
     @Override
     public IMemento save() {
-        return new Memento(this);
+        return new PositionMemento(toSnapshot(), fullmoveNumber, whitePlayerName, blackPlayerName, learningMode);
     }
 
     /**
-     * Cria um memento com o estado atual do jogo.
+     * Repõe o estado a partir de um memento criado por {@link #save()} ou {@link #saveWithHistory()}.
      * Implementação do padrão Memento para undo/redo.
      */
     @Override
     public void restore(IMemento memento) {
+        if (memento instanceof PositionMemento positionMemento) {
+            fromSnapshot((byte[]) positionMemento.getSnapshot());
+            if (positionMemento instanceof HistoryMemento historyMemento) {
+                for (int move : historyMemento.getMoves())
+                    redoMove(move);
+            }
+            fullmoveNumber = positionMemento.getFullmoveNumber();
+            whitePlayerName = positionMemento.getWhitePlayerName();
+            blackPlayerName = positionMemento.getBlackPlayerName();
+            learningMode = positionMemento.isLearningMode();
+            return;
+        }
+
         Object obj = memento.getSnapshot();
 
-        if (obj instanceof ChessGame game) {
+        if (obj instanceof byte[] snapshot) {
+            fromSnapshot(snapshot);
+        } else if (obj instanceof ChessGame game) {
             this.whitePlayerName = game.getPlayerWhite();
             this.blackPlayerName = game.getPlayerBlack();
             this.whiteToMove = game.isWhiteToMove();
+            this.fullmoveNumber = game.getFullmoveNumber();
             this.learningMode = game.isLearningMode();
             this.board = game.board;
             this.lastCapturedPiece = game.getLastCapturedPiece();
+            this.status = null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Cria um memento com a posição antes do primeiro movimento do tabuleiro e os movimentos feitos desde então.
+     * O tabuleiro fica igual no fim.
+     */
+    @Override
+    public IMemento saveWithHistory() {
+        int[] moves = new int[board.getPly()];
+        for (int i = 0; i < moves.length; i++)
+            moves[i] = board.getMove(i);
+
+        for (int i = 0; i < moves.length; i++)
+            board.unmakeMove();
+        byte[] initial = PositionCodec.encode(board, whiteToMove == (moves.length % 2 == 0));
+        for (int move : moves)
+            board.makeMove(move);
+        return new HistoryMemento(initial, moves, fullmoveNumber, whitePlayerName, blackPlayerName, learningMode);
+    }
+
+    /**
+     * Obtém o último movimento feito no tabuleiro.
+     * @return movimento codificado ou {@link Move#NONE}
+     */
+    @Override
+    public int getLastMove() {
+        return board.getLastMove();
+    }
+
+    /**
+     * Desfaz o último movimento no tabuleiro e devolve a vez ao jogador anterior.
+     * @return movimento desfeito ou {@link Move#NONE} se não houver movimentos
+     */
+    @Override
+    public int undoMove() {
+        int move = board.unmakeMove();
+        if (move != Move.NONE) {
+            whiteToMove = !whiteToMove;
+            if (!whiteToMove && fullmoveNumber > 1)
+                fullmoveNumber--;
+            lastCapturedPiece = null;
+            status = null;
+        }
+        return move;
+    }
+
+    /**
+     * Volta a fazer um movimento, validando-o contra os movimentos legais da posição.
+     * @param move movimento codificado
+     * @return true se o movimento era legal e foi feito
+     */
+    @Override
+    public boolean redoMove(int move) {
+        Piece piece = board.getPiece(Move.from(move));
+        if (piece == null || piece.isWhite() != whiteToMove)
+            return false;
+
+        if (moveBuffer == null)
+            moveBuffer = new MoveList();
+        moveBuffer.clear();
+        MoveGenerator.generateLegalMoves(board, Move.from(move), moveBuffer);
+        if (!moveBuffer.contains(move))
+            return false;
+
+        lastCapturedPiece = board.getPiece(Move.to(move));
+        board.makeMove(move);
+        switchTurn();
+        return true;
+    }
+}
@@ -1,12 +1,31 @@
 package pt.isec.pa.chess.model;
 
+import pt.isec.pa.chess.model.book.PolyglotBook;
+import pt.isec.pa.chess.model.data.board.Bitboard;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveList;
 import pt.isec.pa.chess.model.data.board.Position;
+import pt.isec.pa.chess.model.db.GameDatabase;
+import pt.isec.pa.chess.model.db.GameDatabaseBuilder;
+import pt.isec.pa.chess.model.db.OpeningExplorer;
+import pt.isec.pa.chess.model.db.OpeningExplorerBuilder;
+import pt.isec.pa.chess.model.engine.Engine;
+import pt.isec.pa.chess.model.engine.SearchLimits;
+import pt.isec.pa.chess.model.engine.SearchResult;
+import pt.isec.pa.chess.model.io.PositionFormat;
+import pt.isec.pa.chess.model.io.pgn.PgnGame;
+import pt.isec.pa.chess.model.io.pgn.PgnReader;
+import pt.isec.pa.chess.model.io.pgn.PgnWriter;
 import pt.isec.pa.chess.model.memento.CareTaker;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Manager que coordena o jogo de xadrez e comunica com a interface de usuário.
@@ -19,6 +38,34 @@ public class ChessGameManager {
     private PropertyChangeSupport pcs;
     CareTaker cr;
 
+    /**
+     * Base de dados de jogos aberta (ou null), usada para procurar a posição atual noutros jogos.
+     */
+    private GameDatabase database;
+
+    /**
+     * Estatísticas de aberturas abertas (ou null), usadas no modo de aprendizagem.
+     */
+    private OpeningExplorer explorer;
+
+    /**
+     * Livro de aberturas aberto (ou null), usado para o computador jogar a abertura.
+     */
+    private PolyglotBook book;
+    private final MoveList bookBuffer = new MoveList();
+    private final Random bookRandom = new Random();
+
+    /**
+     * Motor usado para escolher movimentos (adversário do computador e análise).
+     */
+    private final Engine engine = new Engine();
+
+    /**
+     * Intervalo, em movimentos, entre os checkpoints completos guardados no histórico.
+     * Entre checkpoints, o undo/redo apenas desfaz e refaz os movimentos no tabuleiro.
+     */
+    private static final int HISTORY_CHECKPOINT_INTERVAL = 32;
+
     /**
      * Propriedade disparada quando o estado do tabuleiro muda.
      * Usado para atualizar a visualização do tabuleiro na UI.
@@ -75,7 +122,7 @@ public class ChessGameManager {
     public ChessGameManager() {
         chessGame = new ChessGame();
         pcs = new PropertyChangeSupport(this);
-        cr = new CareTaker(chessGame);
+        cr = new CareTaker(chessGame, HISTORY_CHECKPOINT_INTERVAL);
         ModelLog.getInstance().addLog("Jogo iniciado.");
     }
 
@@ -113,7 +160,7 @@ public class ChessGameManager {
 
     /**
      * Executa um movimento no jogo.
-     * Valida o movimento, salva estado para undo, executa e notifica observers.
+     * Valida o movimento, executa, regista o movimento para undo e notifica observers.
      * Registra o movimento no log e dispara eventos apropriados.
      * @param from posição de origem da peça
      * @param to posição de destino da peça
@@ -126,8 +173,8 @@ public class ChessGameManager {
             return false;
         }
 
-        cr.save();
         chessGame.makeMove(from, to);
+        cr.saveMove();
         ModelLog.getInstance().addLog("Movimento feito: [" + from.r + "," + from.c + "] → [" + to.r + "," + to.c + "]");
 
         fireChange(PROP_PLAYER_MOVE, from, to);
@@ -161,8 +208,9 @@ public class ChessGameManager {
     public void undo() {
         if (!cr.hasUndo())
             ModelLog.getInstance().addLog("No more undo's available");
+        else if (!cr.undo())
+            ModelLog.getInstance().addLog("Undo failed, history cleared");
 
-        cr.undo();
         pcs.firePropertyChange(PROP_BOARD_STATE, null, null);
     }
 
@@ -174,8 +222,9 @@ public class ChessGameManager {
     public void redo() {
         if (!cr.hasRedo())
             ModelLog.getInstance().addLog("No more redo's available");
+        else if (!cr.redo())
+            ModelLog.getInstance().addLog("Redo failed, redo history cleared");
 
-        cr.redo();
         pcs.firePropertyChange(PROP_BOARD_STATE, null, null);
     }
 
@@ -214,6 +263,7 @@ public class ChessGameManager {
         try {
             String oldGame = chessGame.exportGame();
             this.chessGame = ChessGameSerialization.importGame(filePath);
+            cr = new CareTaker(chessGame, HISTORY_CHECKPOINT_INTERVAL);
             String newGame = chessGame.exportGame();
             ModelLog.getInstance().addLog("Jogo carregado de: " + filePath);
             fireChange(PROP_GAME_LOADED, oldGame, newGame);
@@ -222,14 +272,218 @@ public class ChessGameManager {
         }
     }
 
+    /**
+     * Carrega o primeiro jogo de um ficheiro PGN, validando todos os lances.
+     * O histórico do jogo fica disponível para desfazer.
+     * @param filePath caminho do ficheiro PGN
+     * @throws ChessException se o ficheiro não tiver jogos, tiver erros ou lances ilegais
+     */
+    public void loadPgn(String filePath) throws ChessException {
+        try (PgnReader reader = new PgnReader(Path.of(filePath))) {
+            PgnGame pgn = reader.next();
+            if (pgn == null)
+                throw new ChessException("O ficheiro não tem jogos: " + filePath);
+
+            String oldGame = chessGame.exportGame();
+            this.chessGame = pgn.toChessGame();
+            cr = new CareTaker(chessGame, HISTORY_CHECKPOINT_INTERVAL);
+            // Volta ao início e refaz os lances, registando cada um para poder ser desfeito
+            int[] moves = new int[chessGame.getBoard().getPly()];
+            for (int i = moves.length - 1; i >= 0; i--)
+                moves[i] = chessGame.undoMove();
+            for (int move : moves) {
+                chessGame.redoMove(move);
+                cr.saveMove();
+            }
+            ModelLog.getInstance().addLog("Jogo PGN carregado de: " + filePath);
+            fireChange(PROP_GAME_LOADED, oldGame, chessGame.exportGame());
+        } catch (IOException e) {
+            throw new ChessException("Falha ao carregar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Grava o jogo atual em PGN, com os lances desde a posição inicial.
+     * @param filePath caminho do ficheiro PGN
+     * @throws ChessException se falhar ao gravar o ficheiro
+     */
+    public void savePgn(String filePath) throws ChessException {
+        try (PgnWriter writer = new PgnWriter(Path.of(filePath))) {
+            writer.write(PgnGame.of(chessGame));
+            ModelLog.getInstance().addLog("Jogo PGN salvo para: " + filePath);
+        } catch (IOException e) {
+            throw new ChessException("Falha ao salvar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Abre uma base de dados de jogos (criada com {@link GameDatabaseBuilder}),
+     * fechando a anterior, se existir.
+     * @param directory pasta da base de dados
+     * @throws ChessException se a base de dados não existir ou for inválida
+     */
+    public void openDatabase(String directory) throws ChessException {
+        try {
+            GameDatabase opened = GameDatabase.open(Path.of(directory));
+            closeDatabase();
+            database = opened;
+            ModelLog.getInstance().addLog("Base de dados aberta: " + directory + " (" + database.getGameCount() + " jogos)");
+        } catch (IOException e) {
+            throw new ChessException("Falha ao abrir a base de dados: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fecha a base de dados aberta, se existir.
+     */
+    public void closeDatabase() {
+        if (database == null)
+            return;
+        try {
+            database.close();
+        } catch (IOException ignored) {
+        }
+        database = null;
+    }
+
+    /**
+     * Procura na base de dados aberta os jogos que atingiram a posição atual.
+     * @param limit número máximo de jogos
+     * @return jogos encontrados (vazio se não houver base de dados aberta)
+     * @throws ChessException se a leitura dos jogos falhar
+     */
+    public List<GameDatabase.GameInfo> findGamesWithCurrentPosition(int limit) throws ChessException {
+        List<GameDatabase.GameInfo> result = new ArrayList<>();
+        if (database == null)
+            return result;
+        try {
+            for (int id : database.findGames(chessGame, limit))
+                result.add(database.getGameInfo(id));
+        } catch (IOException e) {
+            throw new ChessException("Falha ao ler a base de dados: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Abre um ficheiro de estatísticas de aberturas (criado com {@link OpeningExplorerBuilder}).
+     * @param file ficheiro de estatísticas
+     * @throws ChessException se o ficheiro não existir ou for inválido
+     */
+    public void openExplorer(String file) throws ChessException {
+        try {
+            explorer = OpeningExplorer.open(Path.of(file));
+            ModelLog.getInstance().addLog("Aberturas carregadas: " + file + " (" + explorer.getPositionCount() + " posições)");
+        } catch (IOException e) {
+            throw new ChessException("Falha ao abrir as aberturas: " + e.getMessage());
+        }
+    }
+
+    public boolean hasExplorer() {
+        return explorer != null;
+    }
+
+    /**
+     * Estatísticas dos movimentos jogados na posição atual, para o modo de aprendizagem.
+     * @return movimentos, do mais jogado para o menos jogado (vazio se não houver estatísticas abertas)
+     */
+    public List<OpeningExplorer.MoveStats> getOpeningStats() {
+        return explorer == null ? List.of() : explorer.lookup(chessGame);
+    }
+
+    /**
+     * Abre um livro de aberturas Polyglot ({@code .bin}).
+     * @param file ficheiro do livro
+     * @throws ChessException se o ficheiro não existir ou for inválido
+     */
+    public void openBook(String file) throws ChessException {
+        try {
+            book = PolyglotBook.open(Path.of(file));
+            ModelLog.getInstance().addLog("Livro de aberturas aberto: " + file + " (" + book.getEntryCount() + " entradas)");
+        } catch (IOException e) {
+            throw new ChessException("Falha ao abrir o livro de aberturas: " + e.getMessage());
+        }
+    }
+
+    public boolean hasBook() {
+        return book != null;
+    }
+
+    /**
+     * Movimentos do livro de aberturas para a posição atual.
+     * @return movimentos e pesos (vazio se não houver livro aberto ou a posição não estiver no livro)
+     */
+    public List<PolyglotBook.BookMove> getBookMoves() {
+        return book == null ? List.of() : book.getMoves(chessGame);
+    }
+
+    /**
+     * Joga um movimento do livro de aberturas, escolhido ao acaso de acordo com os pesos.
+     * @return true se foi jogado um movimento, false se a posição não estiver no livro
+     */
+    public boolean playBookMove() {
+        if (book == null)
+            return false;
+        int move = book.probe(chessGame.getBoard(), chessGame.isWhiteToMove(), bookBuffer, bookRandom);
+        if (move == Move.NONE || !chessGame.redoMove(move))
+            return false;
+
+        cr.saveMove();
+        Position from = new Position(Bitboard.row(Move.from(move)), Bitboard.col(Move.from(move)));
+        Position to = new Position(Bitboard.row(Move.to(move)), Bitboard.col(Move.to(move)));
+        ModelLog.getInstance().addLog("Movimento do livro: " + Move.toString(move));
+        fireChange(PROP_PLAYER_MOVE, from, to);
+        fireChange(PROP_CURRENT_PLAYER, null, null);
+        return true;
+    }
+
+    /**
+     * Procura o melhor movimento para a posição atual, sem alterar o jogo.
+     * Pode ser parada de outra thread com {@link #stopSearch()}.
+     * @param limits limites da pesquisa (profundidade, nós, tempo)
+     * @return resultado da pesquisa (melhor movimento, avaliação, variante principal, nós e tempo)
+     */
+    public SearchResult findBestMove(SearchLimits limits) {
+        SearchResult result = engine.search(chessGame, limits);
+        ModelLog.getInstance().addLog("Pesquisa: " + Move.toString(result.bestMove()) + " (profundidade " + result.depth()
+                + ", " + result.nodes() + " nós, " + result.nps() + " nós/s)");
+        return result;
+    }
+
+    /**
+     * Para a pesquisa em curso; {@link #findBestMove} devolve o resultado da última iteração completa.
+     */
+    public void stopSearch() {
+        engine.stop();
+    }
+
+    /**
+     * Define quantas threads o motor usa em {@link #findBestMove}.
+     * @param threads número de threads (por exemplo, o número de processadores)
+     */
+    public void setEngineThreads(int threads) {
+        engine.setThreads(threads);
+    }
+
     /**
      * Importa estado do jogo a partir de string formatada.
      * Útil para carregar jogos de texto ou clipboard.
-     * @param data string contendo estado do jogo no formato de exportação
+     * O texto é lido antes de se guardar o estado para desfazer: se for inválido, nada muda.
+     * @param data string contendo estado do jogo no formato de exportação ou em FEN
+     * @throws ChessException se o texto não for uma posição válida
      */
-    public void importGame(String data) {
+    public void importGame(String data) throws ChessException {
+        Board parsed = new Board();
+        PositionFormat.Info info;
+        try {
+            info = PositionFormat.parse(data, parsed);
+        } catch (IllegalArgumentException e) {
+            throw new ChessException("Falha ao importar: " + e.getMessage());
+        }
+
         String oldGame = chessGame.exportGame();
-        chessGame.importGame(data);
+        cr.save();
+        chessGame.setPosition(parsed, info);
         ModelLog.getInstance().addLog("Jogo importado via texto.");
         fireChange(PROP_BOARD_STATE, oldGame, data);
     }
@@ -243,6 +497,14 @@ public class ChessGameManager {
         return chessGame.exportGame();
     }
 
+    /**
+     * Exporta a posição atual em notação FEN.
+     * @return string FEN
+     */
+    public String exportFen() {
+        return chessGame.exportFen();
+    }
+
 
     /**
      * Obtém representação da peça numa posição.
@@ -325,6 +587,15 @@ public class ChessGameManager {
         return chessGame.getWinner();
     }
 
+    /**
+     * Obtém o estado da posição atual (xeque, xeque-mate, empate, movimentos legais).
+     * Calculado uma vez por posição, pode ser consultado em cada redesenho sem custo.
+     * @return estado da posição atual
+     */
+    public GameStatus getStatus() {
+        return chessGame.getStatus();
+    }
+
     /**
      * Verifica se uma posição está vazia.
      * @param p posição a verificar
@@ -1,20 +1,71 @@
 package pt.isec.pa.chess.model;
 
+import pt.isec.pa.chess.model.io.GameFile;
+
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 public class ChessGameSerialization {
     private ChessGameSerialization() {}
 
+    /**
+     * Classes aceites ao ler ficheiros antigos (serialização Java): só o modelo do jogo
+     * e os tipos básicos de que depende, para não desserializar objetos arbitrários.
+     */
+    private static final ObjectInputFilter LEGACY_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=32;maxrefs=100000;maxbytes=16777216;"
+                    + "pt.isec.pa.chess.model.**;java.lang.Enum;java.lang.String;java.lang.Number;java.lang.Integer;!*");
+
     public static void exportGame(ChessGame game, String filename) throws IOException {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(filename))) {
-            out.writeObject(game);
-        }
+        GameFile.write(game, Path.of(filename));
     }
 
+    /**
+     * Carrega um jogo no formato binário ({@link GameFile}).
+     * Ficheiros antigos, gravados com serialização Java, são lidos e convertidos
+     * automaticamente para o formato binário.
+     * @param filename ficheiro a carregar
+     * @return jogo carregado
+     */
     public static ChessGame importGame(String filename) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(filename))) {
-            return (ChessGame) in.readObject();
+        Path path = Path.of(filename);
+        if (GameFile.isGameFile(path))
+            return GameFile.read(path);
+
+        ChessGame game = importLegacyGame(path);
+        migrate(game, path);
+        return game;
+    }
+
+    private static ChessGame importLegacyGame(Path path) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            in.setObjectInputFilter(LEGACY_FILTER);
+            Object obj = in.readObject();
+            if (!(obj instanceof ChessGame game))
+                throw new InvalidObjectException("O ficheiro não contém um jogo de xadrez");
+            return game;
         }
     }
-}
 
+    /**
+     * Reescreve um ficheiro antigo no formato binário (via ficheiro temporário, para
+     * nunca deixar o original meio escrito). Se não for possível, o original fica intacto.
+     */
+    private static void migrate(ChessGame game, Path path) {
+        Path parent = path.toAbsolutePath().getParent();
+        try {
+            Path temp = Files.createTempFile(parent, "migrate", ".chess");
+            try {
+                GameFile.write(game, temp);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            ModelLog.getInstance().addLog("Ficheiro convertido para o formato binário: " + path);
+        } catch (IOException e) {
+            ModelLog.getInstance().addLog("Não foi possível converter o ficheiro " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package pt.isec.pa.chess.model;
+
+/**
+ * Estado de uma posição do jogo, calculado uma única vez por posição pelo {@link ChessGame}.
+ * Todas as consultas da UI (vencedor, xeque, estado final) são servidas a partir deste registo,
+ * evitando gerar os movimentos legais a cada redesenho.
+ * @param whiteToMove lado a jogar na posição
+ * @param check se o rei do lado a jogar está em xeque
+ * @param checkmate se o lado a jogar levou xeque-mate
+ * @param drawReason motivo do empate ou {@link DrawReason#NONE}
+ * @param legalMoveCount número de movimentos legais do lado a jogar
+ */
+public record GameStatus(boolean whiteToMove, boolean check, boolean checkmate,
+                         DrawReason drawReason, int legalMoveCount) {
+
+    /**
+     * Motivos pelos quais o jogo pode terminar empatado.
+     */
+    public enum DrawReason {
+        NONE,
+        STALEMATE,
+        INSUFFICIENT_MATERIAL,
+        THREEFOLD_REPETITION,
+        FIFTY_MOVE_RULE
+    }
+
+    public boolean isStalemate() {
+        return drawReason == DrawReason.STALEMATE;
+    }
+
+    public boolean isDraw() {
+        return drawReason != DrawReason.NONE;
+    }
+
+    public boolean isGameOver() {
+        return checkmate || isDraw();
+    }
+
+    /**
+     * Código numérico do estado (ver {@link ChessGame#getWinner()}).
+     * @return 2/-2 para vitória branca/preta, 1/-1 para xeque branco/preto, 0 para jogo normal
+     */
+    public int getWinner() {
+        if (checkmate)
+            return !whiteToMove ? 2 : -2;
+        else if (check)
+            return whiteToMove ? 1 : -1;
+
+        return 0;
+    }
+
+    /**
+     * Descrição textual do estado (ver {@link ChessGame#getEndState()}).
+     * @return "Stalemate", "Draw" (outros empates), vitória, xeque ou null se o jogo continua
+     */
+    public String getEndState() {
+        if (isStalemate())
+            return "Stalemate";
+        else if (isDraw())
+            return "Draw";
+        else if (checkmate)
+            return (!whiteToMove ? "White" : "Black") + " Won";
+        else if (check)
+            return (whiteToMove ? "White" : "Black") + " is in Check";
+
+        return null;
+    }
+}
@@ -0,0 +1,163 @@
+package pt.isec.pa.chess.model.book;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveList;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Livro de aberturas no formato Polyglot ({@code .bin}).
+ * <p>
+ * O ficheiro é uma sequência de entradas de {@value #ENTRY_SIZE} bytes big-endian
+ * (chave u64, movimento u16, peso u16, aprendizagem u32), ordenadas pela chave (sem sinal).
+ * É mapeado em memória e cada consulta é uma pesquisa binária sobre o mapeamento:
+ * ~log2(n) leituras, sem alocar. Pode ser usado por várias threads ao mesmo tempo
+ * (cada thread com a sua lista de trabalho).
+ */
+public final class PolyglotBook {
+    static final int ENTRY_SIZE = 16;
+
+    /**
+     * Movimento do livro.
+     * @param move movimento codificado
+     * @param weight peso (frequência relativa com que deve ser escolhido)
+     */
+    public record BookMove(int move, int weight) {}
+
+    private final MappedByteBuffer buffer;
+    private final int entryCount;
+
+    private PolyglotBook(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.entryCount = buffer.capacity() / ENTRY_SIZE;
+    }
+
+    /**
+     * Abre um livro Polyglot.
+     * @param file ficheiro {@code .bin}
+     * @return livro aberto
+     * @throws IOException se o ficheiro não existir ou tiver um tamanho inválido
+     */
+    public static PolyglotBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % ENTRY_SIZE != 0 || size > Integer.MAX_VALUE)
+                throw new IOException("Livro de aberturas inválido: " + file);
+            return new PolyglotBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    private long keyAt(int entry) {
+        return buffer.getLong(entry * ENTRY_SIZE);
+    }
+
+    private int moveAt(int entry) {
+        return buffer.getShort(entry * ENTRY_SIZE + 8) & 0xFFFF;
+    }
+
+    private int weightAt(int entry) {
+        return buffer.getShort(entry * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+
+    /**
+     * Primeira entrada com chave >= à indicada (comparação sem sinal).
+     */
+    private int lowerBound(long key) {
+        int low = 0, high = entryCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Indica se o livro tem movimentos para uma posição.
+     * @param key chave Polyglot (ver {@link PolyglotKey#compute})
+     * @return true se existir pelo menos uma entrada
+     */
+    public boolean contains(long key) {
+        int entry = lowerBound(key);
+        return entry < entryCount && keyAt(entry) == key;
+    }
+
+    /**
+     * Escolhe o movimento com maior peso, sem alocar.
+     * @param board tabuleiro
+     * @param whiteToMove true se forem as brancas a jogar
+     * @param buffer lista de trabalho (é limpa)
+     * @return movimento codificado ou {@link Move#NONE} se a posição não estiver no livro
+     */
+    public int probe(Board board, boolean whiteToMove, MoveList buffer) {
+        long key = PolyglotKey.compute(board, whiteToMove);
+        int best = -1;
+        for (int i = lowerBound(key); i < entryCount && keyAt(i) == key; i++) {
+            if (best < 0 || weightAt(i) > weightAt(best))
+                best = i;
+        }
+        return best < 0 ? Move.NONE : PolyglotKey.toMove(board, whiteToMove, moveAt(best), buffer);
+    }
+
+    /**
+     * Escolhe um movimento ao acaso, com probabilidade proporcional ao peso, sem alocar.
+     * @param board tabuleiro
+     * @param whiteToMove true se forem as brancas a jogar
+     * @param buffer lista de trabalho (é limpa)
+     * @param random gerador de números aleatórios
+     * @return movimento codificado ou {@link Move#NONE} se a posição não estiver no livro
+     */
+    public int probe(Board board, boolean whiteToMove, MoveList buffer, RandomGenerator random) {
+        long key = PolyglotKey.compute(board, whiteToMove);
+        int first = lowerBound(key);
+        int end = first;
+        long total = 0;
+        while (end < entryCount && keyAt(end) == key)
+            total += weightAt(end++);
+        if (end == first)
+            return Move.NONE;
+        if (total == 0)
+            return PolyglotKey.toMove(board, whiteToMove, moveAt(first), buffer);
+
+        long pick = random.nextLong(total);
+        int entry = first;
+        while ((pick -= weightAt(entry)) >= 0)
+            entry++;
+        return PolyglotKey.toMove(board, whiteToMove, moveAt(entry), buffer);
+    }
+
+    /**
+     * Lista os movimentos do livro para a posição atual de um jogo.
+     * Entradas com movimentos ilegais na posição são ignoradas.
+     * @param game jogo
+     * @return movimentos, pela ordem do livro (normalmente do maior para o menor peso)
+     */
+    public List<BookMove> getMoves(ChessGame game) {
+        Board board = game.getBoard();
+        boolean white = game.isWhiteToMove();
+        long key = PolyglotKey.compute(board, white);
+        MoveList buffer = new MoveList();
+        List<BookMove> moves = new ArrayList<>();
+        for (int i = lowerBound(key); i < entryCount && keyAt(i) == key; i++) {
+            int move = PolyglotKey.toMove(board, white, moveAt(i), buffer);
+            if (move != Move.NONE)
+                moves.add(new BookMove(move, weightAt(i)));
+        }
+        return moves;
+    }
+}
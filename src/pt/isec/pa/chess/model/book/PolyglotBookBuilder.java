@@ -0,0 +1,228 @@
+package pt.isec.pa.chess.model.book;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.db.GameDatabase;
+import pt.isec.pa.chess.model.io.PositionCodec;
+import pt.isec.pa.chess.model.io.pgn.PgnException;
+import pt.isec.pa.chess.model.io.pgn.PgnGame;
+import pt.isec.pa.chess.model.io.pgn.PgnReader;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Cria um livro Polyglot a partir de jogos.
+ * <p>
+ * Cada movimento dos primeiros {@code maxPly} meios-lances de cada jogo com resultado
+ * soma pontos ao par (posição, movimento): 2 se o lado que o jogou ganhou, 1 se empatou.
+ * Os movimentos que só perderam não entram no livro. Os pesos de cada posição são
+ * reduzidos proporcionalmente quando ultrapassam o máximo de 16 bits do formato.
+ */
+public final class PolyglotBookBuilder {
+    public static final int DEFAULT_MAX_PLY = 30;
+
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPly;
+    private int gameCount;
+
+    private int size;
+    private long[] keys = new long[1024];
+    private int[] moves = new int[keys.length];
+    private long[] scores = new long[keys.length];
+
+    public PolyglotBookBuilder() {
+        this(DEFAULT_MAX_PLY);
+    }
+
+    /**
+     * @param maxPly número de meios-lances considerados em cada jogo
+     */
+    public PolyglotBookBuilder(int maxPly) {
+        this.maxPly = Math.max(1, maxPly);
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Número de entradas (posição, movimento) acumuladas até agora.
+     * @return número de entradas
+     */
+    public int getEntryCount() {
+        return size;
+    }
+
+    /**
+     * Adiciona um jogo com todo o seu histórico de movimentos.
+     * Jogos sem resultado são ignorados.
+     * @param game jogo (o tabuleiro fica igual no fim)
+     * @param result resultado em notação PGN ("1-0", "0-1", "1/2-1/2" ou "*")
+     */
+    public void add(ChessGame game, String result) {
+        Board board = game.getBoard();
+        int[] history = new int[board.getPly()];
+        for (int i = 0; i < history.length; i++)
+            history[i] = board.getMove(i);
+
+        for (int i = 0; i < history.length; i++)
+            board.unmakeMove();
+        boolean white = game.isWhiteToMove() == (history.length % 2 == 0);
+        add(board, white, history, result);
+        for (int move : history)
+            board.makeMove(move);
+    }
+
+    /**
+     * Adiciona um jogo PGN, validando todos os lances.
+     * @param pgn jogo PGN
+     * @throws PgnException se o jogo tiver lances ilegais
+     */
+    public void add(PgnGame pgn) throws PgnException {
+        add(pgn.toChessGame(), pgn.getResult());
+    }
+
+    /**
+     * Adiciona todos os jogos válidos de um leitor PGN.
+     * @param reader leitor PGN
+     * @return número de jogos ignorados por terem erros
+     * @throws IOException se a leitura falhar
+     */
+    public long addAll(PgnReader reader) throws IOException {
+        long rejected = 0;
+        while (true) {
+            try {
+                PgnGame pgn = reader.next();
+                if (pgn == null)
+                    return rejected;
+                add(pgn);
+            } catch (PgnException e) {
+                rejected++;
+            }
+        }
+    }
+
+    /**
+     * Adiciona todos os jogos de uma base de dados (sem os validar de novo).
+     * @param database base de dados de jogos
+     * @throws IOException se a leitura falhar
+     */
+    public void addAll(GameDatabase database) throws IOException {
+        Board board = new Board();
+        for (int id = 0; id < database.getGameCount(); id++) {
+            GameDatabase.GameData game = database.readGame(id);
+            boolean white = PositionCodec.decode(game.initialPosition(), board);
+            add(board, white, game.moves(), game.info().result());
+        }
+    }
+
+    /**
+     * Percorre os movimentos a partir da posição do tabuleiro (que fica igual no fim).
+     */
+    private void add(Board board, boolean white, int[] history, String result) {
+        int whiteScore = switch (result == null ? "" : result) {
+            case PgnGame.RESULT_WHITE_WINS -> 2;
+            case PgnGame.RESULT_DRAW -> 1;
+            case PgnGame.RESULT_BLACK_WINS -> 0;
+            default -> -1;
+        };
+        if (whiteScore < 0)
+            return;
+
+        gameCount++;
+        int plies = Math.min(maxPly, history.length);
+        int ply = 0;
+        for (; ply < plies; ply++) {
+            int score = white ? whiteScore : 2 - whiteScore;
+            if (score > 0)
+                addScore(PolyglotKey.compute(board, white), PolyglotKey.toPolyglot(history[ply]), score);
+            board.makeMove(history[ply]);
+            white = !white;
+        }
+        for (; ply > 0; ply--)
+            board.unmakeMove();
+    }
+
+    private void addScore(long key, int move, int score) {
+        int i = index(key, move); // pode aumentar a tabela
+        scores[i] += score;
+    }
+
+    /**
+     * Posição do par (chave, movimento) na tabela; é inserido se não existir.
+     */
+    private int index(long key, int move) {
+        if (2 * (size + 1) > keys.length)
+            grow();
+        int mask = keys.length - 1;
+        int i = slot(key, move, mask);
+        while (moves[i] != 0 && (moves[i] != move || keys[i] != key))
+            i = (i + 1) & mask;
+        if (moves[i] == 0) {
+            keys[i] = key;
+            moves[i] = move;
+            size++;
+        }
+        return i;
+    }
+
+    private static int slot(long key, int move, int mask) {
+        long h = (key ^ (move * 0x9E3779B97F4A7C15L)) * 0xBF58476D1CE4E5B9L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldMoves = moves;
+        long[] oldScores = scores;
+        keys = new long[oldKeys.length * 2];
+        moves = new int[keys.length];
+        scores = new long[keys.length];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldMoves[i] != 0)
+                scores[index(oldKeys[i], oldMoves[i])] = oldScores[i];
+        }
+    }
+
+    /**
+     * Grava o livro no formato Polyglot.
+     * @param output ficheiro {@code .bin}
+     * @return número de entradas gravadas
+     * @throws IOException se a escrita falhar
+     */
+    public int write(Path output) throws IOException {
+        Integer[] order = new Integer[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++)
+            if (moves[i] != 0)
+                order[n++] = i;
+        Arrays.sort(order, (a, b) -> {
+            int cmp = Long.compareUnsigned(keys[a], keys[b]);
+            return cmp != 0 ? cmp : Long.compare(scores[b], scores[a]);
+        });
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output), 64 * 1024))) {
+            for (int i = 0; i < order.length; ) {
+                // As entradas de cada posição estão juntas e a primeira tem o maior peso
+                long key = keys[order[i]];
+                long max = scores[order[i]];
+                for (; i < order.length && keys[order[i]] == key; i++) {
+                    long score = scores[order[i]];
+                    int weight = (int) (max <= MAX_WEIGHT ? score : Math.max(1, score * MAX_WEIGHT / max));
+                    out.writeLong(key);
+                    out.writeShort(moves[order[i]]);
+                    out.writeShort(weight);
+                    out.writeInt(0);
+                }
+            }
+        }
+        return order.length;
+    }
+}
@@ -0,0 +1,221 @@
+package pt.isec.pa.chess.model.data.board;
+
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilitários para manipular bitboards (conjuntos de casas representados num long de 64 bits).
+ * Cada casa do tabuleiro corresponde a um bit: o índice é {@code linha * 8 + coluna},
+ * seguindo a mesma orientação de {@link Position} (a8 = 0, h8 = 7, a1 = 56, h1 = 63).
+ */
+public final class Bitboard {
+    private Bitboard() {}
+
+    /**
+     * Número de bitboards de peças: seis tipos para cada uma das duas cores.
+     */
+    public static final int PIECE_BITBOARDS = 12;
+
+    /**
+     * Índice da cor branca nos bitboards de ocupação.
+     */
+    public static final int WHITE = 0;
+
+    /**
+     * Índice da cor preta nos bitboards de ocupação.
+     */
+    public static final int BLACK = 1;
+
+    public static final long EMPTY = 0L;
+    public static final long ALL = ~0L;
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long NOT_FILE_A = ~FILE_A;
+    public static final long NOT_FILE_H = ~FILE_H;
+    public static final long NOT_FILE_AB = ~(FILE_A | (FILE_A << 1));
+    public static final long NOT_FILE_GH = ~(FILE_H | (FILE_H >>> 1));
+
+    /**
+     * Linha 8 (topo do tabuleiro) e linha 1 (base do tabuleiro).
+     */
+    public static final long RANK_8 = 0xFFL;
+    public static final long RANK_1 = RANK_8 << 56;
+
+    /**
+     * Casas brancas do tabuleiro (a8 é uma casa branca).
+     */
+    public static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+
+    /**
+     * Calcula o índice da casa a partir da linha e coluna.
+     * @param r linha (0 = linha 8)
+     * @param c coluna (0 = coluna a)
+     * @return índice da casa entre 0 e 63
+     */
+    public static int square(int r, int c) {
+        return (r << 3) | c;
+    }
+
+    /**
+     * Calcula o índice da casa correspondente a uma posição.
+     * @param pos posição no tabuleiro
+     * @return índice da casa entre 0 e 63
+     */
+    public static int square(Position pos) {
+        return square(pos.r, pos.c);
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int col(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Obtém o bitboard com apenas a casa indicada.
+     * @param square índice da casa
+     * @return bitboard com um único bit ativo
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Índice da casa menos significativa do bitboard (primeira casa do conjunto).
+     * @param bb bitboard não vazio
+     * @return índice da casa
+     */
+    public static int lsb(long bb) {
+        return Long.numberOfTrailingZeros(bb);
+    }
+
+    public static int count(long bb) {
+        return Long.bitCount(bb);
+    }
+
+    /**
+     * Índice do bitboard de uma peça: os tipos brancos ocupam 0-5 e os pretos 6-11.
+     * @param type tipo da peça
+     * @param isWhite cor da peça
+     * @return índice entre 0 e 11
+     */
+    public static int index(PieceType type, boolean isWhite) {
+        return type.ordinal() + (isWhite ? 0 : 6);
+    }
+
+    public static int color(boolean isWhite) {
+        return isWhite ? WHITE : BLACK;
+    }
+
+    /**
+     * Casas atacadas por um conjunto de peões.
+     * Os peões brancos avançam para a linha 8 (índices menores).
+     * @param pawns bitboard com os peões
+     * @param isWhite cor dos peões
+     * @return bitboard com as casas atacadas
+     */
+    public static long pawnAttacks(long pawns, boolean isWhite) {
+        if (isWhite)
+            return ((pawns >>> 9) & NOT_FILE_H) | ((pawns >>> 7) & NOT_FILE_A);
+        return ((pawns << 7) & NOT_FILE_H) | ((pawns << 9) & NOT_FILE_A);
+    }
+
+    /**
+     * Casas atacadas por um conjunto de cavalos.
+     * @param knights bitboard com os cavalos
+     * @return bitboard com as casas atacadas
+     */
+    public static long knightAttacks(long knights) {
+        return ((knights >>> 17) & NOT_FILE_H) | ((knights >>> 15) & NOT_FILE_A)
+                | ((knights >>> 10) & NOT_FILE_GH) | ((knights >>> 6) & NOT_FILE_AB)
+                | ((knights << 17) & NOT_FILE_A) | ((knights << 15) & NOT_FILE_H)
+                | ((knights << 10) & NOT_FILE_AB) | ((knights << 6) & NOT_FILE_GH);
+    }
+
+    /**
+     * Casas atacadas por um conjunto de reis.
+     * @param kings bitboard com os reis
+     * @return bitboard com as casas atacadas
+     */
+    public static long kingAttacks(long kings) {
+        long sides = ((kings << 1) & NOT_FILE_A) | ((kings >>> 1) & NOT_FILE_H);
+        long row = kings | sides;
+        return sides | (row << 8) | (row >>> 8);
+    }
+
+    /**
+     * Casas atacadas por torres (ou damas) em linhas e colunas, parando na primeira peça.
+     * @param rooks bitboard com as peças deslizantes
+     * @param empty bitboard com as casas vazias
+     * @return bitboard com as casas atacadas
+     */
+    public static long rookAttacks(long rooks, long empty) {
+        return slide(rooks, empty, 8, ALL) | slide(rooks, empty, -8, ALL)
+                | slide(rooks, empty, 1, NOT_FILE_A) | slide(rooks, empty, -1, NOT_FILE_H);
+    }
+
+    /**
+     * Casas atacadas por bispos (ou damas) nas diagonais, parando na primeira peça.
+     * @param bishops bitboard com as peças deslizantes
+     * @param empty bitboard com as casas vazias
+     * @return bitboard com as casas atacadas
+     */
+    public static long bishopAttacks(long bishops, long empty) {
+        return slide(bishops, empty, 9, NOT_FILE_A) | slide(bishops, empty, 7, NOT_FILE_H)
+                | slide(bishops, empty, -7, NOT_FILE_A) | slide(bishops, empty, -9, NOT_FILE_H);
+    }
+
+    /**
+     * Preenchimento numa direção (para todas as peças ao mesmo tempo) até encontrar uma peça.
+     * @param sliders peças que deslizam
+     * @param empty casas vazias
+     * @param shift deslocamento da direção (positivo = para a linha 1)
+     * @param wrap máscara que elimina os bits que dariam a volta ao tabuleiro
+     * @return casas alcançadas, incluindo a casa da primeira peça encontrada
+     */
+    private static long slide(long sliders, long empty, int shift, long wrap) {
+        long flood = sliders;
+        long open = empty & wrap;
+        for (int i = 0; i < 6; i++)
+            flood |= shift(flood, shift) & open;
+        return shift(flood, shift) & wrap;
+    }
+
+    private static long shift(long bb, int shift) {
+        return shift > 0 ? bb << shift : bb >>> -shift;
+    }
+
+    /**
+     * Converte as casas de um bitboard em posições.
+     * @param squares bitboard com as casas
+     * @return lista de posições, por ordem crescente de casa
+     */
+    public static List<Position> toPositions(long squares) {
+        List<Position> positions = new ArrayList<>(Long.bitCount(squares));
+        for (; squares != 0; squares &= squares - 1) {
+            int square = lsb(squares);
+            positions.add(new Position(row(square), col(square)));
+        }
+        return positions;
+    }
+
+    /**
+     * Representação textual do bitboard em formato de tabuleiro (útil para depuração).
+     * @param bb bitboard a representar
+     * @return string com 8 linhas de '1' e '.'
+     */
+    public static String toString(long bb) {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < Board.BOARD_SIZE; r++) {
+            for (int c = 0; c < Board.BOARD_SIZE; c++)
+                sb.append((bb & bit(square(r, c))) != 0 ? '1' : '.');
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -2,11 +2,15 @@ package pt.isec.pa.chess.model.data.board;
 
 import pt.isec.pa.chess.model.data.piece.Piece;
 import pt.isec.pa.chess.model.data.piece.pieces.*;
+import pt.isec.pa.chess.model.data.piece.tools.PieceFactory;
 import pt.isec.pa.chess.model.data.piece.tools.PieceType;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Representa o tabuleiro de xadrez 8x8 com todas as peças e regras de movimento.
@@ -22,16 +26,115 @@ public class Board implements Serializable {
     public static final int BOARD_SIZE = 8;
 
     /**
-     * Matriz bidimensional que representa o tabuleiro com as peças.
-     * Índices [linha][coluna] onde [0][0] é a8 e [7][7] é h1.
+     * Direitos de roque: pequeno/grande roque das brancas e das pretas.
      */
-    private final Piece[][] board;
+    public static final int CASTLE_WHITE_KING = 1;
+    public static final int CASTLE_WHITE_QUEEN = 2;
+    public static final int CASTLE_BLACK_KING = 4;
+    public static final int CASTLE_BLACK_QUEEN = 8;
+    public static final int CASTLE_ALL = 15;
 
     /**
-     * Posição alvo para captura en passant.
-     * Null se não há en passant possível no turno atual.
+     * Capacidade inicial da pilha de undo (cresce se um jogo for mais longo).
      */
-    private Position enPassantTarget;
+    private static final int INITIAL_UNDO_CAPACITY = 1024;
+
+    /**
+     * Máscara aplicada aos direitos de roque quando um movimento sai de ou chega a cada casa:
+     * mexer no rei ou numa torre (ou capturá-la) na casa inicial retira os direitos correspondentes.
+     */
+    private static final int[] CASTLING_MASK = new int[BOARD_SIZE * BOARD_SIZE];
+
+    static {
+        Arrays.fill(CASTLING_MASK, CASTLE_ALL);
+        CASTLING_MASK[Bitboard.square(0, 0)] &= ~CASTLE_BLACK_QUEEN;
+        CASTLING_MASK[Bitboard.square(0, 4)] &= ~(CASTLE_BLACK_KING | CASTLE_BLACK_QUEEN);
+        CASTLING_MASK[Bitboard.square(0, 7)] &= ~CASTLE_BLACK_KING;
+        CASTLING_MASK[Bitboard.square(7, 0)] &= ~CASTLE_WHITE_QUEEN;
+        CASTLING_MASK[Bitboard.square(7, 4)] &= ~(CASTLE_WHITE_KING | CASTLE_WHITE_QUEEN);
+        CASTLING_MASK[Bitboard.square(7, 7)] &= ~CASTLE_WHITE_KING;
+    }
+
+    /**
+     * Campos do estado irreversível guardado em cada registo de undo.
+     */
+    private static final int STATE_EN_PASSANT_SHIFT = 4;
+    private static final int STATE_HAS_MOVED = 1 << 11;
+    private static final int STATE_HALFMOVE_SHIFT = 12;
+
+    /**
+     * Tipos de peça com os quais ainda é possível dar xeque-mate (ver {@link #isInsufficientMaterial()}).
+     */
+    private static final PieceType[] MATING_MATERIAL = {PieceType.QUEEN, PieceType.ROOK, PieceType.PAWN};
+
+    /**
+     * Peças de cada casa do tabuleiro, indexadas por {@link Bitboard#square(int, int)}.
+     * O índice 0 é a8 e o índice 63 é h1.
+     */
+    private Piece[] squares;
+
+    /**
+     * Bitboards das peças: um por tipo e cor (ver {@link Bitboard#index(PieceType, boolean)}).
+     * Tal como os restantes bitboards, a casa do rei e o hash das peças, são derivados de
+     * {@link #squares} e reconstruídos na leitura, não sendo serializados.
+     */
+    private transient long[] pieceBitboards;
+
+    /**
+     * Bitboards de ocupação por cor ({@link Bitboard#WHITE} e {@link Bitboard#BLACK}).
+     */
+    private transient long[] colorBitboards;
+
+    /**
+     * Bitboard com todas as casas ocupadas.
+     */
+    private transient long occupied;
+
+    /**
+     * Casa do rei de cada cor ({@link Bitboard#WHITE} e {@link Bitboard#BLACK}), ou -1 se não existir.
+     * Atualizada sempre que uma casa muda, para evitar procurar o rei no tabuleiro.
+     */
+    private transient int[] kingSquares;
+
+    /**
+     * Casa alvo para captura en passant (índice de {@link Bitboard}).
+     * -1 se não há en passant possível no turno atual.
+     */
+    private int enPassantSquare = -1;
+
+    /**
+     * Direitos de roque atuais (combinação de {@link #CASTLE_WHITE_KING} e restantes).
+     */
+    private int castlingRights;
+
+    /**
+     * Meios-lances desde a última captura ou movimento de peão (regra dos 50 lances).
+     */
+    private int halfmoveClock;
+
+    /**
+     * Hash de Zobrist das peças, atualizado incrementalmente sempre que uma casa muda.
+     * Os direitos de roque e o en passant são acrescentados em {@link #getHash()}.
+     */
+    private transient long pieceHash;
+
+    /**
+     * Pilha de undo: um registo por movimento feito com {@link #makeMove(int)}.
+     * Os arrays são pré-alocados e guardam o movimento, a peça movida, a peça capturada
+     * e o estado irreversível anterior (roque, en passant, relógio de meios-lances), além do hash
+     * da posição antes do movimento, usado para detetar repetições.
+     * Só as entradas usadas são serializadas (ver {@link #writeObject(ObjectOutputStream)}).
+     */
+    private transient int[] undoMoves;
+    private transient Piece[] undoMoved;
+    private transient Piece[] undoCaptured;
+    private transient int[] undoState;
+    private transient long[] undoHash;
+
+    /**
+     * Número de movimentos na pilha de undo.
+     */
+    private transient int ply;
 
     /**
      * String que armazena o tipo do último movimento especial realizado.
@@ -39,12 +142,34 @@ public class Board implements Serializable {
      */
     private String specialMoves; // Para armazenar movimentos especiais como promoção
 
+    /**
+     * Buffer reutilizado na validação de movimentos, para não criar listas a cada jogada.
+     * Não é serializado; é recriado quando necessário.
+     */
+    private transient MoveList moveBuffer;
+
     /**
      * Construtor que inicializa um tabuleiro vazio 8x8.
      * Todas as posições começam com null (sem peças).
      */
     public Board() {
-        board = new Piece[BOARD_SIZE][BOARD_SIZE];
+        squares = new Piece[BOARD_SIZE * BOARD_SIZE];
+        allocateBitboards();
+        allocateUndoStack(INITIAL_UNDO_CAPACITY);
+    }
+
+    private void allocateBitboards() {
+        pieceBitboards = new long[Bitboard.PIECE_BITBOARDS];
+        colorBitboards = new long[2];
+        kingSquares = new int[] {-1, -1};
+    }
+
+    private void allocateUndoStack(int capacity) {
+        undoMoves = new int[capacity];
+        undoMoved = new Piece[capacity];
+        undoCaptured = new Piece[capacity];
+        undoState = new int[capacity];
+        undoHash = new long[capacity];
     }
 
     /**
@@ -52,11 +177,18 @@ public class Board implements Serializable {
      * Define todas as posições como null.
      */
     public void clearBoard() {
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                board[row][col] = null;
-            }
-        }
+        Arrays.fill(squares, null);
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        occupied = 0L;
+        pieceHash = 0L;
+        Arrays.fill(kingSquares, -1);
+        enPassantSquare = -1;
+        castlingRights = 0;
+        halfmoveClock = 0;
+        Arrays.fill(undoMoved, 0, ply, null);
+        Arrays.fill(undoCaptured, 0, ply, null);
+        ply = 0;
     }
 
     /**
@@ -65,7 +197,95 @@ public class Board implements Serializable {
      * @return peça na posição ou null se estiver vazia
      */
     public Piece getPiece(Position position) {
-        return board[position.r][position.c];
+        return squares[Bitboard.square(position)];
+    }
+
+    /**
+     * Obtém a peça numa casa do tabuleiro.
+     * @param square índice da casa (ver {@link Bitboard#square(int, int)})
+     * @return peça na casa ou null se estiver vazia
+     */
+    public Piece getPiece(int square) {
+        return squares[square];
+    }
+
+    /**
+     * Obtém o bitboard de um tipo de peça de uma cor.
+     * @param type tipo da peça
+     * @param isWhite cor da peça
+     * @return bitboard com as casas ocupadas por essas peças
+     */
+    public long getPieceBitboard(PieceType type, boolean isWhite) {
+        return pieceBitboards[Bitboard.index(type, isWhite)];
+    }
+
+    /**
+     * Obtém o bitboard de ocupação de uma cor.
+     * @param isWhite cor a consultar
+     * @return bitboard com as casas ocupadas por peças dessa cor
+     */
+    public long getColorBitboard(boolean isWhite) {
+        return colorBitboards[Bitboard.color(isWhite)];
+    }
+
+    /**
+     * Obtém o bitboard com todas as casas ocupadas.
+     * @return bitboard de ocupação total
+     */
+    public long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * Coloca uma peça numa casa, mantendo os bitboards sincronizados.
+     * Uma peça que já estivesse na casa é retirada.
+     * @param square índice da casa
+     * @param piece peça a colocar (null deixa a casa vazia)
+     */
+    private void putPiece(int square, Piece piece) {
+        clearSquare(square);
+        if (piece == null)
+            return;
+
+        long bit = Bitboard.bit(square);
+        squares[square] = piece;
+        pieceBitboards[Bitboard.index(piece.getType(), piece.isWhite())] |= bit;
+        colorBitboards[Bitboard.color(piece.isWhite())] |= bit;
+        occupied |= bit;
+        pieceHash ^= Zobrist.piece(Bitboard.index(piece.getType(), piece.isWhite()), square);
+        if (piece.getType() == PieceType.KING)
+            kingSquares[Bitboard.color(piece.isWhite())] = square;
+    }
+
+    /**
+     * Esvazia uma casa, mantendo os bitboards sincronizados.
+     * @param square índice da casa
+     */
+    private void clearSquare(int square) {
+        Piece piece = squares[square];
+        if (piece == null)
+            return;
+
+        long mask = ~Bitboard.bit(square);
+        int index = Bitboard.index(piece.getType(), piece.isWhite());
+        squares[square] = null;
+        pieceBitboards[index] &= mask;
+        colorBitboards[Bitboard.color(piece.isWhite())] &= mask;
+        occupied &= mask;
+        pieceHash ^= Zobrist.piece(index, square);
+        if (piece.getType() == PieceType.KING) {
+            long kings = pieceBitboards[index];
+            kingSquares[Bitboard.color(piece.isWhite())] = kings == 0 ? -1 : Bitboard.lsb(kings);
+        }
+    }
+
+    /**
+     * Obtém a casa do rei de uma cor.
+     * @param isWhite cor do rei
+     * @return índice da casa (ver {@link Bitboard}) ou -1 se não houver rei
+     */
+    public int getKingSquare(boolean isWhite) {
+        return kingSquares[Bitboard.color(isWhite)];
     }
 
     /**
@@ -75,13 +295,10 @@ public class Board implements Serializable {
      * @param pos posição onde colocar a peça
      */
     public void addPiece(Piece piece, Position pos) {
-        board[pos.r][pos.c] = piece;
-        if (piece == null) {
-            return;
-        }
-        piece.setPosition(pos);
-        if (piece.hasMoved())
-            piece.setHasMoved();
+        putPiece(Bitboard.square(pos), piece);
+        if (piece != null)
+            piece.setPosition(pos);
+        refreshCastlingRights();
     }
 
     /**
@@ -90,7 +307,177 @@ public class Board implements Serializable {
      * @param pos posição da peça a remover
      */
     public void removePiece(Position pos) {
-        board[pos.r][pos.c] = null;
+        clearSquare(Bitboard.square(pos));
+        refreshCastlingRights();
+    }
+
+    /**
+     * Recalcula os direitos de roque a partir das peças: o rei e a torre têm de estar
+     * nas casas iniciais e nunca se terem movido.
+     */
+    private void refreshCastlingRights() {
+        castlingRights = 0;
+        if (isUnmoved(Bitboard.square(7, 4), PieceType.KING, true)) {
+            if (isUnmoved(Bitboard.square(7, 7), PieceType.ROOK, true))
+                castlingRights |= CASTLE_WHITE_KING;
+            if (isUnmoved(Bitboard.square(7, 0), PieceType.ROOK, true))
+                castlingRights |= CASTLE_WHITE_QUEEN;
+        }
+        if (isUnmoved(Bitboard.square(0, 4), PieceType.KING, false)) {
+            if (isUnmoved(Bitboard.square(0, 7), PieceType.ROOK, false))
+                castlingRights |= CASTLE_BLACK_KING;
+            if (isUnmoved(Bitboard.square(0, 0), PieceType.ROOK, false))
+                castlingRights |= CASTLE_BLACK_QUEEN;
+        }
+    }
+
+    private boolean isUnmoved(int square, PieceType type, boolean isWhite) {
+        Piece piece = squares[square];
+        return piece != null && piece.getType() == type && piece.isWhite() == isWhite && !piece.hasMoved();
+    }
+
+    /**
+     * Obtém os direitos de roque atuais.
+     * @return combinação de {@link #CASTLE_WHITE_KING}, {@link #CASTLE_WHITE_QUEEN},
+     * {@link #CASTLE_BLACK_KING} e {@link #CASTLE_BLACK_QUEEN}
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Obtém o hash de Zobrist da posição: peças, direitos de roque e coluna de en passant.
+     * A coluna de en passant só conta se algum peão a puder capturar. Não inclui o lado
+     * a jogar, que é responsabilidade do jogo (ver {@link Zobrist#SIDE}).
+     * @return hash de 64 bits
+     */
+    public long getHash() {
+        long hash = pieceHash ^ Zobrist.castling(castlingRights);
+        if (isEnPassantCapturable())
+            hash ^= Zobrist.enPassant(enPassantSquare);
+        return hash;
+    }
+
+    /**
+     * Verifica se existe casa de en passant e algum peão a pode capturar.
+     * Só nesse caso o en passant distingue duas posições (hash, snapshots).
+     * @return true se a captura en passant for possível (ignorando cravadas)
+     */
+    public boolean isEnPassantCapturable() {
+        if (enPassantSquare < 0)
+            return false;
+        // A casa de en passant na linha 6 é capturada pelas brancas, na linha 3 pelas pretas
+        boolean byWhite = Bitboard.row(enPassantSquare) < BOARD_SIZE / 2;
+        return (Attacks.pawn(enPassantSquare, !byWhite) & getPieceBitboard(PieceType.PAWN, byWhite)) != 0;
+    }
+
+    /**
+     * Obtém o número de meios-lances desde a última captura ou movimento de peão.
+     * @return relógio de meios-lances
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Define os direitos de roque (ex.: ao importar FEN).
+     * Reis e torres nas casas iniciais ficam marcados como não movidos só se tiverem direitos.
+     * @param rights combinação de {@link #CASTLE_WHITE_KING} e restantes
+     */
+    public void setCastlingRights(int rights) {
+        markCastlingPieces(true, CASTLE_WHITE_KING, CASTLE_WHITE_QUEEN, rights);
+        markCastlingPieces(false, CASTLE_BLACK_KING, CASTLE_BLACK_QUEEN, rights);
+        refreshCastlingRights();
+    }
+
+    private void markCastlingPieces(boolean isWhite, int kingSide, int queenSide, int rights) {
+        int row = isWhite ? BOARD_SIZE - 1 : 0;
+        markUnmoved(Bitboard.square(row, 4), PieceType.KING, isWhite, (rights & (kingSide | queenSide)) != 0);
+        markUnmoved(Bitboard.square(row, 7), PieceType.ROOK, isWhite, (rights & kingSide) != 0);
+        markUnmoved(Bitboard.square(row, 0), PieceType.ROOK, isWhite, (rights & queenSide) != 0);
+    }
+
+    private void markUnmoved(int square, PieceType type, boolean isWhite, boolean unmoved) {
+        Piece piece = squares[square];
+        if (piece != null && piece.getType() == type && piece.isWhite() == isWhite)
+            piece.setHasMoved(!unmoved);
+    }
+
+    /**
+     * Define o relógio de meios-lances (ex.: ao importar FEN).
+     * @param halfmoveClock meios-lances desde a última captura ou movimento de peão
+     */
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * Cria uma cópia independente do tabuleiro, com peças novas e o mesmo estado
+     * (roque, en passant, relógio de meios-lances). A pilha de undo não é copiada.
+     * Útil para explorar posições em paralelo.
+     * @return cópia do tabuleiro
+     */
+    public Board copy() {
+        Board copy = new Board();
+        for (long pieces = occupied; pieces != 0; pieces &= pieces - 1) {
+            int square = Bitboard.lsb(pieces);
+            Piece piece = squares[square];
+            Piece clone = PieceFactory.createPiece(piece.getType(), Position.of(square), piece.isWhite());
+            clone.setHasMoved(piece.hasMoved());
+            copy.putPiece(square, clone);
+        }
+        copy.castlingRights = castlingRights;
+        copy.enPassantSquare = enPassantSquare;
+        copy.halfmoveClock = halfmoveClock;
+        return copy;
+    }
+
+    /**
+     * Cria uma cópia independente com os movimentos reversíveis mais recentes (desde a última
+     * captura ou movimento de peão) na pilha de undo, para que a cópia reconheça repetições de
+     * posições anteriores e possa desfazer esses movimentos. Este tabuleiro não é alterado.
+     * @return cópia do tabuleiro com o histórico reversível
+     */
+    public Board copyWithHistory() {
+        Board copy = copy();
+        int count = Math.min(ply, halfmoveClock);
+        while (copy.undoMoves.length < count)
+            copy.growUndoStack();
+        for (int i = 0; i < count; i++) {
+            int source = ply - count + i;
+            copy.undoMoves[i] = undoMoves[source];
+            copy.undoState[i] = undoState[source];
+            copy.undoHash[i] = undoHash[source];
+            // Sem capturas nem peões desde então, a peça movida continua no tabuleiro, onde está agora
+            copy.undoMoved[i] = copy.squares[undoMoved[source].getSquare()];
+        }
+        copy.ply = count;
+        return copy;
+    }
+
+    /**
+     * Obtém o número de movimentos que podem ser desfeitos com {@link #unmakeMove()}.
+     * @return tamanho da pilha de undo
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Obtém um movimento da pilha de undo.
+     * @param index índice entre 0 (primeiro movimento) e {@link #getPly()} - 1
+     * @return movimento codificado
+     */
+    public int getMove(int index) {
+        return undoMoves[index];
+    }
+
+    /**
+     * Obtém o último movimento feito.
+     * @return movimento codificado ou {@link Move#NONE} se a pilha estiver vazia
+     */
+    public int getLastMove() {
+        return ply == 0 ? Move.NONE : undoMoves[ply - 1];
     }
 
     /**
@@ -103,58 +490,162 @@ public class Board implements Serializable {
      */
     public boolean movePiece(Position from, Position to) {
         Piece piece = getPiece(from);
-        PieceType type = piece.getType();
-
         if (piece == null)
             return false;
 
-        List<Position> moves = piece.getPossibleMoves(this);
-        piece.removeCheckMoves(this, moves);
+        MoveList moves = getMoveBuffer();
+        moves.clear();
+        MoveGenerator.generateLegalMoves(this, Bitboard.square(from), moves);
 
-        if (!moves.contains(to))
+        // Por agora promove sempre a rainha (primeira promoção gerada)
+        int move = moves.find(Bitboard.square(from), Bitboard.square(to));
+        if (move == Move.NONE)
             return false;
 
-        // En Passant
-        if (type == PieceType.PAWN) {
-            int dir = piece.isWhite() ? 1 : -1;
-            Position capturedPawnPos = new Position(to.r + dir, to.c);
-            Piece pawn = getPiece(capturedPawnPos);
-            if (pawn != null && pawn.getType() == PieceType.PAWN && !pawn.isSameColor(piece)) {
-                removePiece(capturedPawnPos);
-                specialMoves = "En Passant";
-            }
-        }
+        makeMove(move);
+        return true;
+    }
 
-        removePiece(from);
-        addPiece(piece, to);
-
-        if (type == PieceType.KING && Math.abs(from.c - to.c) == 2) {
-            // Castling
-            int row = from.r;
-            if (to.c == 6) { // kingside
-                Piece rook = getPiece(new Position(row, 7));
-                removePiece(new Position(row, 7));
-                addPiece(rook, new Position(row, 5));
-            } else if (to.c == 2) { // queenside
-                Piece rook = getPiece(new Position(row, 0));
-                removePiece(new Position(row, 0));
-                addPiece(rook, new Position(row, 3));
-            }
+    /**
+     * Aplica um movimento (que se assume legal), incluindo en passant, roque e promoção,
+     * e guarda na pilha de undo o necessário para o desfazer com {@link #unmakeMove()}.
+     * Não cria objetos, exceto a peça promovida.
+     * @param move movimento codificado (ver {@link Move})
+     */
+    public void makeMove(int move) {
+        if (ply == undoMoves.length)
+            growUndoStack();
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+        Piece piece = squares[from];
+        int capturedSquare = flags == Move.EN_PASSANT ? capturedPawnSquare(move, piece.isWhite()) : to;
+        Piece captured = squares[capturedSquare];
+
+        undoHash[ply] = getHash();
+        undoMoves[ply] = move;
+        undoMoved[ply] = piece;
+        undoCaptured[ply] = captured;
+        undoState[ply] = castlingRights
+                | ((enPassantSquare + 1) << STATE_EN_PASSANT_SHIFT)
+                | (piece.hasMoved() ? STATE_HAS_MOVED : 0)
+                | (halfmoveClock << STATE_HALFMOVE_SHIFT);
+        ply++;
+
+        specialMoves = null;
+        if (captured != null)
+            clearSquare(capturedSquare);
+        if (flags == Move.EN_PASSANT)
+            specialMoves = "En Passant";
+
+        clearSquare(from);
+        putPiece(to, piece);
+        piece.setPosition(Position.of(to));
+        piece.setHasMoved();
+
+        if (flags == Move.KING_CASTLE || flags == Move.QUEEN_CASTLE) {
+            int rookFrom = castleRookFrom(move);
+            int rookTo = castleRookTo(move);
+            Piece rook = squares[rookFrom];
+            clearSquare(rookFrom);
+            putPiece(rookTo, rook);
+            rook.setPosition(Position.of(rookTo));
+            rook.setHasMoved();
             specialMoves = "Castle"; // Adiciona o castling como movimento especial
         }
 
-        // Verificar promoção
-        if (type == PieceType.PAWN) {
-            int promotionRow = piece.isWhite() ? 0 : BOARD_SIZE - 1;
-            if (to.r == promotionRow) {
-                // Por agora promove sempre a rainha
-                promotePawn(to, PieceType.QUEEN);
-                specialMoves = "Promotion"; // Adiciona a promoção como movimento especial
-                // fazer a promoção parametrizada para UI depois?
-            }
+        if (Move.isPromotion(move)) {
+            putPiece(to, PieceFactory.createPiece(Move.promotion(move), Position.of(to), piece.isWhite()));
+            specialMoves = "Promotion"; // Adiciona a promoção como movimento especial
         }
 
-        return true;
+        boolean isPawn = piece.getType() == PieceType.PAWN;
+        halfmoveClock = (isPawn || captured != null) ? 0 : halfmoveClock + 1;
+        enPassantSquare = flags == Move.DOUBLE_PAWN_PUSH ? (from + to) / 2 : -1;
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+    }
+
+    /**
+     * Desfaz o último movimento feito com {@link #makeMove(int)}, repondo as peças
+     * e o estado irreversível guardado na pilha de undo.
+     * @return movimento desfeito ou {@link Move#NONE} se não houver movimentos
+     */
+    public int unmakeMove() {
+        if (ply == 0)
+            return Move.NONE;
+
+        ply--;
+        int move = undoMoves[ply];
+        Piece piece = undoMoved[ply];
+        Piece captured = undoCaptured[ply];
+        int state = undoState[ply];
+        undoMoved[ply] = null;
+        undoCaptured[ply] = null;
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+
+        clearSquare(to);
+        putPiece(from, piece);
+        piece.setPosition(Position.of(from));
+        piece.setHasMoved((state & STATE_HAS_MOVED) != 0);
+
+        if (flags == Move.KING_CASTLE || flags == Move.QUEEN_CASTLE) {
+            int rookFrom = castleRookFrom(move);
+            int rookTo = castleRookTo(move);
+            Piece rook = squares[rookTo];
+            clearSquare(rookTo);
+            putPiece(rookFrom, rook);
+            rook.setPosition(Position.of(rookFrom));
+            rook.setHasMoved(false);
+        }
+
+        if (captured != null)
+            putPiece(flags == Move.EN_PASSANT ? capturedPawnSquare(move, piece.isWhite()) : to, captured);
+
+        castlingRights = state & CASTLE_ALL;
+        enPassantSquare = ((state >>> STATE_EN_PASSANT_SHIFT) & 0x7F) - 1;
+        halfmoveClock = state >>> STATE_HALFMOVE_SHIFT;
+        specialMoves = null;
+        return move;
+    }
+
+    private void growUndoStack() {
+        int capacity = undoMoves.length * 2;
+        undoMoves = Arrays.copyOf(undoMoves, capacity);
+        undoMoved = Arrays.copyOf(undoMoved, capacity);
+        undoCaptured = Arrays.copyOf(undoCaptured, capacity);
+        undoState = Arrays.copyOf(undoState, capacity);
+        undoHash = Arrays.copyOf(undoHash, capacity);
+    }
+
+    private static int castleRookFrom(int move) {
+        return Move.flags(move) == Move.KING_CASTLE ? Move.to(move) + 1 : Move.to(move) - 2;
+    }
+
+    private static int castleRookTo(int move) {
+        return Move.flags(move) == Move.KING_CASTLE ? Move.to(move) - 1 : Move.to(move) + 1;
+    }
+
+    /**
+     * Casa do peão capturado numa captura en passant (atrás da casa de destino).
+     */
+    private static int capturedPawnSquare(int move, boolean isWhite) {
+        return Move.to(move) + (isWhite ? BOARD_SIZE : -BOARD_SIZE);
+    }
+
+    /**
+     * Obtém o buffer de movimentos do tabuleiro, criando-o se necessário.
+     * É partilhado pelas operações do tabuleiro e das peças, por isso o conteúdo
+     * só é válido até à próxima operação que o use.
+     * @return buffer de movimentos
+     */
+    public MoveList getMoveBuffer() {
+        if (moveBuffer == null)
+            moveBuffer = new MoveList();
+        return moveBuffer;
     }
 
     /**
@@ -196,7 +687,7 @@ public class Board implements Serializable {
      * @return true se posição for válida e estiver vazia, false caso contrário
      */
     public boolean isEmpty(Position to) {
-        return to.isValidPosition() && getPiece(to) == null;
+        return to.isValidPosition() && (occupied & Bitboard.bit(Bitboard.square(to))) == 0;
     }
 
     /**
@@ -208,8 +699,7 @@ public class Board implements Serializable {
      */
     public boolean hasEnemy(Position from, Position to) {
         return to.isValidPosition() &&
-                getPiece(to) != null &&
-                !getPiece(from).isSameColor(getPiece(to));
+                (getColorBitboard(!getPiece(from).isWhite()) & Bitboard.bit(Bitboard.square(to))) != 0;
     }
 
     /**
@@ -219,16 +709,29 @@ public class Board implements Serializable {
      * @return posição da peça ou null se não encontrada
      */
     private Position findPiece(PieceType type, boolean isWhite) {
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                Position pos = new Position(i, j);
+        long pieces = getPieceBitboard(type, isWhite);
+        if (pieces == 0)
+            return null;
 
-                Piece piece = getPiece(pos);
-                if (piece != null && piece.getType() == type && piece.isWhite() == isWhite)
-                    return pos;
-            }
+        int square = Bitboard.lsb(pieces);
+        return new Position(Bitboard.row(square), Bitboard.col(square));
+    }
+
+    /**
+     * Calcula todas as casas atacadas pelas peças de uma cor.
+     * Os ataques de cada tipo de peça são calculados em conjunto sobre os bitboards.
+     * @param byWhite cor das peças atacantes
+     * @return bitboard com as casas atacadas
+     */
+    public long getAttackedSquares(boolean byWhite) {
+        long empty = ~occupied;
+        long queens = getPieceBitboard(PieceType.QUEEN, byWhite);
 
-        return null;
+        return Bitboard.pawnAttacks(getPieceBitboard(PieceType.PAWN, byWhite), byWhite)
+                | Bitboard.knightAttacks(getPieceBitboard(PieceType.KNIGHT, byWhite))
+                | Bitboard.kingAttacks(getPieceBitboard(PieceType.KING, byWhite))
+                | Bitboard.rookAttacks(getPieceBitboard(PieceType.ROOK, byWhite) | queens, empty)
+                | Bitboard.bishopAttacks(getPieceBitboard(PieceType.BISHOP, byWhite) | queens, empty);
     }
 
     /**
@@ -239,18 +742,72 @@ public class Board implements Serializable {
      * @return true se a peça estiver em xeque, false caso contrário
      */
     public boolean isCheck(PieceType type, boolean isWhite) {
-        Position piecePos = new Position(findPiece(type, isWhite));
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                Position pos = new Position(i, j);
-                Piece piece = getPiece(pos);
-                if (piece == null || piece.isSameColor(isWhite))
-                    continue;
-                List<Position> moves = piece.getPossibleMoves(this);
-                if (moves.contains(piecePos))
-                    return true;
-            }
-        return false;
+        int square;
+        if (type == PieceType.KING) {
+            square = getKingSquare(isWhite);
+        } else {
+            long targets = getPieceBitboard(type, isWhite);
+            square = targets == 0 ? -1 : Bitboard.lsb(targets);
+        }
+        if (square < 0)
+            return false;
+
+        return isSquareAttacked(square, !isWhite);
+    }
+
+    /**
+     * Verifica se uma casa é atacada por alguma peça de uma cor.
+     * Parte da casa alvo e procura atacantes nos raios e padrões de cada tipo de peça
+     * (um peão ataca a casa se a casa "atacar" o peão com o padrão da cor oposta).
+     * @param square casa a verificar (ver {@link Bitboard})
+     * @param byWhite cor das peças atacantes
+     * @return true se a casa estiver atacada, false caso contrário
+     */
+    public boolean isSquareAttacked(int square, boolean byWhite) {
+        return isSquareAttacked(square, byWhite, occupied);
+    }
+
+    /**
+     * Verifica se uma casa é atacada, considerando uma ocupação alternativa para as peças deslizantes.
+     * Útil para testar o tabuleiro como ficaria depois de retirar ou mover peças.
+     * @param square casa a verificar
+     * @param byWhite cor das peças atacantes
+     * @param occupied bitboard de ocupação a considerar
+     * @return true se a casa estiver atacada, false caso contrário
+     */
+    public boolean isSquareAttacked(int square, boolean byWhite, long occupied) {
+        int color = Bitboard.color(byWhite) * 6;
+        if ((Attacks.pawn(square, !byWhite) & pieceBitboards[color + PieceType.PAWN.ordinal()]) != 0)
+            return true;
+        if ((Attacks.knight(square) & pieceBitboards[color + PieceType.KNIGHT.ordinal()]) != 0)
+            return true;
+        if ((Attacks.king(square) & pieceBitboards[color + PieceType.KING.ordinal()]) != 0)
+            return true;
+
+        long queens = pieceBitboards[color + PieceType.QUEEN.ordinal()];
+        long rooks = pieceBitboards[color + PieceType.ROOK.ordinal()] | queens;
+        if (rooks != 0 && (Attacks.rook(square, occupied) & rooks & occupied) != 0)
+            return true;
+        long bishops = pieceBitboards[color + PieceType.BISHOP.ordinal()] | queens;
+        return bishops != 0 && (Attacks.bishop(square, occupied) & bishops & occupied) != 0;
+    }
+
+    /**
+     * Obtém todas as peças de uma cor que atacam uma casa.
+     * @param square casa alvo
+     * @param byWhite cor das peças atacantes
+     * @param occupied bitboard de ocupação a considerar (peças fora dele são ignoradas)
+     * @return bitboard com as casas dos atacantes
+     */
+    public long getAttackers(int square, boolean byWhite, long occupied) {
+        int color = Bitboard.color(byWhite) * 6;
+        long queens = pieceBitboards[color + PieceType.QUEEN.ordinal()];
+        long attackers = (Attacks.pawn(square, !byWhite) & pieceBitboards[color + PieceType.PAWN.ordinal()])
+                | (Attacks.knight(square) & pieceBitboards[color + PieceType.KNIGHT.ordinal()])
+                | (Attacks.king(square) & pieceBitboards[color + PieceType.KING.ordinal()])
+                | (Attacks.rook(square, occupied) & (pieceBitboards[color + PieceType.ROOK.ordinal()] | queens))
+                | (Attacks.bishop(square, occupied) & (pieceBitboards[color + PieceType.BISHOP.ordinal()] | queens));
+        return attackers & occupied;
     }
 
     /**
@@ -262,48 +819,97 @@ public class Board implements Serializable {
      */
     public boolean isNextMoveCheck(Position from, Position to) {
         Piece fromPiece = getPiece(from);
-        Piece toPiece = getPiece(to);
 
-        removePiece(from);
-        addPiece(fromPiece, to);
+        MoveList moves = getMoveBuffer();
+        moves.clear();
+        fromPiece.generateMoves(this, moves);
+        int move = moves.find(Bitboard.square(from), Bitboard.square(to));
+        if (move == Move.NONE) {
+            boolean isCapture = getPiece(to) != null;
+            move = Move.of(Bitboard.square(from), Bitboard.square(to), isCapture ? Move.CAPTURE : Move.QUIET);
+        }
 
+        makeMove(move);
         boolean isCheck = isCheck(PieceType.KING, fromPiece.isWhite());
-
-        addPiece(fromPiece, from);
-        addPiece(toPiece, to);
+        unmakeMove();
 
         return isCheck;
     }
 
     /**
      * Verifica se um jogador está em xeque-mate.
-     * Testa se todas as peças do jogador não têm movimentos válidos disponíveis.
+     * O rei tem de estar em xeque e nenhuma peça do jogador pode ter movimentos legais.
      * @param isWhite cor do jogador a verificar
      * @return true se estiver em xeque-mate, false caso contrário
      */
     public boolean isCheckmate(boolean isWhite) {
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                Position pos = new Position(i, j);
-                Piece piece = getPiece(pos);
-                if (piece == null || !piece.isSameColor(isWhite))
-                    continue;
-                List<Position> moves = piece.getPossibleMoves(this);
-                piece.removeCheckMoves(this, moves);
-                if (!moves.isEmpty())
-                    return false;
-            }
+        return isCheck(PieceType.KING, isWhite) && !MoveGenerator.hasLegalMoves(this, isWhite, getMoveBuffer());
+    }
 
-        return true;
+    /**
+     * Verifica se um jogador está afogado (stalemate): não está em xeque e não tem movimentos legais.
+     * Tabuleiros sem rei dessa cor (ex.: no editor) nunca estão afogados.
+     * @param isWhite cor do jogador a verificar
+     * @return true se estiver afogado, false caso contrário
+     */
+    public boolean isStalemate(boolean isWhite) {
+        return getKingSquare(isWhite) >= 0 && !isCheck(PieceType.KING, isWhite)
+                && !MoveGenerator.hasLegalMoves(this, isWhite, getMoveBuffer());
+    }
+
+    /**
+     * Verifica a regra dos 50 lances: 100 meios-lances sem capturas nem movimentos de peão.
+     * @return true se o empate puder ser declarado
+     */
+    public boolean isFiftyMoveRule() {
+        return halfmoveClock >= 100;
+    }
+
+    /**
+     * Conta quantas vezes a posição atual já ocorreu antes, com o mesmo lado a jogar.
+     * Só percorre o histórico até ao último movimento irreversível (captura ou movimento de peão),
+     * porque nenhuma posição anterior a esse se pode repetir.
+     * @return número de ocorrências anteriores da posição
+     */
+    public int getRepetitionCount() {
+        long hash = getHash();
+        int count = 0;
+        int oldest = Math.max(0, ply - halfmoveClock);
+        for (int i = ply - 2; i >= oldest; i -= 2) {
+            if (undoHash[i] == hash)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Verifica se a posição atual ocorreu pelo menos três vezes (repetição tripla).
+     * @return true se a posição se repetiu três vezes
+     */
+    public boolean isThreefoldRepetition() {
+        return getRepetitionCount() >= 2;
     }
 
     /**
-     * Verifica se o jogo está em empate (stalemate).
-     * Ocorre quando ambos os jogadores estão em posição de xeque-mate simultaneamente.
-     * @return true se estiver em empate, false caso contrário
+     * Verifica se nenhum dos jogadores tem material para dar xeque-mate:
+     * rei contra rei, rei e uma peça menor contra rei, ou só bispos todos na mesma cor de casas.
+     * @return true se o material for insuficiente
      */
-    public boolean isStalemate() {
-        return isCheckmate(true) && isCheckmate(false);
+    public boolean isInsufficientMaterial() {
+        long heavy = 0;
+        for (PieceType type : MATING_MATERIAL)
+            heavy |= getPieceBitboard(type, true) | getPieceBitboard(type, false);
+        if (heavy != 0)
+            return false;
+
+        long knights = getPieceBitboard(PieceType.KNIGHT, true) | getPieceBitboard(PieceType.KNIGHT, false);
+        long bishops = getPieceBitboard(PieceType.BISHOP, true) | getPieceBitboard(PieceType.BISHOP, false);
+        int minors = Bitboard.count(knights | bishops);
+        if (minors <= 1)
+            return true;
+
+        // Só bispos, todos em casas da mesma cor
+        return knights == 0 && ((bishops & Bitboard.LIGHT_SQUARES) == 0 || (bishops & ~Bitboard.LIGHT_SQUARES) == 0);
     }
 
     /**
@@ -311,7 +917,93 @@ public class Board implements Serializable {
      * @return posição onde en passant é possível ou null se não aplicável
      */
     public Position getEnPassantTarget() {
-        return enPassantTarget;
+        if (enPassantSquare < 0)
+            return null;
+        return new Position(Bitboard.row(enPassantSquare), Bitboard.col(enPassantSquare));
+    }
+
+    /**
+     * Obtém a casa alvo atual para captura en passant.
+     * @return índice da casa (ver {@link Bitboard}) ou -1 se não aplicável
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Define a casa de en passant (ex.: ao importar FEN).
+     * @param square índice da casa ou -1 se não houver
+     */
+    public void setEnPassantSquare(int square) {
+        enPassantSquare = square;
+    }
+
+    /**
+     * Serializa o tabuleiro guardando apenas as entradas usadas da pilha de undo.
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(ply);
+        for (int i = 0; i < ply; i++) {
+            out.writeInt(undoMoves[i]);
+            out.writeInt(undoState[i]);
+            out.writeLong(undoHash[i]);
+            out.writeObject(undoMoved[i]);
+            out.writeObject(undoCaptured[i]);
+        }
+    }
+
+    /**
+     * Lê o tabuleiro e reconstrói os bitboards a partir das peças.
+     * Também aceita tabuleiros gravados pela versão original (matriz {@code board} de 8x8),
+     * que não tinham direitos de roque explícitos nem pilha de undo.
+     */
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        boolean legacy = fields.getObjectStreamClass().getField("squares") == null;
+
+        Piece[] saved = new Piece[BOARD_SIZE * BOARD_SIZE];
+        if (legacy) {
+            Piece[][] rows = (Piece[][]) fields.get("board", null);
+            for (int r = 0; rows != null && r < Math.min(rows.length, BOARD_SIZE); r++) {
+                for (int c = 0; rows[r] != null && c < Math.min(rows[r].length, BOARD_SIZE); c++)
+                    saved[Bitboard.square(r, c)] = rows[r][c];
+            }
+        } else {
+            Piece[] stored = (Piece[]) fields.get("squares", null);
+            if (stored != null)
+                System.arraycopy(stored, 0, saved, 0, Math.min(stored.length, saved.length));
+        }
+
+        squares = new Piece[BOARD_SIZE * BOARD_SIZE];
+        allocateBitboards();
+        for (int square = 0; square < saved.length; square++)
+            putPiece(square, saved[square]);
+        specialMoves = (String) fields.get("specialMoves", null);
+
+        if (legacy) {
+            Position target = (Position) fields.get("enPassantTarget", null);
+            enPassantSquare = target != null && target.isValidPosition() ? Bitboard.square(target) : -1;
+            refreshCastlingRights();
+            allocateUndoStack(INITIAL_UNDO_CAPACITY);
+            return;
+        }
+
+        enPassantSquare = fields.get("enPassantSquare", -1);
+        castlingRights = fields.get("castlingRights", 0) & CASTLE_ALL;
+        halfmoveClock = fields.get("halfmoveClock", 0);
+
+        int count = in.readInt();
+        allocateUndoStack(Math.max(INITIAL_UNDO_CAPACITY, Integer.highestOneBit(Math.max(count, 1)) * 2));
+        for (ply = 0; ply < count; ply++) {
+            undoMoves[ply] = in.readInt();
+            undoState[ply] = in.readInt();
+            undoHash[ply] = in.readLong();
+            undoMoved[ply] = (Piece) in.readObject();
+            undoCaptured[ply] = (Piece) in.readObject();
+        }
     }
 
     /**
@@ -325,8 +1017,7 @@ public class Board implements Serializable {
         StringBuilder sb = new StringBuilder();
         for (int row = 0; row < BOARD_SIZE; row++) {
             for (int col = 0; col < BOARD_SIZE; col++) {
-                Position pos = new Position(row, col);
-                Piece piece = getPiece(pos);
+                Piece piece = squares[Bitboard.square(row, col)];
                 if (piece == null) {
                     sb.append("     ");
                     continue;
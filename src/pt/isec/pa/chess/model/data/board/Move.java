@@ -0,0 +1,113 @@
+package pt.isec.pa.chess.model.data.board;
+
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+/**
+ * Codificação de um movimento num único int, para gerar movimentos sem criar objetos.
+ * <pre>
+ * bits  0-5   casa de origem
+ * bits  6-11  casa de destino
+ * bits 12-15  flags (tipo de movimento)
+ * bits 16-18  peça da promoção (ordinal de {@link PieceType} + 1, 0 se não houver)
+ * </pre>
+ * As casas seguem a indexação de {@link Bitboard}.
+ */
+public final class Move {
+    private Move() {}
+
+    /**
+     * Valor que representa a ausência de movimento (a8 para a8 nunca é um movimento válido).
+     */
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+    public static final int PROMOTION_CAPTURE = PROMOTION | CAPTURE;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    /**
+     * Cria um movimento sem promoção.
+     * @param from casa de origem
+     * @param to casa de destino
+     * @param flags tipo de movimento
+     * @return movimento codificado
+     */
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    /**
+     * Cria um movimento de promoção.
+     * @param from casa de origem
+     * @param to casa de destino
+     * @param flags tipo de movimento ({@link #PROMOTION} ou {@link #PROMOTION_CAPTURE})
+     * @param promotion tipo da peça promovida
+     * @return movimento codificado
+     */
+    public static int of(int from, int to, int flags, PieceType promotion) {
+        return of(from, to, flags) | ((promotion.ordinal() + 1) << 16);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return flags(move) == EN_PASSANT;
+    }
+
+    public static boolean isCastle(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    /**
+     * Obtém o tipo da peça promovida.
+     * @param move movimento codificado
+     * @return tipo da promoção ou null se o movimento não for uma promoção
+     */
+    public static PieceType promotion(int move) {
+        int type = (move >>> 16) & 0x7;
+        return type == 0 ? null : TYPES[type - 1];
+    }
+
+    /**
+     * Representação do movimento em notação de coordenadas (ex.: "e2e4", "e7e8q").
+     * @param move movimento codificado
+     * @return string com a origem, o destino e a promoção
+     */
+    public static String toString(int move) {
+        if (move == NONE)
+            return "0000";
+
+        String str = squareName(from(move)) + squareName(to(move));
+        PieceType promotion = promotion(move);
+        return promotion == null ? str : str + promotion.getIcon();
+    }
+
+    private static String squareName(int square) {
+        return "" + (char) ('a' + Bitboard.col(square)) + (char) ('1' + Board.BOARD_SIZE - 1 - Bitboard.row(square));
+    }
+}
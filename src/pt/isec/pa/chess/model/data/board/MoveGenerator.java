@@ -0,0 +1,210 @@
+package pt.isec.pa.chess.model.data.board;
+
+import pt.isec.pa.chess.model.data.piece.Piece;
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+/**
+ * Gerador de movimentos legais.
+ * Em vez de simular cada movimento e testar o xeque, calcula uma vez por posição
+ * as peças que dão xeque ao rei e as peças cravadas, e restringe os destinos de cada peça:
+ * <ul>
+ *     <li>em xeque simples, as outras peças só podem capturar o atacante ou bloquear o raio;</li>
+ *     <li>em xeque duplo, só o rei se pode mover;</li>
+ *     <li>uma peça cravada só se move ao longo da linha entre o rei e o atacante;</li>
+ *     <li>o rei não pode ir para casas atacadas (testadas sem o próprio rei no tabuleiro).</li>
+ * </ul>
+ * A captura en passant, que retira duas peças da mesma linha, é verificada com a ocupação final.
+ */
+public final class MoveGenerator {
+    private MoveGenerator() {}
+
+    /**
+     * Gera todos os movimentos legais de uma cor.
+     * @param board tabuleiro
+     * @param isWhite cor a jogar
+     * @param moves lista onde acrescentar os movimentos
+     */
+    public static void generateLegalMoves(Board board, boolean isWhite, MoveList moves) {
+        int kingSquare = board.getKingSquare(isWhite);
+        long checkMask = checkMask(board, isWhite, kingSquare);
+        long pinned = pinnedPieces(board, isWhite, kingSquare);
+
+        for (long pieces = board.getColorBitboard(isWhite); pieces != 0; pieces &= pieces - 1)
+            generatePieceMoves(board, board.getPiece(Bitboard.lsb(pieces)), kingSquare, checkMask, pinned,
+                    Bitboard.ALL, moves);
+    }
+
+    /**
+     * Gera só as capturas (incluindo en passant) e as promoções legais de uma cor,
+     * para a pesquisa de quiescência. As casas de destino são restringidas antes de gerar,
+     * por isso os movimentos calmos não chegam a ser criados.
+     * @param board tabuleiro
+     * @param isWhite cor a jogar
+     * @param moves lista onde acrescentar os movimentos
+     */
+    public static void generateLegalCaptures(Board board, boolean isWhite, MoveList moves) {
+        int kingSquare = board.getKingSquare(isWhite);
+        long checkMask = checkMask(board, isWhite, kingSquare);
+        long pinned = pinnedPieces(board, isWhite, kingSquare);
+        long enemies = board.getColorBitboard(!isWhite);
+        long pawnTargets = enemies | Bitboard.RANK_8 | Bitboard.RANK_1;
+        if (board.getEnPassantSquare() >= 0)
+            pawnTargets |= Bitboard.bit(board.getEnPassantSquare());
+
+        for (long pieces = board.getColorBitboard(isWhite); pieces != 0; pieces &= pieces - 1) {
+            Piece piece = board.getPiece(Bitboard.lsb(pieces));
+            long targets = piece.getType() == PieceType.PAWN ? pawnTargets : enemies;
+            generatePieceMoves(board, piece, kingSquare, checkMask, pinned, targets, moves);
+        }
+    }
+
+    /**
+     * Gera os movimentos legais da peça numa casa.
+     * @param board tabuleiro
+     * @param from casa da peça
+     * @param moves lista onde acrescentar os movimentos
+     */
+    public static void generateLegalMoves(Board board, int from, MoveList moves) {
+        Piece piece = board.getPiece(from);
+        if (piece == null)
+            return;
+
+        boolean isWhite = piece.isWhite();
+        int kingSquare = board.getKingSquare(isWhite);
+        generatePieceMoves(board, piece, kingSquare, checkMask(board, isWhite, kingSquare),
+                pinnedPieces(board, isWhite, kingSquare), Bitboard.ALL, moves);
+    }
+
+    /**
+     * Verifica se uma cor tem pelo menos um movimento legal.
+     * Para à primeira peça com movimentos, começando pelo rei.
+     * @param board tabuleiro
+     * @param isWhite cor a verificar
+     * @param buffer lista auxiliar (o conteúdo é descartado)
+     * @return true se existir algum movimento legal
+     */
+    public static boolean hasLegalMoves(Board board, boolean isWhite, MoveList buffer) {
+        int kingSquare = board.getKingSquare(isWhite);
+        long checkMask = checkMask(board, isWhite, kingSquare);
+        long pinned = pinnedPieces(board, isWhite, kingSquare);
+
+        long pieces = board.getColorBitboard(isWhite);
+        if (kingSquare >= 0) {
+            buffer.clear();
+            generatePieceMoves(board, board.getPiece(kingSquare), kingSquare, checkMask, pinned,
+                    Bitboard.ALL, buffer);
+            if (!buffer.isEmpty())
+                return true;
+            pieces &= ~Bitboard.bit(kingSquare);
+        }
+        for (; pieces != 0; pieces &= pieces - 1) {
+            buffer.clear();
+            generatePieceMoves(board, board.getPiece(Bitboard.lsb(pieces)), kingSquare, checkMask, pinned,
+                    Bitboard.ALL, buffer);
+            if (!buffer.isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Casas para onde as peças (exceto o rei) se podem mover dado o xeque atual.
+     * Sem xeque todas as casas; em xeque simples o atacante e as casas entre ele e o rei;
+     * em xeque duplo nenhuma.
+     */
+    private static long checkMask(Board board, boolean isWhite, int kingSquare) {
+        if (kingSquare < 0)
+            return Bitboard.ALL;
+
+        long checkers = board.getAttackers(kingSquare, !isWhite, board.getOccupied());
+        if (checkers == 0)
+            return Bitboard.ALL;
+        if (Long.bitCount(checkers) > 1)
+            return Bitboard.EMPTY;
+        return checkers | Attacks.between(kingSquare, Bitboard.lsb(checkers));
+    }
+
+    /**
+     * Peças da própria cor cravadas contra o rei por torres, bispos ou damas adversárias.
+     */
+    private static long pinnedPieces(Board board, boolean isWhite, int kingSquare) {
+        if (kingSquare < 0)
+            return Bitboard.EMPTY;
+
+        long own = board.getColorBitboard(isWhite);
+        long enemies = board.getColorBitboard(!isWhite);
+        long queens = board.getPieceBitboard(PieceType.QUEEN, !isWhite);
+        long snipers = (Attacks.rook(kingSquare, enemies) & (board.getPieceBitboard(PieceType.ROOK, !isWhite) | queens))
+                | (Attacks.bishop(kingSquare, enemies) & (board.getPieceBitboard(PieceType.BISHOP, !isWhite) | queens));
+
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(kingSquare, Bitboard.lsb(snipers)) & board.getOccupied();
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0)
+                pinned |= blockers;
+        }
+        return pinned;
+    }
+
+    /**
+     * Gera os movimentos legais de uma peça com destino em {@code targets}
+     * ({@link Bitboard#ALL} para todos os movimentos).
+     */
+    private static void generatePieceMoves(Board board, Piece piece, int kingSquare, long checkMask,
+                                           long pinned, long targets, MoveList moves) {
+        int from = piece.getSquare();
+        int start = moves.size();
+
+        // Tabuleiros sem rei (ex.: no editor) não têm restrições de xeque
+        if (kingSquare < 0) {
+            piece.generateMoves(board, moves, targets);
+            return;
+        }
+
+        if (from == kingSquare) {
+            piece.generateMoves(board, moves, targets);
+            long occupied = board.getOccupied() & ~Bitboard.bit(kingSquare);
+            for (int i = moves.size() - 1; i >= start; i--) {
+                int move = moves.get(i);
+                // O roque já é validado pelo rei (casas atravessadas não atacadas)
+                if (!Move.isCastle(move) && board.isSquareAttacked(Move.to(move), !piece.isWhite(), occupied))
+                    moves.remove(i);
+            }
+            return;
+        }
+
+        long mask = checkMask & targets;
+        if ((pinned & Bitboard.bit(from)) != 0)
+            mask &= Attacks.line(kingSquare, from);
+        if (mask == 0)
+            return;
+
+        piece.generateMoves(board, moves, mask);
+
+        if (piece.getType() == PieceType.PAWN && board.getEnPassantSquare() >= 0) {
+            for (int i = moves.size() - 1; i >= start; i--) {
+                int move = moves.get(i);
+                if (Move.isEnPassant(move) && !isEnPassantLegal(board, move, piece.isWhite(), kingSquare))
+                    moves.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Verifica se uma captura en passant deixa o rei exposto a uma peça deslizante.
+     * Como o peão que se move e o peão capturado saem ao mesmo tempo, pode haver
+     * um xeque descoberto mesmo sem nenhuma das peças estar cravada.
+     */
+    private static boolean isEnPassantLegal(Board board, int move, boolean isWhite, int kingSquare) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int captured = to + (isWhite ? Board.BOARD_SIZE : -Board.BOARD_SIZE);
+        long occupied = (board.getOccupied() & ~Bitboard.bit(from) & ~Bitboard.bit(captured)) | Bitboard.bit(to);
+
+        long queens = board.getPieceBitboard(PieceType.QUEEN, !isWhite);
+        long rooks = board.getPieceBitboard(PieceType.ROOK, !isWhite) | queens;
+        long bishops = board.getPieceBitboard(PieceType.BISHOP, !isWhite) | queens;
+        return (Attacks.rook(kingSquare, occupied) & rooks) == 0
+                && (Attacks.bishop(kingSquare, occupied) & bishops) == 0;
+    }
+}
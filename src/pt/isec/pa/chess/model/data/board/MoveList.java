@@ -0,0 +1,156 @@
+package pt.isec.pa.chess.model.data.board;
+
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+/**
+ * Buffer reutilizável de movimentos codificados (ver {@link Move}).
+ * O array interno é criado uma única vez, por isso gerar movimentos para uma lista
+ * existente (depois de {@link #clear()}) não cria objetos.
+ * <p>
+ * Cada movimento tem também uma pontuação, usada para ordenar a lista: depois de
+ * atribuir as pontuações com {@link #setScore}, {@link #pickBest} traz o melhor movimento
+ * restante para cada índice à medida que a lista é percorrida (ordenação por seleção
+ * incremental, que não ordena a parte da lista que fica por percorrer após um corte).
+ */
+public class MoveList {
+    /**
+     * Capacidade máxima: nenhuma posição legal tem mais de 218 movimentos.
+     */
+    public static final int MAX_MOVES = 256;
+
+    private final int[] moves;
+    private final int[] scores;
+    private int size;
+
+    public MoveList() {
+        moves = new int[MAX_MOVES];
+        scores = new int[MAX_MOVES];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove o movimento num índice, substituindo-o pelo último da lista.
+     * A ordem dos movimentos não é preservada.
+     * @param index índice do movimento a remover
+     */
+    public void remove(int index) {
+        moves[index] = moves[--size];
+        scores[index] = scores[size];
+    }
+
+    /**
+     * Troca dois movimentos da lista (usado para ordenar a lista sem alocar).
+     * @param i índice do primeiro movimento
+     * @param j índice do segundo movimento
+     */
+    public void swap(int i, int j) {
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+        int score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    public int getScore(int index) {
+        return scores[index];
+    }
+
+    public void setScore(int index, int score) {
+        scores[index] = score;
+    }
+
+    /**
+     * Traz para um índice o movimento com maior pontuação entre esse índice e o fim da lista.
+     * Chamado com índices crescentes, percorre a lista por ordem decrescente de pontuação.
+     * @param index índice a preencher (os anteriores já foram escolhidos)
+     * @return movimento escolhido
+     */
+    public int pickBest(int index) {
+        int best = index;
+        for (int i = index + 1; i < size; i++)
+            if (scores[i] > scores[best])
+                best = i;
+        if (best != index)
+            swap(index, best);
+        return moves[index];
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++)
+            if (moves[i] == move)
+                return true;
+        return false;
+    }
+
+    /**
+     * Procura um movimento pela origem e destino.
+     * Em promoções devolve o primeiro movimento encontrado (dama).
+     * @param from casa de origem
+     * @param to casa de destino
+     * @return movimento encontrado ou {@link Move#NONE}
+     */
+    public int find(int from, int to) {
+        for (int i = 0; i < size; i++)
+            if (Move.from(moves[i]) == from && Move.to(moves[i]) == to)
+                return moves[i];
+        return Move.NONE;
+    }
+
+    /**
+     * Procura um movimento pela origem, destino e peça da promoção.
+     * @param from casa de origem
+     * @param to casa de destino
+     * @param promotion tipo da promoção (null para movimentos sem promoção)
+     * @return movimento encontrado ou {@link Move#NONE}
+     */
+    public int find(int from, int to, PieceType promotion) {
+        for (int i = 0; i < size; i++) {
+            int move = moves[i];
+            if (Move.from(move) == from && Move.to(move) == to && Move.promotion(move) == promotion)
+                return move;
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Bitboard com as casas de destino de todos os movimentos da lista.
+     * @return bitboard de destinos
+     */
+    public long getTargets() {
+        long targets = 0;
+        for (int i = 0; i < size; i++)
+            targets |= Bitboard.bit(Move.to(moves[i]));
+        return targets;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(Move.toString(moves[i]));
+        }
+        return sb.append("]").toString();
+    }
+}
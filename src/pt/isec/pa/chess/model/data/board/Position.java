@@ -8,6 +8,25 @@ public class Position implements Serializable {
     public int r;
     public int c;
 
+    /**
+     * Posições partilhadas para cada casa, usadas nos movimentos para não criar objetos.
+     */
+    private static final Position[] SQUARES = new Position[Board.BOARD_SIZE * Board.BOARD_SIZE];
+
+    static {
+        for (int square = 0; square < SQUARES.length; square++)
+            SQUARES[square] = new Position(square / Board.BOARD_SIZE, square % Board.BOARD_SIZE);
+    }
+
+    /**
+     * Obtém a posição partilhada correspondente a uma casa (não deve ser alterada).
+     * @param square índice da casa entre 0 e 63
+     * @return posição da casa
+     */
+    public static Position of(int square) {
+        return SQUARES[square];
+    }
+
     public Position(int r, int c) {
         this.r = r;
         this.c = c;
@@ -64,4 +83,9 @@ public class Position implements Serializable {
         Position object = (Position) obj;
         return r == object.r && c == object.c;
     }
+
+    @Override
+    public int hashCode() {
+        return r * Board.BOARD_SIZE + c;
+    }
 }
@@ -0,0 +1,89 @@
+package pt.isec.pa.chess.model.data.board;
+
+/**
+ * Chaves de Zobrist para identificar posições com um valor de 64 bits.
+ * O hash de uma posição é o XOR das chaves de cada peça na sua casa, dos direitos de roque,
+ * da coluna de en passant (quando a captura é possível) e do lado a jogar.
+ * As chaves são geradas com uma semente fixa, por isso o hash é estável entre execuções
+ * e pode ser guardado em ficheiros.
+ */
+public final class Zobrist {
+    private Zobrist() {}
+
+    private static final long SEED = 0x5EED_C4E5_5A1E_0001L;
+
+    /**
+     * Chave de cada peça (índice {@link Bitboard#index}) em cada casa.
+     */
+    static final long[][] PIECES = new long[Bitboard.PIECE_BITBOARDS][Board.BOARD_SIZE * Board.BOARD_SIZE];
+
+    /**
+     * Chave de cada combinação de direitos de roque.
+     */
+    static final long[] CASTLING = new long[16];
+
+    /**
+     * Chave da coluna da casa de en passant.
+     */
+    static final long[] EN_PASSANT = new long[Board.BOARD_SIZE];
+
+    /**
+     * Chave aplicada quando são as pretas a jogar.
+     */
+    public static final long SIDE;
+
+    static {
+        long state = SEED;
+        for (long[] keys : PIECES) {
+            for (int square = 0; square < keys.length; square++) {
+                state += 0x9E3779B97F4A7C15L;
+                keys[square] = mix(state);
+            }
+        }
+        // Os direitos combinam-se por XOR das chaves de cada direito individual
+        long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            rights[i] = mix(state);
+        }
+        for (int mask = 0; mask < CASTLING.length; mask++) {
+            for (int i = 0; i < rights.length; i++) {
+                if ((mask & (1 << i)) != 0)
+                    CASTLING[mask] ^= rights[i];
+            }
+        }
+        for (int file = 0; file < EN_PASSANT.length; file++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT[file] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        SIDE = mix(state);
+    }
+
+    /**
+     * Função de mistura do SplitMix64.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Chave de uma peça numa casa.
+     * @param pieceIndex índice da peça (ver {@link Bitboard#index})
+     * @param square índice da casa
+     * @return chave de Zobrist
+     */
+    public static long piece(int pieceIndex, int square) {
+        return PIECES[pieceIndex][square];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassant(int square) {
+        return EN_PASSANT[Bitboard.col(square)];
+    }
+}
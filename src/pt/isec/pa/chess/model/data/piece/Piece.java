@@ -1,12 +1,15 @@
 package pt.isec.pa.chess.model.data.piece;
 
+import pt.isec.pa.chess.model.data.board.Bitboard;
 import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
 import pt.isec.pa.chess.model.data.board.Position;
 import pt.isec.pa.chess.model.data.piece.tools.PieceType;
 
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
 
 public abstract class Piece implements Serializable {
@@ -49,6 +52,10 @@ public abstract class Piece implements Serializable {
         this.hasMoved = true;
     }
 
+    public void setHasMoved(boolean hasMoved) {
+        this.hasMoved = hasMoved;
+    }
+
     public boolean isSameColor(boolean isWhite) {
         return this.isWhite == isWhite;
     }
@@ -57,58 +64,75 @@ public abstract class Piece implements Serializable {
         return isSameColor(piece.isWhite);
     }
 
-    private boolean isMoveLegal(int r, int c, Board board) {
-        Piece target = board.getPiece(new Position(r, c));
-        if (target == null) {
-            return true;
-        }
-        return !target.isSameColor(this);
-    }
-
-    public abstract List<Position> getPossibleMoves(Board board);
-
-    public List<Position> movePieces(Board board, Position[] directions, boolean isOneMove) {
-        List<Position> moves = new ArrayList<>();
-
-        for (Position direction : directions) {
-            Position to = new Position(pos);
-            do {
-                to.add(direction);
-                if (to.isValidPosition() && isMoveLegal(to.r, to.c, board)) {
-                    moves.add(new Position(to));
-                    if (board.getPiece(to) != null) {
-                        break;
-                    }
-                } else {
-                    break;
-                }
-            } while (!isOneMove && !board.hasEnemy(pos, to));
-        }
-        return moves;
+    /**
+     * Gera os movimentos pseudo-legais da peça (sem verificar se deixam o rei em xeque).
+     * Os movimentos são acrescentados à lista sem criar objetos.
+     * @param board tabuleiro onde a peça se encontra
+     * @param moves lista onde acrescentar os movimentos codificados
+     */
+    public void generateMoves(Board board, MoveList moves) {
+        generateMoves(board, moves, Bitboard.ALL);
     }
 
-    public List<Position> diagonalMoves(Board board, boolean isOneMove) {
-        Position[] directions = {
-                new Position(1, 1),
-                new Position(1, -1),
-                new Position(-1, 1),
-                new Position(-1, -1)
-        };
-        return movePieces(board, directions, isOneMove);
+    /**
+     * Gera os movimentos pseudo-legais da peça cujo destino está numa máscara de casas.
+     * Usado pelo {@link MoveGenerator} para restringir peças cravadas e respostas a xeque.
+     * Na captura en passant a máscara pode conter a casa de destino ou a do peão capturado.
+     * @param board tabuleiro onde a peça se encontra
+     * @param moves lista onde acrescentar os movimentos codificados
+     * @param targetMask casas de destino permitidas
+     */
+    public abstract void generateMoves(Board board, MoveList moves, long targetMask);
+
+    /**
+     * Obtém as posições para onde a peça se pode mover (movimentos pseudo-legais).
+     * @param board tabuleiro onde a peça se encontra
+     * @return lista de posições de destino
+     */
+    public List<Position> getPossibleMoves(Board board) {
+        MoveList moves = board.getMoveBuffer();
+        moves.clear();
+        generateMoves(board, moves);
+        return Bitboard.toPositions(moves.getTargets());
     }
 
-    public List<Position> straightMoves(Board board, boolean isOneMove) {
-        Position[] directions = {
-                new Position(1, 0),
-                new Position(-1, 0),
-                new Position(0, 1),
-                new Position(0, -1)
-        };
-        return movePieces(board, directions, isOneMove);
+    /**
+     * Índice da casa onde a peça se encontra (ver {@link Bitboard#square(int, int)}).
+     */
+    public int getSquare() {
+        return Bitboard.square(pos);
+    }
+
+    /**
+     * Retira dos ataques as casas ocupadas por peças da mesma cor.
+     */
+    protected long targets(Board board, long attacks) {
+        return attacks & ~board.getColorBitboard(isWhite);
+    }
+
+    /**
+     * Acrescenta um movimento por cada casa de destino, marcando as capturas.
+     */
+    protected void addMoves(Board board, MoveList moves, long targets) {
+        int from = getSquare();
+        long enemies = board.getColorBitboard(!isWhite);
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Bitboard.lsb(targets);
+            moves.add(Move.of(from, to, (enemies & Bitboard.bit(to)) != 0 ? Move.CAPTURE : Move.QUIET));
+        }
     }
 
+    /**
+     * Remove da lista as posições que não correspondem a movimentos legais da peça.
+     * @param board tabuleiro onde a peça se encontra
+     * @param moves posições de destino a filtrar
+     */
     public void removeCheckMoves(Board board, List<Position> moves) {
-        moves.removeIf(move -> board.isNextMoveCheck(pos, move));
+        MoveList legalMoves = board.getMoveBuffer();
+        legalMoves.clear();
+        MoveGenerator.generateLegalMoves(board, getSquare(), legalMoves);
+        long targets = legalMoves.getTargets();
+        moves.removeIf(move -> (targets & Bitboard.bit(Bitboard.square(move))) == 0);
     }
 
     @Override
@@ -1,20 +1,25 @@
 package pt.isec.pa.chess.model.data.piece.pieces;
 
+import pt.isec.pa.chess.model.data.board.Attacks;
 import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.MoveList;
 import pt.isec.pa.chess.model.data.board.Position;
 import pt.isec.pa.chess.model.data.piece.Piece;
 import pt.isec.pa.chess.model.data.piece.tools.PieceType;
 
-import java.util.List;
+import java.io.Serial;
 
 public class Bishop extends Piece {
+    @Serial
+    private static final long serialVersionUID = -6625269096435110359L;
+
     public Bishop(Position pos, boolean isWhite) {
         super(PieceType.BISHOP, pos, isWhite);
     }
 
     @Override
-    public List<Position> getPossibleMoves(Board board) {
-        return diagonalMoves(board, false);
+    public void generateMoves(Board board, MoveList moves, long targetMask) {
+        addMoves(board, moves, targetMask & targets(board, Attacks.bishop(getSquare(), board.getOccupied())));
     }
 }
 
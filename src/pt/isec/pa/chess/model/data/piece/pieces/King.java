@@ -1,62 +1,62 @@
 package pt.isec.pa.chess.model.data.piece.pieces;
 
+import pt.isec.pa.chess.model.data.board.Attacks;
+import pt.isec.pa.chess.model.data.board.Bitboard;
 import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveList;
 import pt.isec.pa.chess.model.data.board.Position;
 import pt.isec.pa.chess.model.data.piece.Piece;
 import pt.isec.pa.chess.model.data.piece.tools.PieceType;
 
-import java.util.List;
+import java.io.Serial;
 
 public class King extends Piece {
+    @Serial
+    private static final long serialVersionUID = 5432021444549831202L;
+
     public King(Position pos, boolean isWhite) {
         super(PieceType.KING, pos, isWhite);
     }
 
     @Override
-    public List<Position> getPossibleMoves(Board board) {
-        List<Position> moves = straightMoves(board, true);
-        moves.addAll(diagonalMoves(board, true));
+    public void generateMoves(Board board, MoveList moves, long targetMask) {
+        addMoves(board, moves, targetMask & targets(board, Attacks.king(getSquare())));
 
-        // Castling
-        if (!hasMoved()) {
-            addCastlingMoves(board, moves);
+        // Castling (os direitos do tabuleiro garantem rei e torre nas casas iniciais, sem se moverem)
+        int rights = board.getCastlingRights();
+        if (rights != 0) {
+            addCastlingMoves(board, moves, targetMask, rights);
         }
-
-        return moves;
     }
 
-    private void addCastlingMoves(Board board, List<Position> moves) {
-        int row = pos.r;
+    private void addCastlingMoves(Board board, MoveList moves, long targetMask, int rights) {
+        int from = getSquare();
+        int kingSide = isWhite ? Board.CASTLE_WHITE_KING : Board.CASTLE_BLACK_KING;
+        int queenSide = isWhite ? Board.CASTLE_WHITE_QUEEN : Board.CASTLE_BLACK_QUEEN;
         // Kingside (pequeno roque)
-        if (canCastle(board, pos, new Position(row, 7), true)) {
-            moves.add(new Position(row, pos.c + 2));
+        if ((rights & kingSide) != 0 && (targetMask & Bitboard.bit(from + 2)) != 0 && canCastle(board, from, from + 3)) {
+            moves.add(Move.of(from, from + 2, Move.KING_CASTLE));
         }
         // Queenside (grande roque)
-        if (canCastle(board, pos, new Position(row, 0), false)) {
-            moves.add(new Position(row, pos.c - 2));
+        if ((rights & queenSide) != 0 && (targetMask & Bitboard.bit(from - 2)) != 0 && canCastle(board, from, from - 4)) {
+            moves.add(Move.of(from, from - 2, Move.QUEEN_CASTLE));
         }
     }
 
-    private boolean canCastle(Board board, Position kingPos, Position rookPos, boolean kingSide) {
-        Piece rook = board.getPiece(rookPos);
+    private boolean canCastle(Board board, int kingSquare, int rookSquare) {
 
-        if (!(rook instanceof Rook) || rook.hasMoved())
+        // Verificar se as casas entre rei e torre estão vazias
+        if ((board.getOccupied() & Attacks.between(kingSquare, rookSquare)) != 0)
             return false;
 
-        int step = kingSide ? 1 : -1;
-        int col = kingPos.c + step;
-        // Verificar se as casas entre rei e torre estão vazias
-        while ((kingSide && col < rookPos.c) || (!kingSide && col > rookPos.c)) {
-            if (!board.isEmpty(new Position(kingPos.r, col)))
-                return false;
-            col += step;
-        }
         // O rei não pode estar, passar ou terminar em xeque
+        int step = rookSquare > kingSquare ? 1 : -1;
         for (int i = 0; i <= 2; i++) {
-            Position testPos = new Position(kingPos.r, kingPos.c + (kingSide ? i : -i));
+            if (board.isSquareAttacked(kingSquare + i * step, !isWhite))
+                return false;
         }
 
         return true;
     }
 }
-
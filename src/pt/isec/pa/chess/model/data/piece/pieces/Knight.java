@@ -1,25 +1,24 @@
 package pt.isec.pa.chess.model.data.piece.pieces;
 
+import pt.isec.pa.chess.model.data.board.Attacks;
 import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.MoveList;
 import pt.isec.pa.chess.model.data.board.Position;
 import pt.isec.pa.chess.model.data.piece.Piece;
 import pt.isec.pa.chess.model.data.piece.tools.PieceType;
 
-import java.util.List;
+import java.io.Serial;
 
 public class Knight extends Piece {
-    Position[] MOVES = {
-            new Position(-2, -1), new Position(-2, 1), // Up-Left, Up-Right
-            new Position(-1, 2), new Position(1, 2), // Right-Up, Right-Down
-            new Position(2, -1), new Position(2, 1), // Down-Left, Down-Right
-            new Position(-1, -2), new Position(1, -2) // Left-Up, Left-Down
-    };
+    @Serial
+    private static final long serialVersionUID = 5466615798378028886L;
+
     public Knight(Position pos, boolean isWhite) {
         super(PieceType.KNIGHT, pos, isWhite);
     }
 
     @Override
-    public List<Position> getPossibleMoves(Board board) {
-        return movePieces(board, MOVES, true);
+    public void generateMoves(Board board, MoveList moves, long targetMask) {
+        addMoves(board, moves, targetMask & targets(board, Attacks.knight(getSquare())));
     }
 }
@@ -1,67 +1,66 @@
 package pt.isec.pa.chess.model.data.piece.pieces;
 
+import pt.isec.pa.chess.model.data.board.Attacks;
+import pt.isec.pa.chess.model.data.board.Bitboard;
 import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveList;
 import pt.isec.pa.chess.model.data.board.Position;
 import pt.isec.pa.chess.model.data.piece.Piece;
 import pt.isec.pa.chess.model.data.piece.tools.PieceType;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.Serial;
 
 public class Pawn extends Piece {
+    @Serial
+    private static final long serialVersionUID = -1634850175116097007L;
+
     public Pawn(Position pos, boolean isWhite) {
         super(PieceType.PAWN, pos, isWhite);
     }
 
     @Override
-    public List<Position> getPossibleMoves(Board board) {
-        int direction = isWhite ? -1 : 1;
-        List<Position> possibleMoves = straightMoves(board, direction);
-        possibleMoves.addAll(attackMoves(board, direction));
-        return possibleMoves;
-    }
+    public void generateMoves(Board board, MoveList moves, long targetMask) {
+        int from = getSquare();
+        int direction = isWhite ? -Board.BOARD_SIZE : Board.BOARD_SIZE;
+        long occupied = board.getOccupied();
 
-    public List<Position> straightMoves(Board board, int direction) {
-        List<Position> moves = new ArrayList<>();
-        Position newPos = new Position(pos.r + direction, pos.c);
+        int to = from + direction;
+        if (to >= 0 && to < 64 && (occupied & Bitboard.bit(to)) == 0) {
+            if ((targetMask & Bitboard.bit(to)) != 0)
+                addPawnMove(moves, from, to, Move.QUIET);
 
-        if (board.isEmpty(newPos)) {
-            moves.add(new Position(newPos));
-
-            newPos.r = pos.r + 2 * direction;
-            if (board.isEmpty(newPos) && pos.r == (isWhite() ? Board.BOARD_SIZE -2 : 1)) {
-                moves.add(newPos);
-            }
+            int startRow = isWhite ? Board.BOARD_SIZE - 2 : 1;
+            int doubleTo = to + direction;
+            long doubleBit = Bitboard.bit(doubleTo);
+            if (Bitboard.row(from) == startRow && (occupied & doubleBit) == 0 && (targetMask & doubleBit) != 0)
+                moves.add(Move.of(from, doubleTo, Move.DOUBLE_PAWN_PUSH));
         }
-        return moves;
-    }
 
-    public List<Position> attackMoves(Board board, int direction) {
-        List<Position> moves = new ArrayList<>();
-        int r = pos.r, c = pos.c;
+        long attacks = Attacks.pawn(from, isWhite);
+        for (long captures = attacks & targetMask & board.getColorBitboard(!isWhite); captures != 0; captures &= captures - 1)
+            addPawnMove(moves, from, Bitboard.lsb(captures), Move.CAPTURE);
 
-        Position[] diagonals = {
-                new Position(r + direction, c - 1),
-                new Position(r + direction, c + 1)
-        };
-        Position[] sides = {
-                new Position(pos.r, pos.c - 1), // Diagonal-Left
-                new Position(pos.r, pos.c + 1) // Diagonal-Right
-        };
+        // En passant (a máscara pode conter a casa de destino ou o peão capturado)
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant >= 0 && (attacks & Bitboard.bit(enPassant)) != 0
+                && (targetMask & (Bitboard.bit(enPassant) | Bitboard.bit(enPassant - direction))) != 0)
+            moves.add(Move.of(from, enPassant, Move.EN_PASSANT));
+    }
 
-        for (Position diagonal : diagonals) {
-            if (board.hasEnemy(pos, diagonal)) {
-                moves.add(diagonal);
-            }
-        }
-        for (Position side : sides) {
-            if (board.hasEnemy(pos, side) && board.getPiece(side).getType() == PieceType.PAWN) {
-                Position to = new Position(side.r + direction, side.c);
-                if (board.isEmpty(to))
-                    moves.add(to);
-            }
+    /**
+     * Acrescenta um movimento de peão, expandindo-o nas quatro promoções na última linha.
+     */
+    private void addPawnMove(MoveList moves, int from, int to, int flags) {
+        int row = Bitboard.row(to);
+        if (row != 0 && row != Board.BOARD_SIZE - 1) {
+            moves.add(Move.of(from, to, flags));
+            return;
         }
-
-        return moves;
+        flags |= Move.PROMOTION;
+        moves.add(Move.of(from, to, flags, PieceType.QUEEN));
+        moves.add(Move.of(from, to, flags, PieceType.ROOK));
+        moves.add(Move.of(from, to, flags, PieceType.BISHOP));
+        moves.add(Move.of(from, to, flags, PieceType.KNIGHT));
     }
 }
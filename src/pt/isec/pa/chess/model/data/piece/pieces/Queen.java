@@ -1,21 +1,24 @@
 package pt.isec.pa.chess.model.data.piece.pieces;
 
+import pt.isec.pa.chess.model.data.board.Attacks;
 import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.MoveList;
 import pt.isec.pa.chess.model.data.board.Position;
 import pt.isec.pa.chess.model.data.piece.Piece;
 import pt.isec.pa.chess.model.data.piece.tools.PieceType;
 
-import java.util.List;
+import java.io.Serial;
 
 public class Queen extends Piece {
+    @Serial
+    private static final long serialVersionUID = 4984470148648335796L;
+
     public Queen(Position pos, boolean isWhite) {
         super(PieceType.QUEEN, pos, isWhite);
     }
 
     @Override
-    public List<Position> getPossibleMoves(Board board) {
-        List<Position> moves = straightMoves(board, false);
-        moves.addAll(diagonalMoves(board, false));
-        return moves;
+    public void generateMoves(Board board, MoveList moves, long targetMask) {
+        addMoves(board, moves, targetMask & targets(board, Attacks.queen(getSquare(), board.getOccupied())));
     }
 }
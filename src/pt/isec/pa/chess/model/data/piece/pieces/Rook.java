@@ -1,19 +1,24 @@
 package pt.isec.pa.chess.model.data.piece.pieces;
 
+import pt.isec.pa.chess.model.data.board.Attacks;
 import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.MoveList;
 import pt.isec.pa.chess.model.data.board.Position;
 import pt.isec.pa.chess.model.data.piece.Piece;
 import pt.isec.pa.chess.model.data.piece.tools.PieceType;
 
-import java.util.List;
+import java.io.Serial;
 
 public class Rook extends Piece {
+    @Serial
+    private static final long serialVersionUID = 8739782651040183576L;
+
     public Rook(Position pos, boolean isWhite) {
         super(PieceType.ROOK, pos, isWhite);
     }
 
     @Override
-    public List<Position> getPossibleMoves(Board board) {
-        return straightMoves(board, false);
+    public void generateMoves(Board board, MoveList moves, long targetMask) {
+        addMoves(board, moves, targetMask & targets(board, Attacks.rook(getSquare(), board.getOccupied())));
     }
 }
@@ -6,12 +6,21 @@ import pt.isec.pa.chess.model.data.piece.Piece;
 
 public class PieceFactory {
     public static PieceType fromIcon(String icon){
-        for (PieceType type : PieceType.values()) {
-            if (type.getIcon().equalsIgnoreCase(icon)) {
-                return type;
-            }
-        }
-        throw new IllegalArgumentException("Tipo de peça inválido: " + icon);
+        if (icon.length() != 1)
+            throw new IllegalArgumentException("Tipo de peça inválido: " + icon);
+        return fromSymbol(icon.charAt(0));
+    }
+
+    public static PieceType fromSymbol(char symbol) {
+        return switch (Character.toLowerCase(symbol)) {
+            case 'k' -> PieceType.KING;
+            case 'q' -> PieceType.QUEEN;
+            case 'r' -> PieceType.ROOK;
+            case 'b' -> PieceType.BISHOP;
+            case 'n' -> PieceType.KNIGHT;
+            case 'p' -> PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Tipo de peça inválido: " + symbol);
+        };
     }
 
     public static Piece createPiece(PieceType type, Position pos, boolean isWhite) {
@@ -39,10 +48,15 @@ public class PieceFactory {
 
     public static Piece createPiece(String piece) {
         char typeChar = piece.charAt(0);
-        PieceType type = fromIcon("" + typeChar);
+        PieceType type = fromSymbol(typeChar);
 
         boolean isWhite = Character.isUpperCase(typeChar);
         Position pos = Position.convert("" + piece.charAt(1) + piece.charAt(2));
-        return createPiece(type, pos, isWhite);
+        Piece created = createPiece(type, pos, isWhite);
+
+        // Reis e torres sem '*' já se moveram (perderam o direito ao roque)
+        if ((type == PieceType.KING || type == PieceType.ROOK) && !piece.endsWith("*"))
+            created.setHasMoved();
+        return created;
     }
 }
@@ -0,0 +1,292 @@
+package pt.isec.pa.chess.model.db;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.io.PositionCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Base de dados de jogos com um índice de posições, criada com {@link GameDatabaseBuilder}.
+ * <p>
+ * Uma base de dados é uma pasta com três ficheiros:
+ * <ul>
+ *     <li>{@value #GAMES_FILE}: os jogos (jogadores, resultado, posição inicial e movimentos);</li>
+ *     <li>{@value #OFFSETS_FILE}: a posição de cada jogo no ficheiro anterior (u64 por jogo);</li>
+ *     <li>{@value #POSITIONS_FILE}: uma entrada de {@value #ENTRY_SIZE} bytes por posição atingida
+ *     (hash de Zobrist, jogo, meio-lance), ordenadas pelo hash (sem sinal).</li>
+ * </ul>
+ * O índice de posições é mapeado em memória e pesquisado por pesquisa binária, sem ser
+ * carregado para o heap: uma consulta lê apenas ~log2(n) entradas. Pode ser usado por
+ * várias threads ao mesmo tempo.
+ */
+public final class GameDatabase implements Closeable {
+    static final String GAMES_FILE = "games.dat";
+    static final String OFFSETS_FILE = "games.idx";
+    static final String POSITIONS_FILE = "positions.idx";
+
+    static final int MAGIC = 0x43484442; // "CHDB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 16;
+
+    static final int RESULT_UNKNOWN = 0;
+    static final int RESULT_WHITE_WINS = 1;
+    static final int RESULT_BLACK_WINS = 2;
+    static final int RESULT_DRAW = 3;
+
+    /** Tamanho de cada segmento mapeado (múltiplo de {@link #ENTRY_SIZE}, para nenhuma entrada ficar dividida). */
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    /**
+     * Dados de um jogo guardado.
+     * @param id número do jogo na base de dados
+     * @param whitePlayer nome do jogador das brancas
+     * @param blackPlayer nome do jogador das pretas
+     * @param result "1-0", "0-1", "1/2-1/2" ou "*"
+     * @param plies número de meios-lances
+     */
+    public record GameInfo(int id, String whitePlayer, String blackPlayer, String result, int plies) {}
+
+    /**
+     * Conteúdo completo de um jogo guardado.
+     * @param info dados do jogo
+     * @param initialPosition snapshot da posição inicial ({@link PositionCodec})
+     * @param moves movimentos codificados
+     */
+    public record GameData(GameInfo info, byte[] initialPosition, int[] moves) {}
+
+    private final FileChannel games;
+    private final MappedByteBuffer offsets;
+    private final MappedByteBuffer[] segments;
+    private final int gameCount;
+    private final long positionCount;
+
+    private GameDatabase(FileChannel games, MappedByteBuffer offsets, MappedByteBuffer[] segments,
+                         int gameCount, long positionCount) {
+        this.games = games;
+        this.offsets = offsets;
+        this.segments = segments;
+        this.gameCount = gameCount;
+        this.positionCount = positionCount;
+    }
+
+    /**
+     * Abre uma base de dados existente.
+     * @param directory pasta da base de dados
+     * @return base de dados aberta (deve ser fechada)
+     * @throws IOException se os ficheiros não existirem ou forem inválidos
+     */
+    public static GameDatabase open(Path directory) throws IOException {
+        MappedByteBuffer offsets;
+        try (FileChannel channel = FileChannel.open(directory.resolve(OFFSETS_FILE), StandardOpenOption.READ)) {
+            offsets = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        long gameCount = checkHeader(offsets, OFFSETS_FILE, Long.BYTES, offsets.capacity());
+
+        MappedByteBuffer[] segments;
+        long positionCount;
+        try (FileChannel channel = FileChannel.open(directory.resolve(POSITIONS_FILE), StandardOpenOption.READ)) {
+            long size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+            if (segments.length == 0)
+                throw new IOException("Índice de posições vazio");
+            positionCount = checkHeader(segments[0], POSITIONS_FILE, ENTRY_SIZE, size);
+        }
+
+        return new GameDatabase(FileChannel.open(directory.resolve(GAMES_FILE), StandardOpenOption.READ),
+                offsets, segments, (int) gameCount, positionCount);
+    }
+
+    private static long checkHeader(ByteBuffer buffer, String name, int recordSize, long fileSize) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IOException("Ficheiro inválido na base de dados: " + name);
+        if (buffer.getInt(4) > VERSION)
+            throw new IOException("Versão não suportada de " + name + ": " + buffer.getInt(4));
+        long count = buffer.getLong(8);
+        if (count < 0 || HEADER_SIZE + count * recordSize != fileSize)
+            throw new IOException("Ficheiro truncado ou corrompido na base de dados: " + name);
+        return count;
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    public long getPositionCount() {
+        return positionCount;
+    }
+
+    private long hashAt(long entry) {
+        long pos = HEADER_SIZE + entry * ENTRY_SIZE;
+        return segments[(int) (pos / SEGMENT_SIZE)].getLong((int) (pos % SEGMENT_SIZE));
+    }
+
+    private long valueAt(long entry) {
+        long pos = HEADER_SIZE + entry * ENTRY_SIZE + Long.BYTES;
+        return segments[(int) (pos / SEGMENT_SIZE)].getLong((int) (pos % SEGMENT_SIZE));
+    }
+
+    /**
+     * Primeira entrada com hash >= ao indicado (comparação sem sinal).
+     */
+    private long lowerBound(long hash) {
+        long low = 0, high = positionCount;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(hashAt(mid), hash) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Conta quantas vezes uma posição foi atingida (em todos os jogos).
+     * @param hash hash da posição (ver {@link ChessGame#getPositionHash()})
+     * @return número de ocorrências
+     */
+    public long count(long hash) {
+        long end = hash == -1L ? positionCount : lowerBound(hash + 1);
+        return end - lowerBound(hash);
+    }
+
+    /**
+     * Procura os jogos que atingiram uma posição, sem alocar.
+     * @param hash hash da posição (ver {@link ChessGame#getPositionHash()})
+     * @param out array onde escrever os números dos jogos (por ordem crescente, sem repetições)
+     * @return número de jogos escritos (no máximo {@code out.length})
+     */
+    public int findGames(long hash, int[] out) {
+        int found = 0;
+        for (long i = lowerBound(hash); i < positionCount && found < out.length && hashAt(i) == hash; i++) {
+            int game = (int) (valueAt(i) >>> 32);
+            if (found == 0 || out[found - 1] != game)
+                out[found++] = game;
+        }
+        return found;
+    }
+
+    /**
+     * Procura os jogos que atingiram a posição atual de um jogo.
+     * @param game jogo
+     * @param limit número máximo de resultados
+     * @return números dos jogos, por ordem crescente
+     */
+    public int[] findGames(ChessGame game, int limit) {
+        int[] out = new int[limit];
+        int found = findGames(game.getPositionHash(), out);
+        return found == limit ? out : Arrays.copyOf(out, found);
+    }
+
+    private long gameOffset(int id) {
+        if (id < 0 || id >= gameCount)
+            throw new IllegalArgumentException("Jogo inexistente: " + id);
+        return offsets.getLong(HEADER_SIZE + id * Long.BYTES);
+    }
+
+    private ByteBuffer readRecord(int id) throws IOException {
+        long start = gameOffset(id);
+        long end = id + 1 < gameCount ? gameOffset(id + 1) : games.size();
+        ByteBuffer record = ByteBuffer.allocate((int) (end - start));
+        while (record.hasRemaining()) {
+            if (games.read(record, start + record.position()) < 0)
+                throw new IOException("Jogo " + id + " truncado na base de dados");
+        }
+        return record.flip();
+    }
+
+    private static String getString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getShort() & 0xFFFF];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String resultName(int code) {
+        return switch (code) {
+            case RESULT_WHITE_WINS -> "1-0";
+            case RESULT_BLACK_WINS -> "0-1";
+            case RESULT_DRAW -> "1/2-1/2";
+            default -> "*";
+        };
+    }
+
+    /**
+     * Lê os dados de um jogo (sem o reproduzir).
+     * @param id número do jogo
+     * @return dados do jogo
+     * @throws IOException se a leitura falhar
+     */
+    public GameInfo getGameInfo(int id) throws IOException {
+        ByteBuffer record = readRecord(id);
+        String white = getString(record);
+        String black = getString(record);
+        String result = resultName(record.get());
+        record.position(record.position() + PositionCodec.SIZE);
+        return new GameInfo(id, white, black, result, record.getShort() & 0xFFFF);
+    }
+
+    /**
+     * Lê um jogo guardado sem o reproduzir nem validar (os movimentos foram validados ao criar
+     * a base de dados). Útil para percorrer muitos jogos rapidamente.
+     * @param id número do jogo
+     * @return dados, posição inicial ({@link PositionCodec}) e movimentos do jogo
+     * @throws IOException se a leitura falhar
+     */
+    public GameData readGame(int id) throws IOException {
+        ByteBuffer record = readRecord(id);
+        String white = getString(record);
+        String black = getString(record);
+        String result = resultName(record.get());
+        byte[] initial = new byte[PositionCodec.SIZE];
+        record.get(initial);
+        int[] moves = new int[record.getShort() & 0xFFFF];
+        for (int i = 0; i < moves.length; i++)
+            moves[i] = record.getInt();
+        return new GameData(new GameInfo(id, white, black, result, moves.length), initial, moves);
+    }
+
+    /**
+     * Reproduz um jogo guardado, com o histórico completo no tabuleiro.
+     * @param id número do jogo
+     * @return jogo na posição final
+     * @throws IOException se a leitura falhar ou o jogo tiver movimentos inválidos
+     */
+    public ChessGame loadGame(int id) throws IOException {
+        ByteBuffer record = readRecord(id);
+        ChessGame game = new ChessGame();
+        game.setWhitePlayerName(getString(record));
+        game.setBlackPlayerName(getString(record));
+        record.get(); // resultado
+
+        byte[] initial = new byte[PositionCodec.SIZE];
+        record.get(initial);
+        game.fromSnapshot(initial);
+
+        int plies = record.getShort() & 0xFFFF;
+        for (int i = 0; i < plies; i++) {
+            int move = record.getInt();
+            if (!game.redoMove(move))
+                throw new IOException("Movimento inválido no jogo " + id + ": " + Move.toString(move));
+        }
+        return game;
+    }
+
+    @Override
+    public void close() throws IOException {
+        games.close();
+    }
+}
@@ -0,0 +1,311 @@
+package pt.isec.pa.chess.model.db;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Zobrist;
+import pt.isec.pa.chess.model.io.PositionCodec;
+import pt.isec.pa.chess.model.io.pgn.PgnException;
+import pt.isec.pa.chess.model.io.pgn.PgnGame;
+import pt.isec.pa.chess.model.io.pgn.PgnReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Cria uma {@link GameDatabase} a partir de jogos ou ficheiros PGN.
+ * <p>
+ * Os jogos são escritos à medida que são adicionados. As entradas do índice de posições
+ * são acumuladas em blocos de tamanho fixo; cada bloco cheio é ordenado (radix sort pelo hash,
+ * estável, por isso as entradas do mesmo hash ficam por ordem de jogo) e gravado num ficheiro
+ * temporário. Ao fechar, os blocos são combinados (merge) no índice final. Assim a memória
+ * usada não depende do número de posições.
+ */
+public final class GameDatabaseBuilder implements Closeable {
+    private static final int DEFAULT_RUN_ENTRIES = 1 << 21;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_NAME_BYTES = 1024;
+    private static final int MAX_PLIES = 0xFFFF;
+
+    private final Path directory;
+    private final DataOutputStream games;
+    private final DataOutputStream offsets;
+    private long gamesSize;
+    private int gameCount;
+    private long positionCount;
+
+    private long[] hashes, values, sortHashes, sortValues;
+    private int runSize;
+    private final List<Path> runs = new ArrayList<>();
+
+    /**
+     * Cria uma base de dados nova (os ficheiros existentes na pasta são substituídos).
+     * @param directory pasta da base de dados (é criada se não existir)
+     * @throws IOException se não for possível criar os ficheiros
+     */
+    public GameDatabaseBuilder(Path directory) throws IOException {
+        this(directory, DEFAULT_RUN_ENTRIES);
+    }
+
+    /**
+     * @param directory pasta da base de dados
+     * @param runEntries número de entradas do índice ordenadas em memória de cada vez
+     * @throws IOException se não for possível criar os ficheiros
+     */
+    public GameDatabaseBuilder(Path directory, int runEntries) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        games = open(directory.resolve(GameDatabase.GAMES_FILE));
+        offsets = open(directory.resolve(GameDatabase.OFFSETS_FILE));
+        writeHeader(offsets, 0);
+
+        hashes = new long[Math.max(1, runEntries)];
+        values = new long[hashes.length];
+        sortHashes = new long[hashes.length];
+        sortValues = new long[hashes.length];
+    }
+
+    private static DataOutputStream open(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+    }
+
+    private static void writeHeader(DataOutputStream out, long count) throws IOException {
+        out.writeInt(GameDatabase.MAGIC);
+        out.writeInt(GameDatabase.VERSION);
+        out.writeLong(count);
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    public long getPositionCount() {
+        return positionCount;
+    }
+
+    /**
+     * Adiciona um jogo com todo o seu histórico de movimentos.
+     * @param game jogo (o tabuleiro fica igual no fim)
+     * @param result resultado em notação PGN ("1-0", "0-1", "1/2-1/2" ou "*")
+     * @return número do jogo na base de dados
+     * @throws IOException se a escrita falhar
+     */
+    public int add(ChessGame game, String result) throws IOException {
+        Board board = game.getBoard();
+        int[] moves = new int[board.getPly()];
+        if (moves.length > MAX_PLIES)
+            throw new IllegalArgumentException("Jogo demasiado longo: " + moves.length + " meios-lances");
+        for (int i = 0; i < moves.length; i++)
+            moves[i] = board.getMove(i);
+
+        int id = gameCount++;
+
+        // Percorre o jogo desde a posição inicial, indexando cada posição atingida
+        for (int i = 0; i < moves.length; i++)
+            board.unmakeMove();
+        boolean white = game.isWhiteToMove() == (moves.length % 2 == 0);
+        byte[] initial = PositionCodec.encode(board, white);
+        addPosition(board, white, id, 0);
+        for (int i = 0; i < moves.length; i++) {
+            board.makeMove(moves[i]);
+            white = !white;
+            addPosition(board, white, id, i + 1);
+        }
+
+        byte[] whiteName = truncate(game.getPlayerWhite());
+        byte[] blackName = truncate(game.getPlayerBlack());
+        offsets.writeLong(gamesSize);
+        games.writeShort(whiteName.length);
+        games.write(whiteName);
+        games.writeShort(blackName.length);
+        games.write(blackName);
+        games.writeByte(resultCode(result));
+        games.write(initial);
+        games.writeShort(moves.length);
+        for (int move : moves)
+            games.writeInt(move);
+        gamesSize += 2 + whiteName.length + 2 + blackName.length + 1 + initial.length + 2 + 4L * moves.length;
+        return id;
+    }
+
+    /**
+     * Adiciona um jogo PGN, validando todos os lances.
+     * @param pgn jogo PGN
+     * @return número do jogo na base de dados
+     * @throws PgnException se o jogo tiver lances ilegais
+     * @throws IOException se a escrita falhar
+     */
+    public int add(PgnGame pgn) throws IOException {
+        return add(pgn.toChessGame(), pgn.getResult());
+    }
+
+    /**
+     * Adiciona todos os jogos válidos de um leitor PGN.
+     * @param reader leitor PGN
+     * @return número de jogos ignorados por terem erros
+     * @throws IOException se a leitura ou a escrita falharem
+     */
+    public long addAll(PgnReader reader) throws IOException {
+        long rejected = 0;
+        while (true) {
+            try {
+                PgnGame pgn = reader.next();
+                if (pgn == null)
+                    return rejected;
+                add(pgn);
+            } catch (PgnException e) {
+                rejected++;
+            }
+        }
+    }
+
+    private static byte[] truncate(String name) {
+        byte[] bytes = (name == null ? "" : name).getBytes(StandardCharsets.UTF_8);
+        return bytes.length > MAX_NAME_BYTES ? Arrays.copyOf(bytes, MAX_NAME_BYTES) : bytes;
+    }
+
+    private static int resultCode(String result) {
+        return switch (result == null ? "" : result) {
+            case PgnGame.RESULT_WHITE_WINS -> GameDatabase.RESULT_WHITE_WINS;
+            case PgnGame.RESULT_BLACK_WINS -> GameDatabase.RESULT_BLACK_WINS;
+            case PgnGame.RESULT_DRAW -> GameDatabase.RESULT_DRAW;
+            default -> GameDatabase.RESULT_UNKNOWN;
+        };
+    }
+
+    private void addPosition(Board board, boolean whiteToMove, int game, int ply) throws IOException {
+        if (runSize == hashes.length)
+            flushRun();
+        hashes[runSize] = board.getHash() ^ (whiteToMove ? 0L : Zobrist.SIDE);
+        values[runSize] = ((long) game << 32) | ply;
+        runSize++;
+        positionCount++;
+    }
+
+    /**
+     * Ordena o bloco atual pelo hash (sem sinal) com um radix sort estável de 4 passagens de 16 bits.
+     */
+    private void sortRun() {
+        int[] counts = new int[(1 << 16) + 1];
+        for (int shift = 0; shift < Long.SIZE; shift += 16) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < runSize; i++)
+                counts[(int) ((hashes[i] >>> shift) & 0xFFFF) + 1]++;
+            for (int i = 1; i < counts.length; i++)
+                counts[i] += counts[i - 1];
+            for (int i = 0; i < runSize; i++) {
+                int target = counts[(int) ((hashes[i] >>> shift) & 0xFFFF)]++;
+                sortHashes[target] = hashes[i];
+                sortValues[target] = values[i];
+            }
+
+            long[] swap = hashes;
+            hashes = sortHashes;
+            sortHashes = swap;
+            swap = values;
+            values = sortValues;
+            sortValues = swap;
+        }
+    }
+
+    private void flushRun() throws IOException {
+        sortRun();
+        Path run = Files.createTempFile(directory, "positions", ".run");
+        runs.add(run);
+        try (DataOutputStream out = open(run)) {
+            for (int i = 0; i < runSize; i++) {
+                out.writeLong(hashes[i]);
+                out.writeLong(values[i]);
+            }
+        }
+        runSize = 0;
+    }
+
+    /**
+     * Bloco ordenado a ser lido durante o merge.
+     */
+    private static final class RunReader implements Closeable {
+        final int order;
+        final DataInputStream in;
+        long remaining;
+        long hash, value;
+
+        RunReader(int order, Path path) throws IOException {
+            this.order = order;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+            this.remaining = Files.size(path) / GameDatabase.ENTRY_SIZE;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0)
+                return false;
+            remaining--;
+            hash = in.readLong();
+            value = in.readLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Termina a base de dados: grava o último bloco, combina os blocos no índice final
+     * e escreve os cabeçalhos.
+     * @throws IOException se a escrita falhar
+     */
+    @Override
+    public void close() throws IOException {
+        games.close();
+        offsets.close();
+        try (FileChannel channel = FileChannel.open(directory.resolve(GameDatabase.OFFSETS_FILE), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, gameCount), 8);
+        }
+
+        if (runSize > 0 || runs.isEmpty())
+            flushRun();
+        hashes = values = sortHashes = sortValues = null;
+
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> {
+            int cmp = Long.compareUnsigned(a.hash, b.hash);
+            return cmp != 0 ? cmp : Integer.compare(a.order, b.order);
+        });
+        try (DataOutputStream out = open(directory.resolve(GameDatabase.POSITIONS_FILE))) {
+            writeHeader(out, positionCount);
+            for (Path run : runs) {
+                RunReader reader = new RunReader(readers.size(), run);
+                readers.add(reader);
+                if (reader.advance())
+                    queue.add(reader);
+            }
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                out.writeLong(reader.hash);
+                out.writeLong(reader.value);
+                if (reader.advance())
+                    queue.add(reader);
+            }
+        } finally {
+            for (RunReader reader : readers)
+                reader.close();
+            for (Path run : runs)
+                Files.deleteIfExists(run);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package pt.isec.pa.chess.model.db;
+
+import pt.isec.pa.chess.model.ChessGame;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Explorador de aberturas: para uma posição, os movimentos jogados e os respetivos resultados,
+ * calculados previamente por {@link OpeningExplorerBuilder}.
+ * <p>
+ * Formato do ficheiro:
+ * <ul>
+ *     <li>cabeçalho de {@value #HEADER_SIZE} bytes (magic, versão, número de slots, de posições
+ *     e de movimentos, meios-lances considerados e número de jogos);</li>
+ *     <li>tabela de hash das posições (endereçamento aberto, fator de carga <= 0.5):
+ *     {@value #SLOT_SIZE} bytes por slot (hash, primeiro movimento, número de movimentos);</li>
+ *     <li>estatísticas dos movimentos, {@value #MOVE_SIZE} bytes cada (movimento, vitórias
+ *     das brancas, empates, vitórias das pretas), agrupadas por posição e ordenadas pelo
+ *     número de jogos.</li>
+ * </ul>
+ * O ficheiro é mapeado em memória e cada consulta faz, em média, menos de duas sondagens
+ * na tabela, independentemente do número de posições. Pode ser usado por várias threads ao mesmo tempo.
+ */
+public final class OpeningExplorer {
+    static final int MAGIC = 0x43484558; // "CHEX"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int SLOT_SIZE = 16;
+    static final int MOVE_SIZE = 16;
+
+    /**
+     * Estatísticas de um movimento numa posição.
+     * @param move movimento codificado
+     * @param whiteWins jogos ganhos pelas brancas
+     * @param draws jogos empatados
+     * @param blackWins jogos ganhos pelas pretas
+     */
+    public record MoveStats(int move, int whiteWins, int draws, int blackWins) {
+        public int games() {
+            return whiteWins + draws + blackWins;
+        }
+
+        public double whitePercent() {
+            return 100.0 * whiteWins / games();
+        }
+
+        public double drawPercent() {
+            return 100.0 * draws / games();
+        }
+
+        public double blackPercent() {
+            return 100.0 * blackWins / games();
+        }
+    }
+
+    private final MappedByteBuffer buffer;
+    private final int slotMask;
+    private final int positionCount;
+    private final int moveCount;
+    private final int maxPly;
+    private final long gameCount;
+    private final int movesStart;
+
+    private OpeningExplorer(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IOException("Ficheiro de aberturas inválido");
+        if (buffer.getInt(4) > VERSION)
+            throw new IOException("Versão não suportada do ficheiro de aberturas: " + buffer.getInt(4));
+
+        int slotCount = buffer.getInt(8);
+        positionCount = buffer.getInt(12);
+        moveCount = buffer.getInt(16);
+        maxPly = buffer.getInt(20);
+        gameCount = buffer.getLong(24);
+        if (slotCount <= 0 || Integer.bitCount(slotCount) != 1 || moveCount < 0
+                || HEADER_SIZE + (long) slotCount * SLOT_SIZE + (long) moveCount * MOVE_SIZE != buffer.capacity())
+            throw new IOException("Ficheiro de aberturas truncado ou corrompido");
+        slotMask = slotCount - 1;
+        movesStart = HEADER_SIZE + slotCount * SLOT_SIZE;
+    }
+
+    /**
+     * Abre um ficheiro criado por {@link OpeningExplorerBuilder}.
+     * @param file ficheiro
+     * @return explorador de aberturas
+     * @throws IOException se o ficheiro não existir ou for inválido
+     */
+    public static OpeningExplorer open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Ficheiro de aberturas demasiado grande");
+            return new OpeningExplorer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Slot inicial de uma posição na tabela (partilhado com o {@link OpeningExplorerBuilder}).
+     */
+    static int slot(long hash, int mask) {
+        return (int) ((hash * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Procura o slot de uma posição.
+     * @return deslocamento do slot no ficheiro, ou -1 se a posição não existir
+     */
+    private int find(long hash) {
+        for (int i = slot(hash, slotMask); ; i = (i + 1) & slotMask) {
+            int offset = HEADER_SIZE + i * SLOT_SIZE;
+            if (buffer.getInt(offset + 12) == 0)
+                return -1;
+            if (buffer.getLong(offset) == hash)
+                return offset;
+        }
+    }
+
+    /**
+     * Número de movimentos conhecidos numa posição.
+     * @param hash hash da posição (ver {@link ChessGame#getPositionHash()})
+     * @return número de movimentos (0 se a posição não existir)
+     */
+    public int getMoveCount(long hash) {
+        int offset = find(hash);
+        return offset < 0 ? 0 : buffer.getInt(offset + 12);
+    }
+
+    /**
+     * Estatísticas dos movimentos jogados numa posição.
+     * @param hash hash da posição (ver {@link ChessGame#getPositionHash()})
+     * @return movimentos, do mais jogado para o menos jogado (vazia se a posição não existir)
+     */
+    public List<MoveStats> lookup(long hash) {
+        int offset = find(hash);
+        if (offset < 0)
+            return List.of();
+
+        int first = buffer.getInt(offset + 8);
+        int count = buffer.getInt(offset + 12);
+        List<MoveStats> stats = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int pos = movesStart + (first + i) * MOVE_SIZE;
+            stats.add(new MoveStats(buffer.getInt(pos), buffer.getInt(pos + 4),
+                    buffer.getInt(pos + 8), buffer.getInt(pos + 12)));
+        }
+        return stats;
+    }
+
+    /**
+     * Estatísticas dos movimentos jogados na posição atual de um jogo.
+     * @param game jogo
+     * @return movimentos, do mais jogado para o menos jogado
+     */
+    public List<MoveStats> lookup(ChessGame game) {
+        return lookup(game.getPositionHash());
+    }
+}
@@ -0,0 +1,301 @@
+package pt.isec.pa.chess.model.db;
+
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Zobrist;
+import pt.isec.pa.chess.model.io.PositionCodec;
+import pt.isec.pa.chess.model.io.pgn.PgnGame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Calcula as estatísticas do {@link OpeningExplorer} a partir de uma {@link GameDatabase},
+ * com um map-reduce numa pool fork-join:
+ * <ul>
+ *     <li>map: cada tarefa percorre um intervalo de jogos e conta, numa tabela própria,
+ *     os resultados de cada par (posição, movimento) até {@code maxPly} meios-lances;</li>
+ *     <li>reduce: as tabelas das subtarefas são somadas duas a duas ao juntar as tarefas.</li>
+ * </ul>
+ * Jogos sem resultado ("*") são ignorados. Os movimentos jogados em menos de {@code minGames}
+ * jogos não são gravados, para manter o ficheiro compacto.
+ */
+public final class OpeningExplorerBuilder {
+    public static final int DEFAULT_MAX_PLY = 30;
+    public static final int DEFAULT_MIN_GAMES = 2;
+
+    /** Número de jogos a partir do qual uma tarefa é dividida em duas. */
+    private static final int GRAIN = 256;
+
+    /**
+     * Totais da construção.
+     * @param games jogos com resultado considerados
+     * @param positions posições gravadas
+     * @param moves movimentos gravados
+     */
+    public record Summary(long games, int positions, int moves) {}
+
+    private final int maxPly;
+    private final int minGames;
+    private final int threads;
+
+    /**
+     * @param maxPly número de meios-lances considerados em cada jogo
+     * @param minGames número mínimo de jogos para um movimento ser gravado
+     * @param threads número de threads da pool
+     */
+    public OpeningExplorerBuilder(int maxPly, int minGames, int threads) {
+        this.maxPly = Math.max(1, maxPly);
+        this.minGames = Math.max(1, minGames);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Calcula as estatísticas de todos os jogos e grava-as no formato do {@link OpeningExplorer}.
+     * @param database base de dados de jogos
+     * @param output ficheiro de destino
+     * @return totais da construção
+     * @throws IOException se a leitura dos jogos ou a escrita falharem
+     */
+    public Summary build(GameDatabase database, Path output) throws IOException {
+        StatsTable stats;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            stats = pool.invoke(new MapTask(database, 0, database.getGameCount()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+        return write(stats, output);
+    }
+
+    /**
+     * Tarefa de map: conta os movimentos de um intervalo de jogos; divide-se se o intervalo for grande.
+     */
+    private final class MapTask extends RecursiveTask<StatsTable> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final GameDatabase database;
+        private final int from, to;
+
+        MapTask(GameDatabase database, int from, int to) {
+            this.database = database;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected StatsTable compute() {
+            if (to - from > GRAIN) {
+                int mid = (from + to) >>> 1;
+                MapTask left = new MapTask(database, from, mid);
+                left.fork();
+                StatsTable right = new MapTask(database, mid, to).compute();
+                return left.join().merge(right);
+            }
+
+            StatsTable stats = new StatsTable(1024);
+            Board board = new Board();
+            try {
+                for (int id = from; id < to; id++) {
+                    GameDatabase.GameData game = database.readGame(id);
+                    int result = switch (game.info().result()) {
+                        case PgnGame.RESULT_WHITE_WINS -> StatsTable.WHITE;
+                        case PgnGame.RESULT_BLACK_WINS -> StatsTable.BLACK;
+                        case PgnGame.RESULT_DRAW -> StatsTable.DRAW;
+                        default -> -1;
+                    };
+                    if (result < 0)
+                        continue;
+
+                    stats.games++;
+                    boolean white = PositionCodec.decode(game.initialPosition(), board);
+                    int plies = Math.min(maxPly, game.moves().length);
+                    for (int ply = 0; ply < plies; ply++) {
+                        int move = game.moves()[ply];
+                        stats.add(board.getHash() ^ (white ? 0L : Zobrist.SIDE), move, result);
+                        board.makeMove(move);
+                        white = !white;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Tabela de hash (endereçamento aberto, arrays primitivos) com os resultados
+     * de cada par (posição, movimento).
+     */
+    private static final class StatsTable {
+        static final int WHITE = 0, DRAW = 1, BLACK = 2;
+
+        long games;
+        int size;
+        long[] positions;
+        int[] moves;
+        int[][] counts;
+
+        StatsTable(int capacity) {
+            positions = new long[capacity];
+            moves = new int[capacity];
+            counts = new int[3][capacity];
+        }
+
+        private static int slot(long position, int move, int mask) {
+            long h = (position ^ (move * 0x9E3779B97F4A7C15L)) * 0xBF58476D1CE4E5B9L;
+            return (int) (h >>> 32) & mask;
+        }
+
+        void add(long position, int move, int result) {
+            int i = index(position, move); // pode aumentar a tabela
+            counts[result][i]++;
+        }
+
+        /**
+         * Posição do par (posição, movimento) na tabela; é inserido se não existir.
+         */
+        private int index(long position, int move) {
+            if (2 * (size + 1) > moves.length)
+                grow();
+            int mask = moves.length - 1;
+            int i = slot(position, move, mask);
+            while (moves[i] != 0 && (moves[i] != move || positions[i] != position))
+                i = (i + 1) & mask;
+            if (moves[i] == 0) {
+                moves[i] = move;
+                positions[i] = position;
+                size++;
+            }
+            return i;
+        }
+
+        private void addAll(StatsTable source) {
+            for (int i = 0; i < source.moves.length; i++) {
+                if (source.moves[i] == 0)
+                    continue;
+                int target = index(source.positions[i], source.moves[i]);
+                for (int r = 0; r < counts.length; r++)
+                    counts[r][target] += source.counts[r][i];
+            }
+        }
+
+        private void grow() {
+            StatsTable old = new StatsTable(0);
+            old.positions = positions;
+            old.moves = moves;
+            old.counts = counts;
+            positions = new long[moves.length * 2];
+            moves = new int[positions.length];
+            counts = new int[3][positions.length];
+            size = 0;
+            addAll(old);
+        }
+
+        /**
+         * Reduce: soma duas tabelas (a maior recebe a menor).
+         */
+        StatsTable merge(StatsTable other) {
+            StatsTable target = size >= other.size ? this : other;
+            StatsTable source = target == this ? other : this;
+            target.addAll(source);
+            target.games += source.games;
+            return target;
+        }
+
+        int total(int i) {
+            return counts[WHITE][i] + counts[DRAW][i] + counts[BLACK][i];
+        }
+    }
+
+    private Summary write(StatsTable stats, Path output) throws IOException {
+        // Entradas com jogos suficientes, agrupadas por posição e pelo número de jogos (decrescente)
+        int kept = 0;
+        for (int i = 0; i < stats.moves.length; i++)
+            if (stats.moves[i] != 0 && stats.total(i) >= minGames)
+                kept++;
+        // Numera as posições distintas pela ordem do hash
+        long[] positions = new long[kept];
+        kept = 0;
+        for (int i = 0; i < stats.moves.length; i++)
+            if (stats.moves[i] != 0 && stats.total(i) >= minGames)
+                positions[kept++] = stats.positions[i];
+        Arrays.sort(positions);
+        int positionCount = 0;
+        for (int i = 0; i < kept; i++)
+            if (i == 0 || positions[i] != positions[positionCount - 1])
+                positions[positionCount++] = positions[i];
+
+        // Ordena os índices pelo número da posição, com ambos empacotados num long (sem objetos)
+        long[] packed = new long[kept];
+        kept = 0;
+        for (int i = 0; i < stats.moves.length; i++)
+            if (stats.moves[i] != 0 && stats.total(i) >= minGames)
+                packed[kept++] = (long) Arrays.binarySearch(positions, 0, positionCount, stats.positions[i]) << 32 | i;
+        Arrays.sort(packed);
+        int[] order = new int[kept];
+        for (int i = 0; i < kept; i++)
+            order[i] = (int) packed[i];
+
+        // Dentro de cada posição (poucos movimentos), por número de jogos decrescente
+        for (int i = 1; i < order.length; i++) {
+            int entry = order[i];
+            int j = i;
+            for (; j > 0 && stats.positions[order[j - 1]] == stats.positions[entry]
+                    && stats.total(order[j - 1]) < stats.total(entry); j--)
+                order[j] = order[j - 1];
+            order[j] = entry;
+        }
+
+        // Tabela de posições com fator de carga <= 0.5: cada consulta faz em média ~1.5 sondagens
+        int slotCount = Integer.highestOneBit(Math.max(1, positionCount) * 2 - 1) << 1;
+        long[] slotHashes = new long[slotCount];
+        int[] slotFirst = new int[slotCount];
+        int[] slotMoves = new int[slotCount];
+        for (int i = 0; i < order.length; ) {
+            long position = stats.positions[order[i]];
+            int first = i;
+            while (i < order.length && stats.positions[order[i]] == position)
+                i++;
+            int slot = OpeningExplorer.slot(position, slotCount - 1);
+            while (slotMoves[slot] != 0)
+                slot = (slot + 1) & (slotCount - 1);
+            slotHashes[slot] = position;
+            slotFirst[slot] = first;
+            slotMoves[slot] = i - first;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output), 64 * 1024))) {
+            out.writeInt(OpeningExplorer.MAGIC);
+            out.writeInt(OpeningExplorer.VERSION);
+            out.writeInt(slotCount);
+            out.writeInt(positionCount);
+            out.writeInt(order.length);
+            out.writeInt(maxPly);
+            out.writeLong(stats.games);
+            for (int s = 0; s < slotCount; s++) {
+                out.writeLong(slotHashes[s]);
+                out.writeInt(slotFirst[s]);
+                out.writeInt(slotMoves[s]);
+            }
+            for (int i : order) {
+                out.writeInt(stats.moves[i]);
+                out.writeInt(stats.counts[StatsTable.WHITE][i]);
+                out.writeInt(stats.counts[StatsTable.DRAW][i]);
+                out.writeInt(stats.counts[StatsTable.BLACK][i]);
+            }
+        }
+        return new Summary(stats.games, positionCount, order.length);
+    }
+}
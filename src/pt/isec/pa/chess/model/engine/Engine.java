@@ -0,0 +1,163 @@
+package pt.isec.pa.chess.model.engine;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Motor de xadrez: escolhe um movimento para a posição de um jogo ou tabuleiro.
+ * <p>
+ * Cada pesquisa é feita sobre uma cópia do tabuleiro (com os movimentos desde o último
+ * movimento irreversível, para detetar repetições), feita com {@link Board#copyWithHistory()}
+ * no início da pesquisa; o tabuleiro original só é lido nesse momento e nunca é alterado.
+ * A pesquisa em curso pode ser parada de outra thread com {@link #stop()}.
+ * A tabela de transposição é mantida entre pesquisas, por isso pesquisar posições seguidas
+ * de um jogo reaproveita o trabalho anterior.
+ * <p>
+ * Com mais de uma thread é usado Lazy SMP: a thread que chama pesquisa como de costume
+ * e as auxiliares pesquisam a mesma raiz, cada uma sobre a sua cópia do tabuleiro, partilhando
+ * a tabela de transposição. Os resultados que as auxiliares lá deixam cortam a árvore das outras.
+ * Quando a pesquisa principal acaba (profundidade, nós ou tempo) todas param, e o resultado
+ * é o da iteração completa mais funda entre todas as threads.
+ */
+public final class Engine {
+    public static final int DEFAULT_HASH_MB = 16;
+
+    private TranspositionTable table = new TranspositionTable(DEFAULT_HASH_MB);
+    private int threads = 1;
+    private volatile AtomicBoolean stopSignal;
+
+    /**
+     * Define o número de threads da pesquisa.
+     * @param threads número de threads (1 = pesquisa sequencial)
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Muda o tamanho da tabela de transposição (as entradas atuais perdem-se).
+     * @param megabytes tamanho em MB
+     */
+    public void setHashSize(int megabytes) {
+        table = new TranspositionTable(megabytes);
+    }
+
+    /**
+     * Apaga a tabela de transposição (por exemplo, ao começar um jogo novo).
+     */
+    public void clearHash() {
+        table.clear();
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Pesquisa a posição atual de um jogo.
+     * @param game jogo
+     * @param limits limites da pesquisa
+     * @return resultado da pesquisa
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game.getBoard(), game.isWhiteToMove(), limits, null);
+    }
+
+    /**
+     * Pesquisa uma posição.
+     * @param board tabuleiro (só é lido no início e não é alterado)
+     * @param whiteToMove lado a jogar
+     * @param limits limites da pesquisa
+     * @param listener recebe o resultado de cada iteração completa (pode ser null)
+     * @return resultado da pesquisa
+     */
+    public SearchResult search(Board board, boolean whiteToMove, SearchLimits limits, Consumer<SearchResult> listener) {
+        long start = System.nanoTime();
+        table.newSearch();
+        AtomicBoolean signal = new AtomicBoolean();
+        stopSignal = signal;
+
+        // Uma só leitura do tabuleiro de quem chama; cada thread pesquisa uma cópia dessa cópia
+        Board root = board.copyWithHistory();
+        List<Search> searches = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++)
+            searches.add(new Search(i == 0 ? root : root.copyWithHistory(), whiteToMove, table, signal, i));
+        if (threads == 1) {
+            try {
+                return searches.get(0).search(limits, listener);
+            } finally {
+                stopSignal = null;
+            }
+        }
+
+        // As auxiliares só param com o sinal: os limites de nós e tempo são os da pesquisa principal
+        SearchLimits helperLimits = new SearchLimits(limits.depth(), 0, 0);
+        ForkJoinPool pool = new ForkJoinPool(threads - 1);
+        try {
+            List<Future<SearchResult>> helpers = new ArrayList<>(threads - 1);
+            for (Search helper : searches.subList(1, threads))
+                helpers.add(pool.submit(() -> helper.search(helperLimits, null)));
+
+            // A principal completa sempre a primeira iteração, por isso tem sempre resultado
+            SearchResult best = searches.get(0).search(limits, listener);
+            signal.set(true);
+            for (Future<SearchResult> helper : helpers) {
+                // Só contam iterações completas: uma auxiliar parada antes de completar a primeira devolve null
+                SearchResult result = join(helper);
+                if (result != null && result.depth() > best.depth())
+                    best = result;
+            }
+            return merge(best, searches, System.nanoTime() - start);
+        } finally {
+            signal.set(true);
+            pool.shutdown();
+            stopSignal = null;
+        }
+    }
+
+    private static SearchResult join(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha numa thread da pesquisa", e.getCause());
+        }
+    }
+
+    /**
+     * Resultado escolhido, com os nós e as estatísticas da tabela somados de todas as threads.
+     */
+    private SearchResult merge(SearchResult best, List<Search> searches, long nanos) {
+        long nodes = 0, probes = 0, hits = 0;
+        for (Search search : searches) {
+            nodes += search.getNodes();
+            probes += search.getHashProbes();
+            hits += search.getHashHits();
+        }
+        return new SearchResult(best.bestMove(), best.score(), best.depth(), nodes, nanos, best.pv(),
+                probes, hits, table.getFillPermille());
+    }
+
+    /**
+     * Para a pesquisa em curso, se existir; a pesquisa devolve o resultado da última iteração completa.
+     */
+    public void stop() {
+        AtomicBoolean signal = stopSignal;
+        if (signal != null)
+            signal.set(true);
+    }
+}
@@ -0,0 +1,127 @@
+package pt.isec.pa.chess.model.engine;
+
+import pt.isec.pa.chess.model.data.board.Bitboard;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+/**
+ * Avaliação estática de uma posição: material e tabelas de casas por peça
+ * (valores da "Simplified Evaluation Function"), com a tabela do rei interpolada
+ * entre o meio-jogo e o final de acordo com o material que resta.
+ * Não aloca e não altera o tabuleiro.
+ */
+public final class Evaluator {
+    private Evaluator() {}
+
+    /**
+     * Valor de cada tipo de peça em centipeões, indexado por {@link PieceType#ordinal()}.
+     */
+    public static final int[] VALUES = {20000, 900, 500, 330, 320, 100};
+
+    /** Fase de jogo de cada tipo de peça (24 com todas as peças em jogo). */
+    private static final int[] PHASE = {0, 4, 2, 1, 1, 0};
+    private static final int MAX_PHASE = 24;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    // Tabelas do ponto de vista das brancas, com a casa 0 em a8 (como o tabuleiro)
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20};
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+    private static final int[] QUEEN = {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20};
+    private static final int[] ROOK = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0};
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20};
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50};
+    private static final int[] PAWN = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0};
+
+    /** Tabelas por tipo de peça (índice {@link PieceType#ordinal()}); o rei usa as duas tabelas próprias. */
+    private static final int[][] TABLES = {null, QUEEN, ROOK, BISHOP, KNIGHT, PAWN};
+
+    /**
+     * Avalia a posição do ponto de vista do lado a jogar.
+     * @param board tabuleiro
+     * @param whiteToMove true se forem as brancas a jogar
+     * @return avaliação em centipeões (positiva se o lado a jogar estiver melhor)
+     */
+    public static int evaluate(Board board, boolean whiteToMove) {
+        int score = 0;
+        int phase = 0;
+        for (int t = 1; t < TYPES.length; t++) {
+            int[] table = TABLES[t];
+            for (long pieces = board.getPieceBitboard(TYPES[t], true); pieces != 0; pieces &= pieces - 1) {
+                score += VALUES[t] + table[Bitboard.lsb(pieces)];
+                phase += PHASE[t];
+            }
+            // As pretas usam a tabela espelhada verticalmente
+            for (long pieces = board.getPieceBitboard(TYPES[t], false); pieces != 0; pieces &= pieces - 1) {
+                score -= VALUES[t] + table[Bitboard.lsb(pieces) ^ 56];
+                phase += PHASE[t];
+            }
+        }
+
+        phase = Math.min(phase, MAX_PHASE);
+        int whiteKing = board.getKingSquare(true);
+        int blackKing = board.getKingSquare(false);
+        if (whiteKing >= 0)
+            score += (KING_MIDDLEGAME[whiteKing] * phase + KING_ENDGAME[whiteKing] * (MAX_PHASE - phase)) / MAX_PHASE;
+        if (blackKing >= 0)
+            score -= (KING_MIDDLEGAME[blackKing ^ 56] * phase + KING_ENDGAME[blackKing ^ 56] * (MAX_PHASE - phase)) / MAX_PHASE;
+
+        return whiteToMove ? score : -score;
+    }
+}
@@ -0,0 +1,166 @@
+package pt.isec.pa.chess.model.engine;
+
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveList;
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+import java.util.Arrays;
+
+/**
+ * Ordenação de movimentos para a pesquisa: atribui a cada movimento de uma {@link MoveList}
+ * uma pontuação, e a lista é depois percorrida com {@link MoveList#pickBest(int)}.
+ * <p>
+ * Ordem: o movimento da tabela de transposição (ou da variante principal), as promoções a dama
+ * e as capturas que não perdem material (por MVV-LVA: vítima mais valiosa primeiro, e, para a mesma
+ * vítima, o atacante menos valioso), os dois movimentos assassinos do meio-lance, os restantes
+ * movimentos calmos pela tabela de histórico, e por fim as capturas que perdem material
+ * segundo a {@link StaticExchange SEE} e as sub-promoções.
+ * <p>
+ * Os movimentos assassinos são movimentos calmos que provocaram um corte noutro nó do mesmo
+ * meio-lance. A tabela de histórico ("butterfly", por cor, origem e destino) acumula um bónus
+ * para os movimentos calmos que provocam cortes e uma penalização para os que foram tentados
+ * antes deles sem sucesso.
+ * <p>
+ * Tem estado próprio (assassinos, histórico, buffer da SEE), por isso cada pesquisa paralela
+ * deve ter a sua instância. Não aloca durante a pesquisa.
+ */
+public final class MoveOrderer {
+    private static final int FIRST_SCORE = 1 << 30;
+    private static final int GOOD_CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int BAD_CAPTURE_SCORE = -(1 << 28);
+    private static final int UNDERPROMOTION_SCORE = -(1 << 29);
+    /** Limite dos valores do histórico, que ficam sempre abaixo dos assassinos. */
+    private static final int HISTORY_MAX = 1 << 16;
+
+    /** Ordem de valor de cada tipo de peça para o MVV-LVA, indexada por {@link PieceType#ordinal()}. */
+    private static final int[] RANK = {6, 5, 4, 3, 3, 1};
+
+    private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+    private final int[] history = new int[2 * 64 * 64];
+    private final StaticExchange see = new StaticExchange();
+
+    /**
+     * Prepara uma nova pesquisa: apaga os assassinos e reduz o histórico para metade,
+     * para que os dados da pesquisa anterior continuem a ajudar sem se sobreporem aos novos.
+     */
+    public void newSearch() {
+        for (int[] ply : killers)
+            Arrays.fill(ply, Move.NONE);
+        for (int i = 0; i < history.length; i++)
+            history[i] /= 2;
+    }
+
+    /**
+     * Apaga todo o estado (por exemplo, ao começar um jogo novo).
+     */
+    public void clear() {
+        for (int[] ply : killers)
+            Arrays.fill(ply, Move.NONE);
+        Arrays.fill(history, 0);
+    }
+
+    /**
+     * Pontua os movimentos de uma lista.
+     * @param board tabuleiro da posição
+     * @param moves movimentos legais da posição
+     * @param white lado a jogar
+     * @param ply meio-lance do nó (para os assassinos)
+     * @param first movimento a tentar primeiro (da tabela de transposição ou da variante principal),
+     *              ou {@link Move#NONE}
+     */
+    public void score(Board board, MoveList moves, boolean white, int ply, int first) {
+        int killer1 = killers[ply][0];
+        int killer2 = killers[ply][1];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score;
+            if (move == first)
+                score = FIRST_SCORE;
+            else if (Move.isCapture(move) || Move.isPromotion(move))
+                score = scoreTactical(board, move);
+            else if (move == killer1)
+                score = KILLER_SCORE;
+            else if (move == killer2)
+                score = KILLER_SCORE - 1;
+            else
+                score = history[historyIndex(white, move)];
+            moves.setScore(i, score);
+        }
+    }
+
+    private int scoreTactical(Board board, int move) {
+        PieceType promotion = Move.promotion(move);
+        if (promotion != null && promotion != PieceType.QUEEN)
+            return UNDERPROMOTION_SCORE;
+
+        int attacker = board.getPiece(Move.from(move)).getType().ordinal();
+        int victim = Move.isEnPassant(move) ? PieceType.PAWN.ordinal()
+                : board.getPiece(Move.to(move)) != null ? board.getPiece(Move.to(move)).getType().ordinal() : -1;
+        int mvvLva = (victim >= 0 ? 8 * RANK[victim] : 0) - RANK[attacker];
+        if (promotion != null)
+            return GOOD_CAPTURE_SCORE + 64 + mvvLva;
+
+        // Capturar uma peça de valor igual ou maior nunca perde material; só as outras precisam da SEE
+        if (Evaluator.VALUES[victim] >= Evaluator.VALUES[attacker] || see.evaluate(board, move) >= 0)
+            return GOOD_CAPTURE_SCORE + mvvLva;
+        return BAD_CAPTURE_SCORE + mvvLva;
+    }
+
+    /**
+     * Indica se uma pontuação dada por {@link #score} é de uma captura que perde material
+     * segundo a SEE ou de uma sub-promoção (usado para as ignorar na pesquisa de quiescência).
+     * @param score pontuação do movimento
+     * @return true se o movimento perde material
+     */
+    public static boolean isLosing(int score) {
+        return score < BAD_CAPTURE_SCORE / 2;
+    }
+
+    /**
+     * Regista um corte beta provocado por um movimento.
+     * @param moves movimentos do nó, na ordem em que foram pesquisados
+     * @param index índice do movimento que provocou o corte (os anteriores falharam)
+     * @param white lado a jogar
+     * @param ply meio-lance do nó
+     * @param depth profundidade restante (cortes mais fundos pesam mais no histórico)
+     */
+    public void onCutoff(MoveList moves, int index, boolean white, int ply, int depth) {
+        int move = moves.get(index);
+        if (Move.isCapture(move) || Move.isPromotion(move))
+            return;
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int bonus = Math.min(depth * depth, 400);
+        updateHistory(historyIndex(white, move), bonus);
+        for (int i = 0; i < index; i++) {
+            int tried = moves.get(i);
+            if (!Move.isCapture(tried) && !Move.isPromotion(tried))
+                updateHistory(historyIndex(white, tried), -bonus);
+        }
+    }
+
+    /**
+     * Valor do histórico de um movimento calmo.
+     * @param white lado que joga o movimento
+     * @param move movimento
+     * @return valor entre -{@value #HISTORY_MAX} e {@value #HISTORY_MAX}
+     */
+    public int getHistory(boolean white, int move) {
+        return history[historyIndex(white, move)];
+    }
+
+    private void updateHistory(int index, int bonus) {
+        // Aproxima o valor do limite à medida que cresce, para que nunca o ultrapasse
+        history[index] += bonus - history[index] * Math.abs(bonus) / HISTORY_MAX;
+    }
+
+    private static int historyIndex(boolean white, int move) {
+        return (white ? 0 : 64 * 64) + Move.from(move) * 64 + Move.to(move);
+    }
+}
@@ -0,0 +1,342 @@
+package pt.isec.pa.chess.model.engine;
+
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
+import pt.isec.pa.chess.model.data.board.Zobrist;
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Pesquisa alfa-beta (negamax) com aprofundamento iterativo sobre um tabuleiro próprio.
+ * <p>
+ * Cada iteração pesquisa a profundidade seguinte começando pela variante principal da
+ * anterior, e a variante principal é mantida numa tabela triangular. As posições já
+ * pesquisadas ficam numa {@link TranspositionTable}, que dá cortes imediatos quando a
+ * profundidade guardada chega e, nos restantes casos, o melhor movimento para tentar primeiro.
+ * Os outros movimentos são ordenados por um {@link MoveOrderer} (capturas por MVV-LVA e SEE,
+ * movimentos assassinos e histórico).
+ * <p>
+ * Nas folhas, em vez da avaliação estática, é feita uma pesquisa de quiescência só com capturas
+ * e promoções, até a posição ficar calma, para que a avaliação não dependa de uma troca a meio
+ * (efeito de horizonte). O lado a jogar pode sempre ficar com a avaliação estática
+ * ("stand pat") em vez de capturar; as capturas que perdem material segundo a
+ * {@link StaticExchange SEE}, e as que nem ganhando a peça capturada chegariam a alfa
+ * ("delta pruning"), não são pesquisadas. Em xeque são pesquisadas todas as respostas.
+ * <p>
+ * A pesquisa para quando atinge a profundidade, o número de nós ou o tempo dos {@link SearchLimits},
+ * ou quando é chamado {@link #stop()}; nesse caso fica o resultado da última iteração completa.
+ * A primeira iteração da pesquisa principal é sempre completada (é muito rápida), para que
+ * haja sempre um resultado com uma avaliação verdadeira, e nunca a de uma iteração interrompida.
+ * <p>
+ * Durante a pesquisa não são criados objetos: as listas de movimentos de cada
+ * meio-lance e a tabela da variante principal são alocadas uma vez.
+ * <p>
+ * Várias pesquisas podem correr em paralelo sobre a mesma posição (Lazy SMP, ver {@link Engine}):
+ * cada uma tem o seu tabuleiro, partilham a tabela de transposição e o sinal de paragem,
+ * e as auxiliares de índice ímpar pesquisam um meio-lance mais fundo em cada iteração,
+ * para que as threads não façam exatamente o mesmo trabalho.
+ */
+public final class Search {
+    public static final int MAX_PLY = 128;
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+
+    /** Margem da "delta pruning": ganho posicional máximo que se espera de uma captura. */
+    private static final int DELTA_MARGIN = 200;
+
+    /** Intervalo, em nós, entre verificações do tempo (potência de 2 menos 1). */
+    private static final int CHECK_MASK = 1023;
+
+    private final Board board;
+    private final boolean whiteToMove;
+    private final TranspositionTable table;
+    private final MoveOrderer orderer = new MoveOrderer();
+    private final AtomicBoolean stopSignal;
+    private final int helperIndex;
+    private final MoveList[] moveLists;
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private int[] previousPv = new int[0];
+
+    private boolean stopped;
+    /** A iteração em curso ignora os limites e o sinal de paragem (primeira iteração da principal). */
+    private boolean mustComplete;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private long hashProbes;
+    private long hashHits;
+
+    /**
+     * @param board tabuleiro da pesquisa (passa a pertencer à pesquisa, não deve ser alterado por fora)
+     * @param whiteToMove lado a jogar
+     * @param table tabela de transposição (pode ser partilhada com outras pesquisas)
+     */
+    public Search(Board board, boolean whiteToMove, TranspositionTable table) {
+        this(board, whiteToMove, table, new AtomicBoolean(), 0);
+    }
+
+    /**
+     * @param board tabuleiro da pesquisa (passa a pertencer à pesquisa, não deve ser alterado por fora)
+     * @param whiteToMove lado a jogar
+     * @param table tabela de transposição partilhada
+     * @param stopSignal sinal de paragem partilhado pelas pesquisas paralelas
+     * @param helperIndex 0 na pesquisa principal, 1.. nas auxiliares
+     */
+    Search(Board board, boolean whiteToMove, TranspositionTable table, AtomicBoolean stopSignal, int helperIndex) {
+        this.board = board;
+        this.whiteToMove = whiteToMove;
+        this.table = table;
+        this.stopSignal = stopSignal;
+        this.helperIndex = helperIndex;
+        this.moveLists = new MoveList[MAX_PLY + 1];
+        for (int i = 0; i < moveLists.length; i++)
+            moveLists[i] = new MoveList();
+    }
+
+    /**
+     * Pede à pesquisa que pare assim que possível (pode ser chamado de outra thread).
+     */
+    public void stop() {
+        stopSignal.set(true);
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    long getHashProbes() {
+        return hashProbes;
+    }
+
+    long getHashHits() {
+        return hashHits;
+    }
+
+    /**
+     * Pesquisa a posição com aprofundamento iterativo.
+     * @param limits limites da pesquisa
+     * @param listener recebe o resultado de cada iteração completa (pode ser null)
+     * @return resultado da última iteração completa, ou null numa pesquisa auxiliar
+     *         parada antes de completar uma iteração
+     */
+    public SearchResult search(SearchLimits limits, Consumer<SearchResult> listener) {
+        long start = System.nanoTime();
+        stopped = false;
+        nodes = 0;
+        hashProbes = 0;
+        hashHits = 0;
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        deadline = limits.timeMillis() > 0 ? start + limits.timeMillis() * 1_000_000L : Long.MAX_VALUE;
+        previousPv = new int[0];
+        orderer.newSearch();
+
+        MoveList rootMoves = moveLists[0];
+        rootMoves.clear();
+        MoveGenerator.generateLegalMoves(board, whiteToMove, rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = board.isCheck(PieceType.KING, whiteToMove) ? -MATE : 0;
+            return new SearchResult(Move.NONE, score, 0, 0, System.nanoTime() - start, new int[0], 0, 0, 0);
+        }
+        int fallback = rootMoves.get(0);
+
+        SearchResult result = null;
+        for (int iteration = 1; iteration <= limits.depth(); iteration++) {
+            int depth = Math.min(iteration + (helperIndex & 1), limits.depth());
+            mustComplete = helperIndex == 0 && result == null;
+            int score = negamax(depth, -INFINITY, INFINITY, 0, whiteToMove);
+            mustComplete = false;
+            if (stopped)
+                break; // iteração incompleta: a avaliação e a variante não valem
+
+            int[] line = Arrays.copyOf(pv[0], pvLength[0]);
+            if (line.length == 0)
+                line = new int[] {fallback};
+            long elapsed = System.nanoTime() - start;
+            result = new SearchResult(line[0], score, depth, nodes, elapsed, line,
+                    hashProbes, hashHits, table.getFillPermille());
+            previousPv = line;
+            if (listener != null)
+                listener.accept(result);
+
+            if (depth == limits.depth())
+                break;
+            // Um mate encontrado não muda com mais profundidade
+            if (result.isMate() && MATE - Math.abs(score) <= depth)
+                break;
+            // Se já passou metade do tempo, a iteração seguinte não deve terminar a tempo
+            if (limits.timeMillis() > 0 && elapsed > limits.timeMillis() * 500_000L)
+                break;
+        }
+        return result;
+    }
+
+    private void checkLimits() {
+        if (mustComplete)
+            return;
+        if (stopSignal.get()) {
+            stopped = true;
+        } else if (nodes >= nodeLimit || ((nodes & CHECK_MASK) == 0 && System.nanoTime() >= deadline)) {
+            // Os limites param todas as pesquisas paralelas
+            stopped = true;
+            stopSignal.set(true);
+        }
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply, boolean white) {
+        pvLength[ply] = ply;
+        if (ply > 0 && (board.getHalfmoveClock() >= 100 || board.getRepetitionCount() > 0))
+            return 0;
+        if (depth <= 0)
+            return quiescence(alpha, beta, ply, white);
+
+        nodes++;
+        checkLimits();
+        if (stopped)
+            return 0;
+        if (ply >= MAX_PLY)
+            return Evaluator.evaluate(board, white);
+
+        long key = board.getHash() ^ (white ? 0L : Zobrist.SIDE);
+        hashProbes++;
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashHits++;
+            hashMove = TranspositionTable.move(entry);
+            // Na raiz não se corta, para haver sempre um movimento e uma variante principal
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.fromStored(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha))
+                    return score;
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.generateLegalMoves(board, white, moves);
+        if (moves.isEmpty())
+            return board.isCheck(PieceType.KING, white) ? -MATE + ply : 0;
+        int first = hashMove != Move.NONE ? hashMove : ply < previousPv.length ? previousPv[ply] : Move.NONE;
+        orderer.score(board, moves, white, ply, first);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.pickBest(i);
+            board.makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1, !white);
+            board.unmakeMove();
+            if (stopped)
+                return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                }
+                if (score >= beta) {
+                    orderer.onCutoff(moves, i, white, ply, depth);
+                    break;
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.BOUND_LOWER
+                : best > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(key, bound == TranspositionTable.BOUND_UPPER ? Move.NONE : bestMove,
+                TranspositionTable.toStored(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Pesquisa só capturas e promoções (ou todas as respostas, em xeque) até a posição ficar calma.
+     */
+    private int quiescence(int alpha, int beta, int ply, boolean white) {
+        pvLength[ply] = ply;
+        nodes++;
+        checkLimits();
+        if (stopped)
+            return 0;
+        if (ply >= MAX_PLY)
+            return Evaluator.evaluate(board, white);
+
+        int kingSquare = board.getKingSquare(white);
+        boolean inCheck = kingSquare >= 0 && board.isSquareAttacked(kingSquare, !white);
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        int best;
+        if (inCheck) {
+            MoveGenerator.generateLegalMoves(board, white, moves);
+            if (moves.isEmpty())
+                return -MATE + ply;
+            best = -INFINITY;
+        } else {
+            best = Evaluator.evaluate(board, white);
+            if (best >= beta)
+                return best;
+            alpha = Math.max(alpha, best);
+            MoveGenerator.generateLegalCaptures(board, white, moves);
+        }
+        orderer.score(board, moves, white, ply, Move.NONE);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.pickBest(i);
+            if (!inCheck) {
+                // A lista está ordenada: daqui para a frente só há capturas que perdem material
+                if (MoveOrderer.isLosing(moves.getScore(i)))
+                    break;
+                if (best + captureGain(move) + DELTA_MARGIN <= alpha)
+                    continue;
+            }
+
+            board.makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1, !white);
+            board.unmakeMove();
+            if (stopped)
+                return 0;
+
+            if (score > best) {
+                best = score;
+                if (score > alpha)
+                    alpha = score;
+                if (score >= beta)
+                    break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Material ganho diretamente por um movimento (peça capturada e promoção).
+     */
+    private int captureGain(int move) {
+        int gain = 0;
+        if (Move.isEnPassant(move))
+            gain = Evaluator.VALUES[PieceType.PAWN.ordinal()];
+        else if (Move.isCapture(move))
+            gain = Evaluator.VALUES[board.getPiece(Move.to(move)).getType().ordinal()];
+        PieceType promotion = Move.promotion(move);
+        if (promotion != null)
+            gain += Evaluator.VALUES[promotion.ordinal()] - Evaluator.VALUES[PieceType.PAWN.ordinal()];
+        return gain;
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+}
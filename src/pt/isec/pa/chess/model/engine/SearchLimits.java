@@ -0,0 +1,50 @@
+package pt.isec.pa.chess.model.engine;
+
+/**
+ * Limites de uma pesquisa. A pesquisa para quando qualquer um dos limites é atingido.
+ * @param depth profundidade máxima em meios-lances
+ * @param nodes número máximo de nós (0 = sem limite)
+ * @param timeMillis tempo máximo em milissegundos (0 = sem limite)
+ */
+public record SearchLimits(int depth, long nodes, long timeMillis) {
+    public SearchLimits {
+        depth = Math.max(1, Math.min(depth, Search.MAX_PLY - 1));
+        nodes = Math.max(0, nodes);
+        timeMillis = Math.max(0, timeMillis);
+    }
+
+    /**
+     * Pesquisa até uma profundidade fixa.
+     * @param depth profundidade em meios-lances
+     * @return limites
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    /**
+     * Pesquisa durante um tempo máximo.
+     * @param millis tempo em milissegundos
+     * @return limites
+     */
+    public static SearchLimits time(long millis) {
+        return new SearchLimits(Search.MAX_PLY - 1, 0, millis);
+    }
+
+    /**
+     * Pesquisa até um número máximo de nós.
+     * @param nodes número de nós
+     * @return limites
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(Search.MAX_PLY - 1, nodes, 0);
+    }
+
+    /**
+     * Pesquisa sem limites, até ser parada com {@link Engine#stop()}.
+     * @return limites
+     */
+    public static SearchLimits infinite() {
+        return new SearchLimits(Search.MAX_PLY - 1, 0, 0);
+    }
+}
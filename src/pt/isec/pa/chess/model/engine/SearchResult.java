@@ -0,0 +1,63 @@
+package pt.isec.pa.chess.model.engine;
+
+import pt.isec.pa.chess.model.data.board.Move;
+
+/**
+ * Resultado de uma pesquisa (ou de uma iteração do aprofundamento iterativo).
+ * @param bestMove melhor movimento encontrado ({@link Move#NONE} se não houver movimentos legais)
+ * @param score avaliação em centipeões, do ponto de vista do lado a jogar
+ * @param depth profundidade completada
+ * @param nodes nós visitados
+ * @param nanos tempo decorrido
+ * @param pv variante principal (sequência de movimentos esperada)
+ * @param hashProbes consultas à tabela de transposição
+ * @param hashHits consultas que encontraram a posição
+ * @param hashFull ocupação da tabela de transposição, em permilagem
+ */
+public record SearchResult(int bestMove, int score, int depth, long nodes, long nanos, int[] pv,
+                           long hashProbes, long hashHits, int hashFull) {
+    /**
+     * Nós por segundo.
+     * @return velocidade da pesquisa
+     */
+    public long nps() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    /**
+     * Fração das consultas à tabela de transposição que encontraram a posição.
+     * @return taxa de acerto entre 0 e 1
+     */
+    public double hashHitRate() {
+        return hashProbes == 0 ? 0 : (double) hashHits / hashProbes;
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * Número de lances até ao mate (positivo se o lado a jogar dá mate).
+     * @return lances até ao mate, ou 0 se a avaliação não for de mate
+     */
+    public int mateIn() {
+        if (!isMate())
+            return 0;
+        int plies = Search.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+    }
+
+    /**
+     * Variante principal em notação de coordenadas.
+     * @return movimentos separados por espaços
+     */
+    public String pvString() {
+        StringBuilder sb = new StringBuilder();
+        for (int move : pv) {
+            if (!sb.isEmpty())
+                sb.append(' ');
+            sb.append(Move.toString(move));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,98 @@
+package pt.isec.pa.chess.model.engine;
+
+import pt.isec.pa.chess.model.data.board.Bitboard;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.piece.Piece;
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+/**
+ * Avaliação estática de trocas (SEE): o ganho de material de um movimento quando os dois
+ * lados capturam alternadamente na casa de destino, sempre com a peça de menor valor,
+ * e cada lado pode parar de capturar quando isso lhe convém.
+ * <p>
+ * Os atacantes são obtidos com {@link Board#getAttackers(int, boolean, long)} sobre uma ocupação
+ * de onde se vão retirando as peças que já capturaram, por isso as peças de longo alcance
+ * escondidas atrás delas (raios X) entram na troca. As cravações não são consideradas.
+ * <p>
+ * Não altera o tabuleiro nem aloca, mas usa um buffer interno: cada thread deve ter a sua instância.
+ */
+public final class StaticExchange {
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final int[] VALUES = Evaluator.VALUES;
+
+    private final int[] gain = new int[32];
+
+    /**
+     * Ganho de material de um movimento no fim da sequência de capturas na casa de destino.
+     * @param board tabuleiro antes do movimento
+     * @param move movimento (normalmente uma captura ou promoção)
+     * @return ganho em centipeões para o lado que joga (negativo se perde material)
+     */
+    public int evaluate(Board board, int move) {
+        if (Move.isCastle(move))
+            return 0;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = board.getPiece(from);
+        boolean white = piece.isWhite();
+
+        long occupied = board.getOccupied() ^ Bitboard.bit(from);
+        int captured = 0;
+        if (Move.isEnPassant(move)) {
+            captured = VALUES[PieceType.PAWN.ordinal()];
+            // O peão capturado está na casa de origem da linha e na coluna de destino
+            occupied ^= Bitboard.bit(Bitboard.square(Bitboard.row(from), Bitboard.col(to)));
+        } else if (board.getPiece(to) != null) {
+            captured = VALUES[board.getPiece(to).getType().ordinal()];
+        }
+
+        // Valor da peça que fica na casa, e que o adversário pode capturar a seguir
+        int onSquare = VALUES[piece.getType().ordinal()];
+        PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            captured += VALUES[promotion.ordinal()] - VALUES[PieceType.PAWN.ordinal()];
+            onSquare = VALUES[promotion.ordinal()];
+        }
+
+        int depth = 0;
+        gain[0] = captured;
+        boolean side = !white;
+        while (depth < gain.length - 1) {
+            long attackers = board.getAttackers(to, side, occupied);
+            if (attackers == 0)
+                break;
+            int type = leastValuable(board, attackers, side);
+            long attacker = Long.lowestOneBit(attackers & board.getPieceBitboard(TYPES[type], side));
+            // O rei só pode capturar se a casa não estiver defendida
+            if (type == PieceType.KING.ordinal() && board.getAttackers(to, !side, occupied ^ attacker) != 0)
+                break;
+
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            // Quem captura perde mesmo no melhor caso, e parar já era mau: a captura não é feita
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                depth--;
+                break;
+            }
+            onSquare = VALUES[type];
+            occupied ^= attacker;
+            side = !side;
+        }
+
+        // Cada lado escolhe entre parar e continuar, de trás para a frente
+        for (; depth > 0; depth--)
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        return gain[0];
+    }
+
+    /**
+     * Tipo ({@link PieceType#ordinal()}) do atacante de menor valor.
+     */
+    private static int leastValuable(Board board, long attackers, boolean white) {
+        for (int type = PieceType.PAWN.ordinal(); type > PieceType.KING.ordinal(); type--)
+            if ((attackers & board.getPieceBitboard(TYPES[type], white)) != 0)
+                return type;
+        return PieceType.KING.ordinal();
+    }
+}
@@ -0,0 +1,207 @@
+package pt.isec.pa.chess.model.engine;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de transposição de tamanho fixo, partilhável por várias threads sem locks.
+ * <p>
+ * As entradas estão num único {@code long[]}, agrupadas em buckets de {@value #BUCKET_ENTRIES}
+ * entradas (64 bytes, uma linha de cache). Cada entrada tem dois longs: a chave XOR os dados,
+ * e os dados (movimento, avaliação, profundidade, tipo de limite e idade). Ao ler, a entrada
+ * só é aceite se a chave reconstruída (primeiro long XOR dados) for igual à procurada, por isso
+ * uma escrita concorrente a meio (dois longs de escritas diferentes) é detetada e ignorada.
+ * <p>
+ * Substituição: numa entrada da mesma posição escreve sempre; caso contrário substitui, no bucket,
+ * a entrada com menor profundidade, descontando 8 meios-lances por cada pesquisa de idade.
+ */
+public final class TranspositionTable {
+    /** A avaliação é exata. */
+    public static final int BOUND_EXACT = 1;
+    /** A avaliação é um limite inferior (corte beta). */
+    public static final int BOUND_LOWER = 2;
+    /** A avaliação é um limite superior (nenhum movimento melhorou alfa). */
+    public static final int BOUND_UPPER = 3;
+
+    static final int BUCKET_ENTRIES = 4;
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_LONGS = BUCKET_ENTRIES * ENTRY_LONGS;
+    private static final int BUCKET_BYTES = BUCKET_LONGS * Long.BYTES;
+
+    // Dados: movimento (bits 0-21), avaliação (22-37), profundidade (38-45), limite (46-47), idade (48-53)
+    private static final int SCORE_SHIFT = 22;
+    private static final int DEPTH_SHIFT = 38;
+    private static final int BOUND_SHIFT = 46;
+    private static final int AGE_SHIFT = 48;
+    private static final int MOVE_MASK = (1 << SCORE_SHIFT) - 1;
+    private static final int AGE_MASK = 0x3F;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    /**
+     * @param megabytes tamanho em MB (arredondado para baixo a uma potência de 2 de buckets)
+     */
+    public TranspositionTable(int megabytes) {
+        long buckets = Math.max(1, (long) Math.max(1, megabytes) * 1024 * 1024 / BUCKET_BYTES);
+        buckets = Long.highestOneBit(Math.min(buckets, Integer.MAX_VALUE / BUCKET_LONGS));
+        table = new long[(int) buckets * BUCKET_LONGS];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Tamanho da tabela em MB.
+     * @return tamanho em MB
+     */
+    public int getMegabytes() {
+        return (int) ((long) table.length * Long.BYTES / (1024 * 1024));
+    }
+
+    /**
+     * Número de entradas da tabela.
+     * @return capacidade
+     */
+    public int getCapacity() {
+        return table.length / ENTRY_LONGS;
+    }
+
+    /**
+     * Apaga todas as entradas.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        age = 0;
+    }
+
+    /**
+     * Marca o início de uma nova pesquisa: as entradas das pesquisas anteriores
+     * passam a ser substituídas primeiro.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    private int bucket(long key) {
+        // Os bits altos escolhem o bucket; os bits baixos continuam a distinguir as entradas
+        return (int) (key >>> 32) & bucketMask;
+    }
+
+    /**
+     * Procura uma posição.
+     * @param key hash da posição
+     * @return dados da entrada (ler com {@link #move}, {@link #score}, {@link #depth}, {@link #bound}),
+     *         ou 0 se a posição não estiver na tabela
+     */
+    public long probe(long key) {
+        int base = bucket(key) * BUCKET_LONGS;
+        for (int i = base; i < base + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != 0)
+                return data;
+        }
+        return 0;
+    }
+
+    /**
+     * Guarda uma posição.
+     * @param key hash da posição
+     * @param move melhor movimento (ou {@link pt.isec.pa.chess.model.data.board.Move#NONE})
+     * @param score avaliação (as de mate devem estar relativas ao nó, ver {@link #toStored})
+     * @param depth profundidade pesquisada
+     * @param bound tipo de limite ({@link #BOUND_EXACT}, {@link #BOUND_LOWER} ou {@link #BOUND_UPPER})
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int base = bucket(key) * BUCKET_LONGS;
+        int currentAge = age;
+        int victim = base;
+        int victimValue = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = table[i + 1];
+            if (data == 0 || (table[i] ^ data) == key) {
+                // Mantém o movimento anterior se a nova entrada não tiver um
+                if (data != 0 && move == 0)
+                    move = move(data);
+                victim = i;
+                break;
+            }
+            int value = depth(data) - 8 * ((currentAge - age(data)) & AGE_MASK);
+            if (value < victimValue) {
+                victimValue = value;
+                victim = i;
+            }
+        }
+
+        long data = (move & MOVE_MASK)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) (Math.max(0, Math.min(depth, 255))) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentAge << AGE_SHIFT);
+        table[victim] = key ^ data;
+        table[victim + 1] = data;
+    }
+
+    public static int move(long data) {
+        return (int) data & MOVE_MASK;
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    /**
+     * Converte uma avaliação de mate para a distância ao nó (para guardar na tabela).
+     * @param score avaliação relativa à raiz
+     * @param ply meio-lance do nó
+     * @return avaliação a guardar
+     */
+    public static int toStored(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY)
+            return score + ply;
+        if (score <= -Search.MATE + Search.MAX_PLY)
+            return score - ply;
+        return score;
+    }
+
+    /**
+     * Converte uma avaliação guardada de volta para a distância à raiz.
+     * @param score avaliação guardada
+     * @param ply meio-lance do nó
+     * @return avaliação relativa à raiz
+     */
+    public static int fromStored(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY)
+            return score - ply;
+        if (score <= -Search.MATE + Search.MAX_PLY)
+            return score + ply;
+        return score;
+    }
+
+    /**
+     * Ocupação da tabela por entradas da pesquisa atual, em permilagem,
+     * estimada a partir dos primeiros 1000 lugares.
+     * @return entradas ocupadas por cada 1000
+     */
+    public int getFillPermille() {
+        int currentAge = age;
+        int samples = Math.min(1000, getCapacity());
+        int used = 0;
+        for (int i = 0; i < samples; i++) {
+            long data = table[i * ENTRY_LONGS + 1];
+            if (data != 0 && age(data) == currentAge)
+                used++;
+        }
+        return used * 1000 / samples;
+    }
+}
@@ -0,0 +1,364 @@
+package pt.isec.pa.chess.model.io;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Formato binário versionado dos ficheiros {@code .chess}.
+ * <pre>
+ * magic "CHSS" | versão (u16) | flags (u16)
+ * nome das brancas | nome das pretas        (u16 com o tamanho + UTF-8)
+ * número do lance da posição final (u32)    (desde a versão 2)
+ * número de movimentos (u32)
+ * posição inicial | posição final           ({@link PositionCodec#SIZE} bytes cada)
+ * movimentos                                (u32 cada, ver {@link Move})
+ * CRC32 de tudo o que está antes (u32)
+ * </pre>
+ * Os inteiros são big-endian. O cabeçalho pode ser lido sem ler os movimentos, e os
+ * movimentos podem ser lidos um a um com {@link Reader#nextMove()}. Ao carregar um jogo,
+ * cada movimento é validado contra as regras e a posição final tem de coincidir.
+ */
+public final class GameFile {
+    private GameFile() {}
+
+    public static final int MAGIC = 0x43485353; // "CHSS"
+    public static final int VERSION = 2;
+
+    private static final int FLAG_LEARNING_MODE = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_NAME_BYTES = 1024;
+
+    /**
+     * Cabeçalho de um ficheiro de jogo.
+     * @param version versão do formato
+     * @param whitePlayer nome do jogador das brancas
+     * @param blackPlayer nome do jogador das pretas
+     * @param learningMode se o modo de aprendizagem estava ativo
+     * @param fullmoveNumber número do lance da posição final (0 nos ficheiros da versão 1, que não o têm)
+     * @param moveCount número de movimentos gravados
+     * @param initialPosition snapshot da posição antes do primeiro movimento
+     * @param finalPosition snapshot da posição final
+     */
+    public record Header(int version, String whitePlayer, String blackPlayer, boolean learningMode,
+                         int fullmoveNumber, int moveCount, byte[] initialPosition, byte[] finalPosition) {}
+
+    /**
+     * Verifica se um ficheiro começa com o identificador do formato.
+     * @param path ficheiro
+     * @return true se for um ficheiro neste formato
+     * @throws IOException se não for possível ler o ficheiro
+     */
+    public static boolean isGameFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) ;
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Grava um jogo: cabeçalho, posição inicial e final e todos os movimentos do tabuleiro.
+     * @param game jogo a gravar
+     * @param path ficheiro de destino (é substituído)
+     * @throws IOException se a escrita falhar
+     */
+    public static void write(ChessGame game, Path path) throws IOException {
+        Board board = game.getBoard();
+        int[] moves = new int[board.getPly()];
+        for (int i = 0; i < moves.length; i++)
+            moves[i] = board.getMove(i);
+
+        // A posição inicial obtém-se desfazendo todos os movimentos (e refazendo-os a seguir)
+        for (int i = 0; i < moves.length; i++)
+            board.unmakeMove();
+        boolean whiteStarted = game.isWhiteToMove() == (moves.length % 2 == 0);
+        byte[] initial = PositionCodec.encode(board, whiteStarted);
+        for (int move : moves)
+            board.makeMove(move);
+        byte[] last = game.toSnapshot();
+
+        try (Output out = new Output(path)) {
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putShort(game.isLearningMode() ? FLAG_LEARNING_MODE : 0);
+            out.putString(game.getPlayerWhite());
+            out.putString(game.getPlayerBlack());
+            out.putInt(game.getFullmoveNumber());
+            out.putInt(moves.length);
+            out.put(initial);
+            out.put(last);
+            for (int move : moves)
+                out.putInt(move);
+            out.finish();
+        }
+    }
+
+    /**
+     * Lê apenas o cabeçalho de um ficheiro.
+     * @param path ficheiro
+     * @return cabeçalho
+     * @throws IOException se o ficheiro não existir ou não estiver neste formato
+     */
+    public static Header readHeader(Path path) throws IOException {
+        try (Reader reader = new Reader(path)) {
+            return reader.header();
+        }
+    }
+
+    /**
+     * Carrega um jogo, repetindo e validando todos os movimentos a partir da posição inicial.
+     * @param path ficheiro
+     * @return jogo carregado
+     * @throws IOException se o ficheiro for inválido, estiver corrompido ou tiver movimentos ilegais
+     */
+    public static ChessGame read(Path path) throws IOException {
+        try (Reader reader = new Reader(path)) {
+            Header header = reader.header();
+
+            ChessGame game = new ChessGame();
+            game.setWhitePlayerName(header.whitePlayer());
+            game.setBlackPlayerName(header.blackPlayer());
+            game.setLearningMode(header.learningMode());
+            try {
+                game.fromSnapshot(header.initialPosition());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Posição inicial inválida: " + e.getMessage());
+            }
+
+            for (int move = reader.nextMove(); move != Move.NONE; move = reader.nextMove()) {
+                if (!game.redoMove(move))
+                    throw new IOException("Movimento inválido no ficheiro: " + Move.toString(move));
+            }
+            // Sem o número gravado (versão 1), fica o contado a partir de 1 na posição inicial
+            if (header.fullmoveNumber() > 0)
+                game.setFullmoveNumber(header.fullmoveNumber());
+
+            if (!Arrays.equals(game.toSnapshot(), header.finalPosition()))
+                throw new IOException("A posição final não corresponde aos movimentos gravados");
+            return game;
+        }
+    }
+
+    /**
+     * Leitor sequencial: o cabeçalho é lido ao abrir e os movimentos um a um,
+     * sem carregar o ficheiro inteiro. O checksum é verificado após o último movimento.
+     */
+    public static final class Reader implements Closeable {
+        private final Input in;
+        private final Header header;
+        private int movesLeft;
+
+        public Reader(Path path) throws IOException {
+            in = new Input(path);
+            try {
+                if (in.getInt() != MAGIC)
+                    throw new IOException("Não é um ficheiro de jogo: " + path);
+                int version = in.getShort();
+                if (version > VERSION)
+                    throw new IOException("Versão do ficheiro não suportada: " + version);
+                int flags = in.getShort();
+                String white = in.getString();
+                String black = in.getString();
+                int fullmoveNumber = version >= 2 ? in.getInt() : 0;
+                if (fullmoveNumber < 0)
+                    throw new IOException("Número do lance inválido: " + fullmoveNumber);
+                int moveCount = in.getInt();
+                if (moveCount < 0 || (long) moveCount * Integer.BYTES > in.remainingData())
+                    throw new IOException("Número de movimentos inválido: " + moveCount);
+                byte[] initial = in.get(PositionCodec.SIZE);
+                byte[] last = in.get(PositionCodec.SIZE);
+
+                header = new Header(version, white, black, (flags & FLAG_LEARNING_MODE) != 0,
+                        fullmoveNumber, moveCount, initial, last);
+                movesLeft = moveCount;
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        public Header header() {
+            return header;
+        }
+
+        /**
+         * Lê o próximo movimento.
+         * @return movimento codificado ou {@link Move#NONE} no fim
+         * @throws IOException se a leitura falhar ou o checksum não corresponder
+         */
+        public int nextMove() throws IOException {
+            if (movesLeft > 0) {
+                movesLeft--;
+                int move = in.getInt();
+                if (move == Move.NONE)
+                    throw new IOException("Movimento vazio no ficheiro");
+                return move;
+            }
+            if (movesLeft == 0) {
+                movesLeft = -1;
+                in.verifyChecksum();
+            }
+            return Move.NONE;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Escrita com buffer sobre um FileChannel, acumulando o CRC32 dos bytes escritos.
+     */
+    private static final class Output implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+
+        Output(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes)
+                flush();
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putShort(int value) throws IOException {
+            ensure(Short.BYTES);
+            buffer.putShort((short) value);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_NAME_BYTES)
+                bytes = Arrays.copyOf(bytes, MAX_NAME_BYTES);
+            putShort(bytes.length);
+            put(bytes);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.array(), 0, buffer.limit());
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+
+        /**
+         * Escreve os dados pendentes e o checksum final.
+         */
+        void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Leitura com buffer sobre um FileChannel, acumulando o CRC32 dos dados
+     * (tudo exceto os 4 bytes finais do checksum).
+     */
+    private static final class Input implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+        private final long dataEnd;
+        private long filePosition;
+
+        Input(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            dataEnd = channel.size() - Integer.BYTES;
+            buffer.limit(0);
+        }
+
+        long remainingData() {
+            return dataEnd - (filePosition - buffer.remaining());
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes)
+                return;
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int start = buffer.position();
+                int read = channel.read(buffer);
+                if (read < 0)
+                    throw new EOFException("Ficheiro de jogo truncado");
+                long crcEnd = Math.min(filePosition + read, dataEnd);
+                if (crcEnd > filePosition)
+                    crc.update(buffer.array(), start, (int) (crcEnd - filePosition));
+                filePosition += read;
+            }
+            buffer.flip();
+        }
+
+        int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        int getShort() throws IOException {
+            ensure(Short.BYTES);
+            return buffer.getShort() & 0xFFFF;
+        }
+
+        byte[] get(int length) throws IOException {
+            ensure(length);
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        String getString() throws IOException {
+            int length = getShort();
+            if (length > MAX_NAME_BYTES)
+                throw new IOException("Nome demasiado longo no ficheiro: " + length + " bytes");
+            return new String(get(length), StandardCharsets.UTF_8);
+        }
+
+        void verifyChecksum() throws IOException {
+            if (filePosition - buffer.remaining() != dataEnd)
+                throw new IOException("Dados inesperados no fim do ficheiro");
+            int expected = getInt();
+            if (expected != (int) crc.getValue())
+                throw new IOException("Checksum inválido: ficheiro corrompido");
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package pt.isec.pa.chess.model.io;
+
+import pt.isec.pa.chess.model.data.board.Bitboard;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Position;
+import pt.isec.pa.chess.model.data.piece.Piece;
+import pt.isec.pa.chess.model.data.piece.tools.PieceFactory;
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+/**
+ * Codificação binária compacta e canónica de uma posição ({@value #SIZE} bytes).
+ * <ul>
+ *     <li>bytes 0-31: as 64 casas, 4 bits cada (0 = vazia, 1-12 = peça, ver {@link Bitboard#index});
+ *     a casa {@code 2i} ocupa os 4 bits baixos do byte {@code i}, a casa {@code 2i+1} os altos;</li>
+ *     <li>byte 32: bit 0 = pretas a jogar, bits 1-4 = direitos de roque;</li>
+ *     <li>byte 33: casa de en passant + 1 (0 = nenhuma ou captura impossível);</li>
+ *     <li>bytes 34-35: relógio de meios-lances (big-endian).</li>
+ * </ul>
+ * Posições iguais produzem sempre os mesmos bytes, por isso os snapshots podem ser
+ * comparados ou usados como chaves diretamente.
+ */
+public final class PositionCodec {
+    private PositionCodec() {}
+
+    public static final int SIZE = 36;
+
+    private static final int SQUARES = Board.BOARD_SIZE * Board.BOARD_SIZE;
+    private static final int FLAGS = SQUARES / 2;
+    private static final int EN_PASSANT = FLAGS + 1;
+    private static final int HALFMOVE = EN_PASSANT + 1;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    /**
+     * Codifica uma posição num array novo.
+     * @param board tabuleiro
+     * @param whiteToMove lado a jogar
+     * @return snapshot com {@link #SIZE} bytes
+     */
+    public static byte[] encode(Board board, boolean whiteToMove) {
+        byte[] data = new byte[SIZE];
+        encode(board, whiteToMove, data, 0);
+        return data;
+    }
+
+    /**
+     * Codifica uma posição num array existente (sem alocar).
+     * @param board tabuleiro
+     * @param whiteToMove lado a jogar
+     * @param out array de destino
+     * @param offset posição inicial no array
+     */
+    public static void encode(Board board, boolean whiteToMove, byte[] out, int offset) {
+        for (int i = 0; i < FLAGS; i++)
+            out[offset + i] = (byte) (nibble(board.getPiece(2 * i)) | (nibble(board.getPiece(2 * i + 1)) << 4));
+
+        out[offset + FLAGS] = (byte) ((whiteToMove ? 0 : 1) | (board.getCastlingRights() << 1));
+        out[offset + EN_PASSANT] = (byte) (board.isEnPassantCapturable() ? board.getEnPassantSquare() + 1 : 0);
+        int halfmove = Math.min(board.getHalfmoveClock(), 0xFFFF);
+        out[offset + HALFMOVE] = (byte) (halfmove >>> 8);
+        out[offset + HALFMOVE + 1] = (byte) halfmove;
+    }
+
+    private static int nibble(Piece piece) {
+        return piece == null ? 0 : Bitboard.index(piece.getType(), piece.isWhite()) + 1;
+    }
+
+    /**
+     * Descodifica um snapshot para um tabuleiro (que é limpo antes).
+     * @param data snapshot
+     * @param offset posição inicial no array
+     * @param board tabuleiro de destino
+     * @return true se forem as brancas a jogar
+     * @throws IllegalArgumentException se o snapshot for inválido
+     */
+    public static boolean decode(byte[] data, int offset, Board board) {
+        if (data == null || data.length - offset < SIZE)
+            throw new IllegalArgumentException("Snapshot inválido: esperados " + SIZE + " bytes");
+
+        board.clearBoard();
+        for (int square = 0; square < SQUARES; square++) {
+            int value = (data[offset + square / 2] >>> ((square & 1) * 4)) & 0xF;
+            if (value == 0)
+                continue;
+            if (value > Bitboard.PIECE_BITBOARDS)
+                throw new IllegalArgumentException("Snapshot inválido: peça " + value + " na casa " + square);
+
+            int index = value - 1;
+            PieceType type = TYPES[index % TYPES.length];
+            Piece piece = PieceFactory.createPiece(type, Position.of(square), index < TYPES.length);
+            // Reis e torres só ficam por mover se os direitos de roque o indicarem
+            if (type == PieceType.KING || type == PieceType.ROOK)
+                piece.setHasMoved();
+            board.addPiece(piece, Position.of(square));
+        }
+
+        int flags = data[offset + FLAGS];
+        board.setCastlingRights((flags >>> 1) & Board.CASTLE_ALL);
+        board.setEnPassantSquare((data[offset + EN_PASSANT] & 0xFF) - 1);
+        board.setHalfmoveClock(((data[offset + HALFMOVE] & 0xFF) << 8) | (data[offset + HALFMOVE + 1] & 0xFF));
+        return (flags & 1) == 0;
+    }
+
+    public static boolean decode(byte[] data, Board board) {
+        return decode(data, 0, board);
+    }
+}
@@ -0,0 +1,341 @@
+package pt.isec.pa.chess.model.io;
+
+import pt.isec.pa.chess.model.data.board.Bitboard;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Position;
+import pt.isec.pa.chess.model.data.piece.Piece;
+import pt.isec.pa.chess.model.data.piece.tools.PieceFactory;
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+/**
+ * Leitura e escrita de posições em texto, carácter a carácter e sem expressões regulares:
+ * <ul>
+ *     <li>formato de exportação do jogo: {@code WHITE,Ra1*,Nb1,...} (o '*' marca reis e torres
+ *     que ainda não se moveram; os espaços são ignorados);</li>
+ *     <li>FEN: {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.</li>
+ * </ul>
+ * Os métodos de escrita acrescentam a um {@link StringBuilder} recebido, para que possa ser reutilizado.
+ */
+public final class PositionFormat {
+    private PositionFormat() {}
+
+    private static final int SIZE = Board.BOARD_SIZE;
+    /** Maior relógio de meios-lances aceite (o tabuleiro guarda-o no estado de cada lance). */
+    private static final int MAX_HALFMOVE_CLOCK = 9999;
+
+    /**
+     * Resultado da leitura de uma posição: o tabuleiro é preenchido diretamente
+     * e o restante estado do jogo é devolvido aqui.
+     * @param whiteToMove lado a jogar
+     * @param fullmoveNumber número do lance (1 se o formato não o tiver)
+     */
+    public record Info(boolean whiteToMove, int fullmoveNumber) {}
+
+    /**
+     * Verifica se um texto parece FEN (tem separadores de linhas '/').
+     * @param text texto a verificar
+     * @return true se for FEN, false se for o formato de exportação
+     */
+    public static boolean isFen(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '/')
+                return true;
+            if (ch == ',')
+                return false;
+        }
+        return false;
+    }
+
+    /**
+     * Lê uma posição em FEN ou no formato de exportação, conforme o conteúdo.
+     * @param text posição
+     * @param board tabuleiro de destino (é limpo antes)
+     * @return lado a jogar e número do lance
+     * @throws IllegalArgumentException se o texto for inválido
+     */
+    public static Info parse(CharSequence text, Board board) {
+        return isFen(text) ? parseFen(text, board) : parseExport(text, board);
+    }
+
+    /**
+     * Lê o formato de exportação do jogo.
+     * O primeiro campo indica o lado a jogar (começa por "WHITE" ou "BLACK"); se não indicar, é tratado
+     * como etiqueta e ignorado (o editor envia, por exemplo, {@code Jogador1-Jogador2,WHITE,}).
+     * Campos vazios e campos "WHITE"/"BLACK" posteriores também são aceites.
+     * @param text posição
+     * @param board tabuleiro de destino (é limpo antes)
+     * @return lado a jogar (o número do lance é sempre 1)
+     * @throws IllegalArgumentException se nenhum campo indicar o lado a jogar ou alguma peça for inválida
+     */
+    public static Info parseExport(CharSequence text, Board board) {
+        board.clearBoard();
+
+        boolean whiteToMove = false;
+        boolean sideSet = false;
+        char[] token = new char[8];
+        int length = 0;
+        boolean first = true;
+
+        for (int i = 0; i <= text.length(); i++) {
+            char ch = i < text.length() ? text.charAt(i) : ',';
+            if (Character.isWhitespace(ch))
+                continue;
+            if (ch != ',') {
+                if (length < token.length)
+                    token[length] = ch;
+                length++;
+                continue;
+            }
+
+            if (first) {
+                // Lado a jogar ou etiqueta (nomes dos jogadores)
+                whiteToMove = startsWithIgnoreCase(token, length, "WHITE");
+                sideSet = whiteToMove || startsWithIgnoreCase(token, length, "BLACK");
+                first = false;
+            } else if (equalsIgnoreCase(token, length, "WHITE")) {
+                whiteToMove = sideSet = true;
+            } else if (equalsIgnoreCase(token, length, "BLACK")) {
+                whiteToMove = false;
+                sideSet = true;
+            } else if (length > 0) {
+                addExportPiece(token, length, board);
+            }
+            length = 0;
+        }
+        if (!sideSet)
+            throw new IllegalArgumentException("Lado a jogar em falta: o texto tem de ter um campo WHITE ou BLACK");
+        return new Info(whiteToMove, 1);
+    }
+
+    private static void addExportPiece(char[] token, int length, Board board) {
+        boolean unmoved = length == 4 && token[3] == '*';
+        if (length != 3 && !unmoved)
+            throw new IllegalArgumentException("Peça inválida: " + new String(token, 0, Math.min(length, token.length)));
+
+        PieceType type = PieceFactory.fromSymbol(token[0]);
+        int col = token[1] - 'a';
+        int row = SIZE - (token[2] - '0');
+        if (col < 0 || col >= SIZE || row < 0 || row >= SIZE)
+            throw new IllegalArgumentException("Peça inválida: " + new String(token, 0, length));
+
+        Position pos = new Position(row, col);
+        Piece piece = PieceFactory.createPiece(type, pos, Character.isUpperCase(token[0]));
+        // Reis e torres sem '*' já se moveram (perderam o direito ao roque)
+        if (!unmoved && (type == PieceType.KING || type == PieceType.ROOK))
+            piece.setHasMoved();
+        board.addPiece(piece, pos);
+    }
+
+    /**
+     * Lê uma posição em FEN. Os campos após a disposição das peças são opcionais.
+     * A posição tem de ter exatamente um rei de cada cor; a casa de en passant tem de estar atrás
+     * de um peão do lado que acabou de jogar, e o relógio de meios-lances não pode passar de 9999.
+     * @param text FEN
+     * @param board tabuleiro de destino (é limpo antes)
+     * @return lado a jogar e número do lance
+     * @throws IllegalArgumentException se o FEN for inválido
+     */
+    public static Info parseFen(CharSequence text, Board board) {
+        board.clearBoard();
+
+        int length = text.length();
+        int i = skipSpaces(text, 0);
+        int row = 0, col = 0;
+        for (; i < length && text.charAt(i) != ' '; i++) {
+            char ch = text.charAt(i);
+            if (ch == '/') {
+                if (col != SIZE)
+                    throw new IllegalArgumentException("FEN inválido: linha " + (SIZE - row) + " incompleta");
+                row++;
+                col = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                col += ch - '0';
+            } else {
+                PieceType type = PieceFactory.fromSymbol(ch);
+                if (row >= SIZE || col >= SIZE)
+                    throw new IllegalArgumentException("FEN inválido: '" + ch + "' na posição " + i);
+                Position pos = new Position(row, col++);
+                Piece piece = PieceFactory.createPiece(type, pos, Character.isUpperCase(ch));
+                if (type == PieceType.KING || type == PieceType.ROOK)
+                    piece.setHasMoved(); // repostos a partir dos direitos de roque
+                board.addPiece(piece, pos);
+            }
+            if (col > SIZE)
+                throw new IllegalArgumentException("FEN inválido: linha " + (SIZE - row) + " demasiado longa");
+        }
+        if (row != SIZE - 1 || col != SIZE)
+            throw new IllegalArgumentException("FEN inválido: disposição das peças incompleta");
+        if (Long.bitCount(board.getPieceBitboard(PieceType.KING, true)) != 1
+                || Long.bitCount(board.getPieceBitboard(PieceType.KING, false)) != 1)
+            throw new IllegalArgumentException("FEN inválido: cada lado tem de ter exatamente um rei");
+
+        // Lado a jogar
+        i = skipSpaces(text, i);
+        boolean whiteToMove = true;
+        if (i < length) {
+            char side = text.charAt(i);
+            int end = skipField(text, i);
+            if ((side != 'w' && side != 'b') || end != i + 1)
+                throw new IllegalArgumentException("FEN inválido: lado a jogar '" + text.subSequence(i, end) + "'");
+            whiteToMove = side == 'w';
+        }
+        i = skipField(text, i);
+
+        // Direitos de roque
+        i = skipSpaces(text, i);
+        int rights = 0;
+        for (; i < length && text.charAt(i) != ' '; i++) {
+            switch (text.charAt(i)) {
+                case 'K' -> rights |= Board.CASTLE_WHITE_KING;
+                case 'Q' -> rights |= Board.CASTLE_WHITE_QUEEN;
+                case 'k' -> rights |= Board.CASTLE_BLACK_KING;
+                case 'q' -> rights |= Board.CASTLE_BLACK_QUEEN;
+                case '-' -> { }
+                default -> throw new IllegalArgumentException("FEN inválido: roque '" + text.charAt(i) + "'");
+            }
+        }
+        board.setCastlingRights(rights);
+
+        // En passant
+        i = skipSpaces(text, i);
+        int enPassant = -1;
+        if (i < length && text.charAt(i) != '-') {
+            // A casa fica atrás do peão que acabou de avançar duas casas: 6.ª fila se jogam as brancas, 3.ª se jogam as pretas
+            char file = text.charAt(i);
+            char rank = i + 1 < length ? text.charAt(i + 1) : ' ';
+            if (file < 'a' || file > 'h' || rank != (whiteToMove ? '6' : '3') || skipField(text, i) != i + 2)
+                throw new IllegalArgumentException("FEN inválido: casa de en passant");
+            enPassant = Bitboard.square(SIZE - (rank - '0'), file - 'a');
+            int pawnSquare = whiteToMove ? enPassant + SIZE : enPassant - SIZE;
+            if ((board.getPieceBitboard(PieceType.PAWN, !whiteToMove) & Bitboard.bit(pawnSquare)) == 0)
+                throw new IllegalArgumentException("FEN inválido: não há peão à frente da casa de en passant");
+        }
+        board.setEnPassantSquare(enPassant);
+        i = skipField(text, i);
+
+        // Relógios
+        i = skipSpaces(text, i);
+        int halfmove = 0;
+        for (; i < length && text.charAt(i) != ' '; i++) {
+            halfmove = halfmove * 10 + digit(text.charAt(i));
+            if (halfmove > MAX_HALFMOVE_CLOCK)
+                throw new IllegalArgumentException("FEN inválido: relógio de meios-lances acima de " + MAX_HALFMOVE_CLOCK);
+        }
+        board.setHalfmoveClock(halfmove);
+
+        i = skipSpaces(text, i);
+        int fullmove = 0;
+        for (; i < length && text.charAt(i) != ' '; i++)
+            fullmove = fullmove * 10 + digit(text.charAt(i));
+
+        return new Info(whiteToMove, Math.max(1, fullmove));
+    }
+
+    private static int digit(char ch) {
+        if (ch < '0' || ch > '9')
+            throw new IllegalArgumentException("FEN inválido: número esperado, encontrado '" + ch + "'");
+        return ch - '0';
+    }
+
+    private static int skipSpaces(CharSequence text, int i) {
+        while (i < text.length() && Character.isWhitespace(text.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static int skipField(CharSequence text, int i) {
+        while (i < text.length() && !Character.isWhitespace(text.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static boolean startsWithIgnoreCase(char[] token, int length, String prefix) {
+        if (length < prefix.length())
+            return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toUpperCase(token[i]) != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean equalsIgnoreCase(char[] token, int length, String word) {
+        return length == word.length() && startsWithIgnoreCase(token, length, word);
+    }
+
+    /**
+     * Escreve a posição no formato de exportação do jogo.
+     * @param board tabuleiro
+     * @param whiteToMove lado a jogar
+     * @param sb destino
+     * @return o próprio {@code sb}
+     */
+    public static StringBuilder appendExport(Board board, boolean whiteToMove, StringBuilder sb) {
+        sb.append(whiteToMove ? "WHITE" : "BLACK");
+        for (int square = 0; square < SIZE * SIZE; square++) {
+            Piece piece = board.getPiece(square);
+            if (piece == null)
+                continue;
+            sb.append(',').append(symbol(piece))
+                    .append((char) ('a' + Bitboard.col(square)))
+                    .append((char) ('0' + SIZE - Bitboard.row(square)));
+            if (!piece.hasMoved() && (piece.getType() == PieceType.KING || piece.getType() == PieceType.ROOK))
+                sb.append('*');
+        }
+        return sb;
+    }
+
+    /**
+     * Escreve a posição em FEN.
+     * @param board tabuleiro
+     * @param whiteToMove lado a jogar
+     * @param fullmoveNumber número do lance
+     * @param sb destino
+     * @return o próprio {@code sb}
+     */
+    public static StringBuilder appendFen(Board board, boolean whiteToMove, int fullmoveNumber, StringBuilder sb) {
+        for (int row = 0; row < SIZE; row++) {
+            int empty = 0;
+            for (int col = 0; col < SIZE; col++) {
+                Piece piece = board.getPiece(Bitboard.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0)
+                    sb.append((char) ('0' + empty));
+                empty = 0;
+                sb.append(symbol(piece));
+            }
+            if (empty > 0)
+                sb.append((char) ('0' + empty));
+            if (row < SIZE - 1)
+                sb.append('/');
+        }
+
+        sb.append(' ').append(whiteToMove ? 'w' : 'b').append(' ');
+
+        int rights = board.getCastlingRights();
+        if (rights == 0)
+            sb.append('-');
+        if ((rights & Board.CASTLE_WHITE_KING) != 0) sb.append('K');
+        if ((rights & Board.CASTLE_WHITE_QUEEN) != 0) sb.append('Q');
+        if ((rights & Board.CASTLE_BLACK_KING) != 0) sb.append('k');
+        if ((rights & Board.CASTLE_BLACK_QUEEN) != 0) sb.append('q');
+
+        sb.append(' ');
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant < 0)
+            sb.append('-');
+        else
+            sb.append((char) ('a' + Bitboard.col(enPassant))).append((char) ('0' + SIZE - Bitboard.row(enPassant)));
+
+        return sb.append(' ').append(board.getHalfmoveClock()).append(' ').append(fullmoveNumber);
+    }
+
+    private static char symbol(Piece piece) {
+        char ch = piece.getType().getIcon().charAt(0);
+        return piece.isWhite() ? Character.toUpperCase(ch) : ch;
+    }
+}
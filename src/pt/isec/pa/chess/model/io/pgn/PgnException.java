@@ -0,0 +1,27 @@
+package pt.isec.pa.chess.model.io.pgn;
+
+import java.io.IOException;
+import java.io.Serial;
+
+/**
+ * Erro num ficheiro PGN: sintaxe inválida, limites excedidos ou lance ilegal.
+ * Indica a linha do ficheiro onde o erro (ou o jogo com o erro) começa.
+ */
+public class PgnException extends IOException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long line;
+
+    public PgnException(String message, long line) {
+        super(line > 0 ? message + " (linha " + line + ")" : message);
+        this.line = line;
+    }
+
+    /**
+     * @return linha do ficheiro (1 = primeira) ou 0 se desconhecida
+     */
+    public long getLine() {
+        return line;
+    }
+}
@@ -0,0 +1,166 @@
+package pt.isec.pa.chess.model.io.pgn;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.GameStatus;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveList;
+import pt.isec.pa.chess.model.io.PositionFormat;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Um jogo PGN: etiquetas, lances em SAN e resultado.
+ * Os lances são guardados tal como aparecem no ficheiro; só são validados ao
+ * reproduzir o jogo com {@link #toChessGame()}.
+ */
+public final class PgnGame {
+    public static final String STANDARD_START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    public static final String RESULT_WHITE_WINS = "1-0";
+    public static final String RESULT_BLACK_WINS = "0-1";
+    public static final String RESULT_DRAW = "1/2-1/2";
+    public static final String RESULT_UNKNOWN = "*";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final List<String> moves = new ArrayList<>();
+    private String result = RESULT_UNKNOWN;
+    private long line;
+
+    public PgnGame() {}
+
+    /**
+     * Cria um jogo PGN a partir do histórico de movimentos de um jogo.
+     * Se o jogo não começou na posição inicial, inclui as etiquetas SetUp e FEN.
+     * @param game jogo (o tabuleiro fica igual no fim)
+     * @return jogo PGN
+     */
+    public static PgnGame of(ChessGame game) {
+        Board board = game.getBoard();
+        int[] history = new int[board.getPly()];
+        for (int i = 0; i < history.length; i++)
+            history[i] = board.getMove(i);
+
+        PgnGame pgn = new PgnGame();
+        pgn.setTag("Event", "?");
+        pgn.setTag("Site", "?");
+        pgn.setTag("Date", LocalDate.now().format(DATE_FORMAT));
+        pgn.setTag("Round", "-");
+        pgn.setTag("White", game.getPlayerWhite());
+        pgn.setTag("Black", game.getPlayerBlack());
+        pgn.setResult(RESULT_UNKNOWN);
+
+        // Posição inicial: desfazer todo o histórico e refazê-lo, gerando o SAN de cada lance
+        boolean whiteStarted = game.isWhiteToMove() == (history.length % 2 == 0);
+        int blackMoves = whiteStarted ? history.length / 2 : (history.length + 1) / 2;
+        for (int i = 0; i < history.length; i++)
+            board.unmakeMove();
+
+        String fen = PositionFormat.appendFen(board, whiteStarted,
+                Math.max(1, game.getFullmoveNumber() - blackMoves), new StringBuilder()).toString();
+        if (!fen.equals(STANDARD_START)) {
+            pgn.setTag("SetUp", "1");
+            pgn.setTag("FEN", fen);
+        }
+
+        MoveList buffer = new MoveList();
+        StringBuilder san = new StringBuilder(8);
+        for (int move : history) {
+            san.setLength(0);
+            pgn.moves.add(San.append(board, move, buffer, san).toString());
+            board.makeMove(move);
+        }
+
+        GameStatus status = game.getStatus();
+        if (status.checkmate())
+            pgn.setResult(status.whiteToMove() ? RESULT_BLACK_WINS : RESULT_WHITE_WINS);
+        else if (status.isDraw())
+            pgn.setResult(RESULT_DRAW);
+        return pgn;
+    }
+
+    /**
+     * Reproduz o jogo, validando cada lance contra as regras.
+     * Começa na posição da etiqueta FEN, se existir, ou na posição inicial.
+     * @return jogo na posição final, com o histórico completo no tabuleiro
+     * @throws PgnException se a posição inicial for inválida ou algum lance for ilegal
+     */
+    public ChessGame toChessGame() throws PgnException {
+        ChessGame game = new ChessGame();
+        String fen = tags.get("FEN");
+        try {
+            if (fen != null)
+                game.importFen(fen);
+            else
+                game.initializeBoard();
+        } catch (IllegalArgumentException e) {
+            throw new PgnException("FEN inválido: " + e.getMessage(), line);
+        }
+        if (tags.containsKey("White"))
+            game.setWhitePlayerName(tags.get("White"));
+        if (tags.containsKey("Black"))
+            game.setBlackPlayerName(tags.get("Black"));
+
+        MoveList buffer = new MoveList();
+        for (String san : moves) {
+            int move = San.parse(game.getBoard(), game.isWhiteToMove(), san, buffer);
+            if (move == Move.NONE || !game.redoMove(move))
+                throw new PgnException("Lance ilegal " + game.getFullmoveNumber()
+                        + (game.isWhiteToMove() ? ". " : "... ") + san, line);
+        }
+        return game;
+    }
+
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public void setTag(String name, String value) {
+        tags.put(name, value);
+    }
+
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    public List<String> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    public void addMove(String san) {
+        moves.add(san);
+    }
+
+    /**
+     * Resultado do jogo ("1-0", "0-1", "1/2-1/2" ou "*").
+     * @return resultado
+     */
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+        tags.put("Result", result);
+    }
+
+    /**
+     * Linha do ficheiro onde o jogo começa.
+     * @return linha (1 = primeira) ou 0 se o jogo não foi lido de um ficheiro
+     */
+    public long getLine() {
+        return line;
+    }
+
+    void setLine(long line) {
+        this.line = line;
+    }
+}
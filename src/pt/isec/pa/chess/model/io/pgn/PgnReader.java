@@ -0,0 +1,367 @@
+package pt.isec.pa.chess.model.io.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Leitor PGN incremental: lê os jogos um a um a partir de um canal, com um buffer de
+ * tamanho fixo, pelo que ficheiros de vários GB podem ser percorridos com memória limitada
+ * (apenas o buffer e o jogo atual).
+ * <p>
+ * Reconhece etiquetas, lances em SAN, números de lance, resultados, comentários
+ * ({@code {...}} e {@code ;}), variantes ({@code (...)}, possivelmente encadeadas), NAGs
+ * ({@code $1}) e linhas de escape ({@code %}). Comentários e variantes são ignorados.
+ * Os valores das etiquetas são lidos como UTF-8 ou, se não forem UTF-8 válido, como Latin-1.
+ * <p>
+ * Depois de um {@link PgnException}, a leitura pode continuar: o jogo com o erro é
+ * descartado e o próximo {@link #next()} começa nas etiquetas do jogo seguinte.
+ */
+public final class PgnReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_TOKEN = 255;
+    private static final int MAX_TAG_VALUE = 4096;
+    private static final int MAX_TAGS = 256;
+    private static final int MAX_PLIES = 10_000;
+
+    private static final int EOF = -1;
+    private static final int NONE = -2;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] token = new byte[MAX_TAG_VALUE];
+    private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+    private long line = 1;
+    private int column;
+    private long position;
+    private int pushedBack = NONE;
+    private boolean resync;
+    /** O último erro foi numa etiqueta: as etiquetas e os lances desse jogo ainda estão por saltar. */
+    private boolean resyncInTags;
+
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.limit(0);
+    }
+
+    public PgnReader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Lê o próximo jogo.
+     * @return jogo lido ou null no fim do ficheiro
+     * @throws PgnException se o jogo tiver erros de sintaxe ou exceder os limites
+     * @throws IOException se a leitura falhar
+     */
+    public PgnGame next() throws IOException {
+        if (resync) {
+            resync = false;
+            skipToNextGame(resyncInTags);
+        }
+
+        PgnGame game = null;
+        for (int c = read(); c != EOF; c = read()) {
+            if (isWhitespace(c))
+                continue;
+            if (c == '%' && column == 1) {
+                skipLine();
+                continue;
+            }
+
+            if (game == null) {
+                game = new PgnGame();
+                game.setLine(line);
+            }
+            try {
+                switch (c) {
+                    case '[' -> {
+                        // Uma etiqueta depois dos lances começa o jogo seguinte (jogo sem resultado)
+                        if (!game.getMoves().isEmpty()) {
+                            unread(c);
+                            return finish(game, null);
+                        }
+                        readTag(game);
+                    }
+                    case '{' -> skipComment();
+                    case ';' -> skipLine();
+                    case '(' -> skipVariation();
+                    case '$' -> readToken(c);
+                    case '*' -> {
+                        return finish(game, PgnGame.RESULT_UNKNOWN);
+                    }
+                    default -> {
+                        if (!isSymbol(c))
+                            throw error("Carácter inesperado '" + (char) c + "'");
+                        String result = readMoveText(game, c);
+                        if (result != null)
+                            return finish(game, result);
+                    }
+                }
+            } catch (PgnException e) {
+                resync = true;
+                resyncInTags = c == '[';
+                throw e;
+            }
+        }
+
+        if (game == null || (game.getTags().isEmpty() && game.getMoves().isEmpty()))
+            return null;
+        return finish(game, null);
+    }
+
+    private static PgnGame finish(PgnGame game, String result) {
+        if (result == null)
+            result = game.getTag("Result") != null ? game.getTag("Result") : PgnGame.RESULT_UNKNOWN;
+        game.setResult(result);
+        return game;
+    }
+
+    /**
+     * Linha atual do ficheiro.
+     * @return linha (1 = primeira)
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Número de bytes já consumidos do canal (útil para mostrar o progresso).
+     * @return bytes lidos
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    // ---- Leitura de bytes ----
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            if (read < 0)
+                return EOF;
+        }
+
+        int c = buffer.get() & 0xFF;
+        position++;
+        if (c == '\n') {
+            line++;
+            column = 0;
+        } else {
+            column++;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0xA0;
+    }
+
+    private static boolean isSymbol(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '_' || c == '+' || c == '#' || c == '=' || c == ':' || c == '-'
+                || c == '/' || c == '.' || c == '!' || c == '?';
+    }
+
+    private PgnException error(String message) {
+        return new PgnException(message, line);
+    }
+
+    // ---- Elementos ----
+
+    private void readTag(PgnGame game) throws IOException {
+        if (game.getTags().size() >= MAX_TAGS)
+            throw error("Demasiadas etiquetas (máximo " + MAX_TAGS + ")");
+
+        int c = skipWhitespace();
+        int length = 0;
+        for (; c != EOF && isSymbol(c); c = read()) {
+            if (length == MAX_TOKEN)
+                throw error("Nome de etiqueta demasiado longo");
+            token[length++] = (byte) c;
+        }
+        if (length == 0)
+            throw error("Etiqueta sem nome");
+        String name = new String(token, 0, length, StandardCharsets.US_ASCII);
+
+        if (isWhitespace(c))
+            c = skipWhitespace();
+        if (c != '"')
+            throw error("Valor da etiqueta " + name + " em falta");
+
+        length = 0;
+        long start = line;
+        for (c = read(); c != '"'; c = read()) {
+            if (c == '\\')
+                c = read();
+            if (c == EOF || c == '\n')
+                throw new PgnException("Valor da etiqueta " + name + " não terminado", start);
+            if (length == MAX_TAG_VALUE)
+                throw error("Valor da etiqueta " + name + " demasiado longo");
+            token[length++] = (byte) c;
+        }
+        String value = decode(length);
+
+        if (skipWhitespace() != ']')
+            throw error("Etiqueta " + name + " sem ']'");
+        game.setTag(name, value);
+    }
+
+    private String decode(int length) throws PgnException {
+        for (int i = 0; i < length; i++) {
+            if (token[i] < 0) {
+                try {
+                    CharBuffer chars = utf8.reset().decode(ByteBuffer.wrap(token, 0, length));
+                    return chars.toString();
+                } catch (CharacterCodingException e) {
+                    return new String(token, 0, length, StandardCharsets.ISO_8859_1);
+                }
+            }
+        }
+        return new String(token, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private int readToken(int first) throws IOException {
+        int length = 0;
+        int c = first;
+        do {
+            if (length == MAX_TOKEN)
+                throw error("Elemento demasiado longo");
+            token[length++] = (byte) c;
+            c = read();
+        } while (c != EOF && isSymbol(c));
+        if (c != EOF)
+            unread(c);
+        return length;
+    }
+
+    /**
+     * Lê um elemento do texto dos lances: número de lance, lance, anotação ou resultado.
+     * @return o resultado, se o elemento terminar o jogo, ou null
+     */
+    private String readMoveText(PgnGame game, int first) throws IOException {
+        int length = readToken(first);
+
+        // Número do lance ("12." ou "12..."), possivelmente colado ao lance ("12.e4")
+        int start = 0;
+        while (start < length && token[start] >= '0' && token[start] <= '9')
+            start++;
+        if (start == length)
+            return null;
+        if (start > 0 && token[start] == '.') {
+            while (start < length && token[start] == '.')
+                start++;
+        } else {
+            start = 0;
+        }
+        if (start == length)
+            return null;
+
+        String text = new String(token, start, length - start, StandardCharsets.US_ASCII);
+        if (text.equals(PgnGame.RESULT_WHITE_WINS) || text.equals(PgnGame.RESULT_BLACK_WINS)
+                || text.equals(PgnGame.RESULT_DRAW))
+            return text;
+
+        // Anotações separadas do lance ("!", "?!", ...)
+        if (token[start] == '!' || token[start] == '?')
+            return null;
+
+        if (game.getMoves().size() >= MAX_PLIES)
+            throw error("Demasiados lances (máximo " + MAX_PLIES + ")");
+        game.addMove(text);
+        return null;
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != EOF && isWhitespace(c));
+        return c;
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != EOF && c != '\n');
+    }
+
+    private void skipComment() throws IOException {
+        long start = line;
+        int c;
+        do {
+            c = read();
+            if (c == EOF)
+                throw new PgnException("Comentário não terminado", start);
+        } while (c != '}');
+    }
+
+    private void skipVariation() throws IOException {
+        long start = line;
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            switch (c) {
+                case EOF -> throw new PgnException("Variante não terminada", start);
+                case '(' -> depth++;
+                case ')' -> depth--;
+                case '{' -> skipComment();
+                case ';' -> skipLine();
+                default -> { }
+            }
+        }
+    }
+
+    /**
+     * Avança até à próxima etiqueta no início de uma linha que venha depois dos lances
+     * (ou ao fim do ficheiro).
+     * @param inTags true se o erro foi nas etiquetas, e as restantes etiquetas e os lances
+     *               do mesmo jogo ainda têm de ser saltados
+     */
+    private void skipToNextGame(boolean inTags) throws IOException {
+        boolean afterMoves = !inTags;
+        for (int c = read(); c != EOF; c = read()) {
+            if (column != 1 || isWhitespace(c))
+                continue;
+            if (c == '[' && afterMoves) {
+                unread(c);
+                return;
+            }
+            // Linhas de etiquetas e de escape ainda são do jogo com o erro; qualquer outra é dos lances
+            if (c != '[' && c != '%')
+                afterMoves = true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
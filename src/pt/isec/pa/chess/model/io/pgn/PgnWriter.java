@@ -0,0 +1,114 @@
+package pt.isec.pa.chess.model.io.pgn;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritor PGN no formato de exportação: as sete etiquetas obrigatórias primeiro,
+ * depois as restantes, e o texto dos lances com números de lance, em linhas até 79 caracteres.
+ * Vários jogos podem ser escritos em sequência no mesmo ficheiro.
+ */
+public final class PgnWriter implements Closeable, Flushable {
+    private static final int LINE_WIDTH = 79;
+    private static final List<String> SEVEN_TAG_ROSTER =
+            List.of("Event", "Site", "Date", "Round", "White", "Black", "Result");
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_WIDTH + 16);
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    public PgnWriter(Path path) throws IOException {
+        this(Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Escreve um jogo seguido de uma linha em branco.
+     * @param game jogo
+     * @throws IOException se a escrita falhar
+     */
+    public void write(PgnGame game) throws IOException {
+        for (String name : SEVEN_TAG_ROSTER) {
+            String value = name.equals("Result") ? game.getResult() : game.getTag(name);
+            writeTag(name, value != null ? value : name.equals("Date") ? "????.??.??" : "?");
+        }
+        for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+            if (!SEVEN_TAG_ROSTER.contains(tag.getKey()))
+                writeTag(tag.getKey(), tag.getValue());
+        }
+        out.write('\n');
+
+        // Numeração a partir da etiqueta FEN (lado a jogar e número do lance), se existir
+        boolean white = true;
+        int number = 1;
+        String fen = game.getTag("FEN");
+        if (fen != null) {
+            String[] fields = fen.trim().split(" ");
+            white = fields.length < 2 || !fields[1].equals("b");
+            if (fields.length > 5) {
+                try {
+                    number = Math.max(1, Integer.parseInt(fields[5]));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+
+        line.setLength(0);
+        boolean first = true;
+        for (String san : game.getMoves()) {
+            if (white)
+                word(number + ".");
+            else if (first)
+                word(number + "...");
+            word(san);
+            if (!white)
+                number++;
+            white = !white;
+            first = false;
+        }
+        word(game.getResult());
+        out.append(line).write("\n\n");
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\')
+                out.write('\\');
+            out.write(ch == '\n' || ch == '\r' ? ' ' : ch);
+        }
+        out.write("\"]\n");
+    }
+
+    private void word(String word) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + word.length() > LINE_WIDTH) {
+            out.append(line).write('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty())
+            line.append(' ');
+        line.append(word);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
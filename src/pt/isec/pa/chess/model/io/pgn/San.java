@@ -0,0 +1,207 @@
+package pt.isec.pa.chess.model.io.pgn;
+
+import pt.isec.pa.chess.model.data.board.Bitboard;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
+import pt.isec.pa.chess.model.data.piece.Piece;
+import pt.isec.pa.chess.model.data.piece.tools.PieceType;
+
+/**
+ * Notação algébrica standard (SAN), ex.: "e4", "Nbd7", "exd6", "O-O-O", "e8=Q+".
+ * A leitura é tolerante: aceita "0-0", promoções sem '=', e ignora '+', '#', '!' e '?'.
+ * Os métodos recebem uma {@link MoveList} auxiliar para não alocarem por movimento.
+ */
+public final class San {
+    private San() {}
+
+    private static final int SIZE = Board.BOARD_SIZE;
+
+    /**
+     * Procura o movimento legal correspondente a um lance em SAN.
+     * @param board tabuleiro
+     * @param whiteToMove lado a jogar
+     * @param san lance em SAN
+     * @param buffer lista auxiliar (o conteúdo é descartado)
+     * @return movimento codificado ou {@link Move#NONE} se não for legal ou for ambíguo
+     */
+    public static int parse(Board board, boolean whiteToMove, CharSequence san, MoveList buffer) {
+        int end = san.length();
+        while (end > 0 && isSuffix(san.charAt(end - 1)))
+            end--;
+        if (end < 2)
+            return Move.NONE;
+
+        buffer.clear();
+        MoveGenerator.generateLegalMoves(board, whiteToMove, buffer);
+
+        // Roque
+        char first = san.charAt(0);
+        if (first == 'O' || first == '0') {
+            int flags = end >= 5 ? Move.QUEEN_CASTLE : Move.KING_CASTLE;
+            for (int i = 0; i < buffer.size(); i++)
+                if (Move.flags(buffer.get(i)) == flags)
+                    return buffer.get(i);
+            return Move.NONE;
+        }
+
+        // Promoção: "e8=Q" ou "e8Q"
+        PieceType promotion = null;
+        char last = san.charAt(end - 1);
+        if (Character.isLetter(last) && last != 'x') {
+            promotion = promotionType(last);
+            if (promotion == null)
+                return Move.NONE;
+            end--;
+            if (end > 0 && san.charAt(end - 1) == '=')
+                end--;
+        }
+        if (end < 2)
+            return Move.NONE;
+
+        int toCol = san.charAt(end - 2) - 'a';
+        int toRow = SIZE - (san.charAt(end - 1) - '0');
+        if (toCol < 0 || toCol >= SIZE || toRow < 0 || toRow >= SIZE)
+            return Move.NONE;
+        int to = Bitboard.square(toRow, toCol);
+
+        int i = 0;
+        PieceType type = PieceType.PAWN;
+        if (Character.isUpperCase(first)) {
+            type = first == 'K' ? PieceType.KING : promotionType(first);
+            if (type == null)
+                return Move.NONE;
+            i++;
+        }
+
+        // Desambiguação (coluna e/ou linha de origem); o 'x' da captura é opcional
+        int fromCol = -1, fromRow = -1;
+        for (; i < end - 2; i++) {
+            char ch = san.charAt(i);
+            if (ch >= 'a' && ch <= 'h')
+                fromCol = ch - 'a';
+            else if (ch >= '1' && ch <= '8')
+                fromRow = SIZE - (ch - '0');
+            else if (ch != 'x' && ch != '-' && ch != ':')
+                return Move.NONE;
+        }
+
+        int found = Move.NONE;
+        for (int m = 0; m < buffer.size(); m++) {
+            int move = buffer.get(m);
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.promotion(move) != promotion || Move.isCastle(move)
+                    || board.getPiece(from).getType() != type
+                    || (fromCol >= 0 && Bitboard.col(from) != fromCol)
+                    || (fromRow >= 0 && Bitboard.row(from) != fromRow))
+                continue;
+            if (found != Move.NONE)
+                return Move.NONE; // ambíguo
+            found = move;
+        }
+        return found;
+    }
+
+    private static boolean isSuffix(char ch) {
+        return ch == '+' || ch == '#' || ch == '!' || ch == '?';
+    }
+
+    private static PieceType promotionType(char ch) {
+        return switch (Character.toUpperCase(ch)) {
+            case 'Q' -> PieceType.QUEEN;
+            case 'R' -> PieceType.ROOK;
+            case 'B' -> PieceType.BISHOP;
+            case 'N' -> PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+
+    /**
+     * Escreve um movimento legal em SAN, incluindo '+' ou '#'.
+     * @param board tabuleiro antes do movimento (fica igual no fim)
+     * @param move movimento codificado
+     * @param buffer lista auxiliar (o conteúdo é descartado)
+     * @param sb destino
+     * @return o próprio {@code sb}
+     */
+    public static StringBuilder append(Board board, int move, MoveList buffer, StringBuilder sb) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = board.getPiece(from);
+        boolean isWhite = piece.isWhite();
+        PieceType type = piece.getType();
+
+        if (Move.isCastle(move)) {
+            sb.append(Move.flags(move) == Move.KING_CASTLE ? "O-O" : "O-O-O");
+        } else if (type == PieceType.PAWN) {
+            if (Move.isCapture(move))
+                sb.append(file(from)).append('x');
+            appendSquare(to, sb);
+            PieceType promotion = Move.promotion(move);
+            if (promotion != null)
+                sb.append('=').append(Character.toUpperCase(promotion.getIcon().charAt(0)));
+        } else {
+            sb.append(Character.toUpperCase(type.getIcon().charAt(0)));
+            appendDisambiguation(board, move, type, isWhite, buffer, sb);
+            if (Move.isCapture(move))
+                sb.append('x');
+            appendSquare(to, sb);
+        }
+
+        board.makeMove(move);
+        if (board.isCheck(PieceType.KING, !isWhite))
+            sb.append(MoveGenerator.hasLegalMoves(board, !isWhite, buffer) ? '+' : '#');
+        board.unmakeMove();
+        return sb;
+    }
+
+    /**
+     * Escreve um movimento legal em SAN.
+     * @param board tabuleiro antes do movimento
+     * @param move movimento codificado
+     * @return lance em SAN
+     */
+    public static String toString(Board board, int move) {
+        return append(board, move, new MoveList(), new StringBuilder(8)).toString();
+    }
+
+    private static void appendDisambiguation(Board board, int move, PieceType type, boolean isWhite,
+                                             MoveList buffer, StringBuilder sb) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean ambiguous = false, sameCol = false, sameRow = false;
+
+        buffer.clear();
+        MoveGenerator.generateLegalMoves(board, isWhite, buffer);
+        for (int i = 0; i < buffer.size(); i++) {
+            int other = Move.from(buffer.get(i));
+            if (other == from || Move.to(buffer.get(i)) != to || board.getPiece(other).getType() != type)
+                continue;
+            ambiguous = true;
+            sameCol |= Bitboard.col(other) == Bitboard.col(from);
+            sameRow |= Bitboard.row(other) == Bitboard.row(from);
+        }
+
+        if (!ambiguous)
+            return;
+        if (!sameCol)
+            sb.append(file(from));
+        else if (!sameRow)
+            sb.append(rank(from));
+        else
+            appendSquare(from, sb);
+    }
+
+    private static char file(int square) {
+        return (char) ('a' + Bitboard.col(square));
+    }
+
+    private static char rank(int square) {
+        return (char) ('0' + SIZE - Bitboard.row(square));
+    }
+
+    private static void appendSquare(int square, StringBuilder sb) {
+        sb.append(file(square)).append(rank(square));
+    }
+}
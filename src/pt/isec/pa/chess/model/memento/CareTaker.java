@@ -1,13 +1,31 @@
 package pt.isec.pa.chess.model.memento;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 
 public class CareTaker {
     IOriginator originator;
     Deque<IMemento> history;
     Deque<IMemento> redoHist;
 
+    /**
+     * Originator com movimentos reversíveis (null no modo de snapshots completos).
+     */
+    IMoveOriginator moveOriginator;
+
+    /**
+     * De quantos em quantos movimentos é guardado um checkpoint completo (modo de movimentos).
+     */
+    int checkpointInterval;
+    /**
+     * Movimentos guardados: desce ao desfazer e sobe ao refazer um movimento,
+     * para que os checkpoints continuem espaçados de {@link #checkpointInterval} movimentos.
+     */
+    int movesSaved;
+
     public CareTaker(IOriginator originator) {
         this.originator= originator;
 
@@ -15,29 +33,126 @@ public class CareTaker {
         redoHist = new ArrayDeque<>();
     }
 
+    /**
+     * Cria um CareTaker em modo de movimentos: cada jogada é guardada com {@link #saveMove()}
+     * como um {@link MoveMemento} e desfeita/refeita pelo próprio originator.
+     * @param originator originator com movimentos reversíveis
+     * @param checkpointInterval intervalo, em movimentos, entre checkpoints completos
+     */
+    public CareTaker(IMoveOriginator originator, int checkpointInterval) {
+        this(originator);
+        this.moveOriginator = originator;
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+    }
+
     public void save() {
         redoHist.clear();
-        history.push(originator.save());
+        history.push(saveState());
     }
 
-    public void undo() {
-        if (history.isEmpty())
+    /**
+     * Estado completo do originator; no modo de movimentos inclui os movimentos já feitos,
+     * para que os movimentos anteriores continuem a poder ser desfeitos depois de o estado ser reposto.
+     */
+    private IMemento saveState() {
+        return moveOriginator != null ? moveOriginator.saveWithHistory() : originator.save();
+    }
+
+    /**
+     * Regista o movimento que o originator acabou de fazer.
+     * Sem originator de movimentos, guarda um snapshot completo.
+     */
+    public void saveMove() {
+        if (moveOriginator == null) {
+            save();
             return;
+        }
 
-        redoHist.push(originator.save());
-        originator.restore(history.pop());
+        redoHist.clear();
+        IMemento checkpoint = ++movesSaved % checkpointInterval == 0 ? originator.save() : null;
+        history.push(new MoveMemento(moveOriginator.getLastMove(), checkpoint));
     }
 
-    public void redo() {
+    /**
+     * Desfaz a última alteração.
+     * @return false se não havia nada a desfazer ou se o estado anterior não pôde ser reposto;
+     *         nesse caso o histórico, que deixou de corresponder ao originator, é apagado
+     */
+    public boolean undo() {
+        if (history.isEmpty())
+            return false;
+
+        IMemento memento = history.pop();
+        if (memento instanceof MoveMemento moveMemento) {
+            if (!undoMove(moveMemento)) {
+                reset();
+                return false;
+            }
+            redoHist.push(moveMemento);
+            movesSaved--;
+            return true;
+        }
+
+        redoHist.push(saveState());
+        originator.restore(memento);
+        return true;
+    }
+
+    /**
+     * Refaz a última alteração desfeita.
+     * @return false se não havia nada a refazer ou se o movimento já não pôde ser refeito;
+     *         nesse caso o histórico para refazer é apagado
+     */
+    public boolean redo() {
         if (redoHist.isEmpty())
-            return;
-        history.push(originator.save());
-        originator.restore(redoHist.pop());
+            return false;
+
+        IMemento memento = redoHist.pop();
+        if (memento instanceof MoveMemento moveMemento) {
+            if (!moveOriginator.redoMove(moveMemento.getMove())) {
+                if (moveMemento.getCheckpoint() == null) {
+                    redoHist.clear();
+                    return false;
+                }
+                originator.restore(moveMemento.getCheckpoint());
+            }
+            history.push(moveMemento);
+            movesSaved++;
+            return true;
+        }
+
+        history.push(saveState());
+        originator.restore(memento);
+        return true;
+    }
+
+    private boolean undoMove(MoveMemento memento) {
+        if (moveOriginator.getLastMove() == memento.getMove() && moveOriginator.undoMove() != 0)
+            return true;
+
+        // O originator perdeu o histórico: repõe o checkpoint mais recente e refaz os movimentos seguintes
+        List<Integer> replay = new ArrayList<>();
+        for (Iterator<IMemento> it = history.iterator(); it.hasNext(); ) {
+            IMemento older = it.next();
+            if (!(older instanceof MoveMemento olderMove))
+                return false;
+            if (olderMove.getCheckpoint() != null) {
+                originator.restore(olderMove.getCheckpoint());
+                for (int i = replay.size() - 1; i >= 0; i--) {
+                    if (!moveOriginator.redoMove(replay.get(i)))
+                        return false;
+                }
+                return true;
+            }
+            replay.add(olderMove.getMove());
+        }
+        return false;
     }
 
     public void reset() {
         history.clear();
         redoHist.clear();
+        movesSaved = 0;
     }
 
     public boolean hasUndo() {
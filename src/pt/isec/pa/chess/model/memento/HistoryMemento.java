@@ -0,0 +1,20 @@
+package pt.isec.pa.chess.model.memento;
+
+/**
+ * Memento de um {@link IMoveOriginator} que também guarda os movimentos que levaram ao estado:
+ * o snapshot é a posição antes do primeiro movimento (ver {@code PositionCodec}) e os movimentos
+ * vão codificados à parte. Ao ser reposto, os movimentos são refeitos, por isso continuam a poder ser desfeitos.
+ */
+public class HistoryMemento extends PositionMemento {
+    private final int[] moves;
+
+    public HistoryMemento(byte[] initial, int[] moves, int fullmoveNumber,
+                          String whitePlayerName, String blackPlayerName, boolean learningMode) {
+        super(initial, fullmoveNumber, whitePlayerName, blackPlayerName, learningMode);
+        this.moves = moves;
+    }
+
+    public int[] getMoves() {
+        return moves.clone();
+    }
+}
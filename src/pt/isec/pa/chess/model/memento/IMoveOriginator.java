@@ -0,0 +1,32 @@
+package pt.isec.pa.chess.model.memento;
+
+/**
+ * Originator cujo estado muda por movimentos reversíveis, permitindo ao {@link CareTaker}
+ * guardar apenas o movimento em vez de uma cópia completa do estado.
+ */
+public interface IMoveOriginator extends IOriginator {
+    /**
+     * @return último movimento feito (codificado) ou 0 se não houver
+     */
+    int getLastMove();
+
+    /**
+     * Desfaz o último movimento.
+     * @return movimento desfeito ou 0 se não houver movimentos
+     */
+    int undoMove();
+
+    /**
+     * Volta a fazer um movimento previamente desfeito.
+     * @param move movimento codificado
+     * @return true se o movimento era legal e foi feito
+     */
+    boolean redoMove(int move);
+
+    /**
+     * Cria um memento do estado que guarda também os movimentos feitos até ele,
+     * para que continuem a poder ser desfeitos depois de o memento ser reposto.
+     * @return memento do estado e do histórico de movimentos
+     */
+    IMemento saveWithHistory();
+}
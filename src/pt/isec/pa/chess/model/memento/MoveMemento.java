@@ -0,0 +1,29 @@
+package pt.isec.pa.chess.model.memento;
+
+/**
+ * Registo compacto de um movimento no histórico.
+ * Opcionalmente guarda um checkpoint completo do estado após o movimento,
+ * usado para recuperar o histórico caso o originator não consiga desfazer o movimento.
+ */
+public class MoveMemento implements IMemento {
+    private final int move;
+    private final IMemento checkpoint;
+
+    public MoveMemento(int move, IMemento checkpoint) {
+        this.move = move;
+        this.checkpoint = checkpoint;
+    }
+
+    public int getMove() {
+        return move;
+    }
+
+    public IMemento getCheckpoint() {
+        return checkpoint;
+    }
+
+    @Override
+    public Object getSnapshot() {
+        return checkpoint == null ? null : checkpoint.getSnapshot();
+    }
+}
@@ -0,0 +1,44 @@
+package pt.isec.pa.chess.model.memento;
+
+/**
+ * Memento com um snapshot binário compacto da posição (ver {@code PositionCodec}), o número
+ * do lance, os nomes dos jogadores e o modo de aprendizagem, em vez da serialização Java completa
+ * do originator. Não guarda o histórico de movimentos (ver {@link HistoryMemento}).
+ */
+public class PositionMemento implements IMemento {
+    private final byte[] snapshot;
+    private final int fullmoveNumber;
+    private final String whitePlayerName;
+    private final String blackPlayerName;
+    private final boolean learningMode;
+
+    public PositionMemento(byte[] snapshot, int fullmoveNumber,
+                           String whitePlayerName, String blackPlayerName, boolean learningMode) {
+        this.snapshot = snapshot;
+        this.fullmoveNumber = fullmoveNumber;
+        this.whitePlayerName = whitePlayerName;
+        this.blackPlayerName = blackPlayerName;
+        this.learningMode = learningMode;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public String getWhitePlayerName() {
+        return whitePlayerName;
+    }
+
+    public String getBlackPlayerName() {
+        return blackPlayerName;
+    }
+
+    public boolean isLearningMode() {
+        return learningMode;
+    }
+
+    @Override
+    public Object getSnapshot() {
+        return snapshot.clone();
+    }
+}
@@ -0,0 +1,73 @@
+package pt.isec.pa.chess.tools;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.engine.Engine;
+import pt.isec.pa.chess.model.engine.SearchLimits;
+import pt.isec.pa.chess.model.engine.SearchResult;
+import pt.isec.pa.chess.model.io.PositionFormat;
+
+/**
+ * Analisa uma posição com o motor, mostrando cada iteração do aprofundamento iterativo
+ * (profundidade, avaliação, nós, tempo, nós por segundo e variante principal).
+ * <p>
+ * Uso: {@code Analyze <posição> [--depth N] [--time ms] [--nodes N] [--hash MB] [--threads N]}
+ */
+public final class Analyze {
+    private Analyze() {}
+
+    private static void print(SearchResult result) {
+        String score = result.isMate() ? "mate " + result.mateIn() : "cp " + result.score();
+        System.out.printf("depth %2d  %-9s  nodes %10d  time %7d ms  nps %9d  hashfull %4d  hit %5.1f%%  pv %s%n",
+                result.depth(), score, result.nodes(), result.nanos() / 1_000_000, result.nps(),
+                result.hashFull(), 100 * result.hashHitRate(), result.pvString());
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: Analyze <position (FEN or export format)> [--depth N] [--time MS] [--nodes N] [--hash MB] [--threads N]");
+            System.exit(1);
+        }
+
+        int depth = 0;
+        long time = 0;
+        long nodes = 0;
+        int hash = Engine.DEFAULT_HASH_MB;
+        int threads = 1;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--time" -> time = Long.parseLong(args[++i]);
+                case "--nodes" -> nodes = Long.parseLong(args[++i]);
+                case "--hash" -> hash = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+        if (depth == 0 && time == 0 && nodes == 0)
+            depth = 6;
+
+        ChessGame game = new ChessGame();
+        if (PositionFormat.isFen(args[0]))
+            game.importFen(args[0]);
+        else
+            game.importGame(args[0]);
+
+        SearchLimits limits = new SearchLimits(depth > 0 ? depth : Integer.MAX_VALUE, nodes, time);
+        Engine engine = new Engine();
+        engine.setHashSize(hash);
+        engine.setThreads(threads);
+        int[] printedDepth = {0};
+        SearchResult result = engine.search(game.getBoard(), game.isWhiteToMove(), limits, iteration -> {
+            print(iteration);
+            printedDepth[0] = iteration.depth();
+        });
+        // Com várias threads, o resultado final pode vir de uma auxiliar que chegou mais fundo
+        if (result.depth() > printedDepth[0])
+            print(result);
+        System.out.println("bestmove " + Move.toString(result.bestMove()));
+    }
+}
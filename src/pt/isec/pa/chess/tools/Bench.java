@@ -0,0 +1,119 @@
+package pt.isec.pa.chess.tools;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.engine.Engine;
+import pt.isec.pa.chess.model.engine.SearchLimits;
+import pt.isec.pa.chess.model.engine.SearchResult;
+
+/**
+ * Benchmark do motor: pesquisa um conjunto fixo de posições até uma profundidade
+ * e mostra, para cada uma, o tempo até à profundidade, os nós e os nós por segundo.
+ * As posições são fixas, e a tabela de transposição é apagada antes de cada uma,
+ * para que os resultados sejam comparáveis entre alterações.
+ * <p>
+ * Com {@code --scaling} o conjunto é pesquisado com 1, 2, 4, ... threads até ao valor de
+ * {@code --threads} (por omissão, o número de processadores), e é mostrado o tempo até à
+ * profundidade e o ganho em relação a uma thread. Antes há uma passagem de aquecimento sem medição,
+ * e cada número de threads é medido várias vezes, ficando o melhor tempo. Em Lazy SMP o ganho
+ * vem sobretudo da tabela de transposição partilhada, por isso o tempo até à profundidade é a medida que interessa;
+ * os nós por segundo somam o trabalho de todas as threads, incluindo o repetido.
+ * <p>
+ * Uso: {@code Bench [profundidade] [--hash MB] [--threads N] [--scaling]}
+ */
+public final class Bench {
+    private Bench() {}
+
+    static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+    };
+
+    private record Totals(long nodes, long nanos) {}
+
+    private static Totals run(Engine engine, int depth, boolean verbose) {
+        long totalNodes = 0;
+        long totalNanos = 0;
+        for (String fen : POSITIONS) {
+            ChessGame game = new ChessGame();
+            game.importFen(fen);
+            engine.clearHash();
+            SearchResult result = engine.search(game, SearchLimits.depth(depth));
+            totalNodes += result.nodes();
+            totalNanos += result.nanos();
+            if (verbose)
+                System.out.printf("%-72s %-6s %6d %12d %9.3f s %10d nps  hit %5.1f%%%n", fen,
+                        Move.toString(result.bestMove()), result.score(), result.nodes(), result.nanos() / 1e9,
+                        result.nps(), 100 * result.hashHitRate());
+        }
+        return new Totals(totalNodes, totalNanos);
+    }
+
+    /** Vezes que o conjunto é pesquisado para cada número de threads no modo {@code --scaling}. */
+    private static final int SCALING_RUNS = 3;
+
+    private static void scaling(Engine engine, int depth, int maxThreads) {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        // Passagem de aquecimento do JIT, para a linha de uma thread não servir de base a frio
+        engine.setThreads(1);
+        run(engine, depth, false);
+
+        System.out.printf("%7s %10s %8s %14s %12s%n", "Threads", "Time (s)", "Speedup", "Nodes", "Nodes/s");
+        double base = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            engine.setThreads(threads);
+            Totals best = null;
+            for (int i = 0; i < SCALING_RUNS; i++) {
+                Totals totals = run(engine, depth, false);
+                if (best == null || totals.nanos() < best.nanos())
+                    best = totals;
+            }
+            double seconds = Math.max(best.nanos() / 1e9, 1e-9);
+            if (threads == 1)
+                base = seconds;
+            System.out.printf("%7d %10.3f %7.2fx %14d %12.0f%s%n", threads, seconds, base / seconds,
+                    best.nodes(), best.nodes() / seconds,
+                    threads > processors ? "  (> " + processors + " processors)" : "");
+            if (threads == maxThreads)
+                break;
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = 5;
+        int hash = Engine.DEFAULT_HASH_MB;
+        int threads = 0;
+        boolean scaling = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--hash" -> hash = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--scaling" -> scaling = true;
+                default -> depth = Integer.parseInt(args[i]);
+            }
+        }
+
+        Engine engine = new Engine();
+        engine.setHashSize(hash);
+        if (scaling) {
+            int maxThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+            System.out.println("Depth: " + depth + ", processors: " + Runtime.getRuntime().availableProcessors());
+            scaling(engine, depth, maxThreads);
+            return;
+        }
+
+        engine.setThreads(Math.max(1, threads));
+        Totals totals = run(engine, depth, true);
+        System.out.println();
+        System.out.println("Depth: " + depth);
+        System.out.println("Threads: " + engine.getThreads());
+        System.out.println("Nodes: " + totals.nodes());
+        System.out.printf("Time: %.3f s%n", totals.nanos() / 1e9);
+        System.out.printf("Nodes/s: %.0f%n", totals.nodes() / Math.max(totals.nanos() / 1e9, 1e-9));
+    }
+}
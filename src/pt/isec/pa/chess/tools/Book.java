@@ -0,0 +1,86 @@
+package pt.isec.pa.chess.tools;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.book.PolyglotBook;
+import pt.isec.pa.chess.model.book.PolyglotBookBuilder;
+import pt.isec.pa.chess.model.book.PolyglotKey;
+import pt.isec.pa.chess.model.db.GameDatabase;
+import pt.isec.pa.chess.model.io.PositionFormat;
+import pt.isec.pa.chess.model.io.pgn.PgnReader;
+import pt.isec.pa.chess.model.io.pgn.San;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ferramenta de linha de comandos para criar e consultar livros de aberturas Polyglot.
+ * <p>
+ * Uso:
+ * <ul>
+ *     <li>{@code Book build <livro.bin> <ficheiro.pgn ou pasta da base de dados>...}: cria o livro;</li>
+ *     <li>{@code Book probe <livro.bin> <posição (FEN ou export)>}: mostra os movimentos do livro.</li>
+ * </ul>
+ */
+public final class Book {
+    private Book() {}
+
+    private static void build(Path output, String[] inputs) throws IOException {
+        long start = System.nanoTime();
+        long rejected = 0;
+        PolyglotBookBuilder builder = new PolyglotBookBuilder();
+        for (String input : inputs) {
+            Path path = Path.of(input);
+            if (Files.isDirectory(path)) {
+                try (GameDatabase database = GameDatabase.open(path)) {
+                    builder.addAll(database);
+                }
+            } else {
+                try (PgnReader reader = new PgnReader(path)) {
+                    rejected += builder.addAll(reader);
+                }
+            }
+        }
+        int entries = builder.write(output);
+
+        System.out.println("Games: " + builder.getGameCount());
+        System.out.println("Rejected: " + rejected);
+        System.out.println("Entries: " + entries);
+        System.out.printf("Time: %.3f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void probe(Path file, String position) throws IOException {
+        ChessGame game = new ChessGame();
+        if (PositionFormat.isFen(position))
+            game.importFen(position);
+        else
+            game.importGame(position);
+
+        PolyglotBook book = PolyglotBook.open(file);
+        List<PolyglotBook.BookMove> moves = book.getMoves(game);
+        long total = 0;
+        for (PolyglotBook.BookMove move : moves)
+            total += move.weight();
+        for (PolyglotBook.BookMove move : moves) {
+            System.out.printf("%-8s %6d  %5.1f%%%n", San.toString(game.getBoard(), move.move()), move.weight(),
+                    total == 0 ? 0.0 : 100.0 * move.weight() / total);
+        }
+        System.out.println();
+        System.out.printf("Key: %016x%n", PolyglotKey.compute(game.getBoard(), game.isWhiteToMove()));
+        System.out.println("Moves: " + moves.size());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("build")) {
+            build(Path.of(args[1]), Arrays.copyOfRange(args, 2, args.length));
+        } else if (args.length >= 3 && args[0].equals("probe")) {
+            probe(Path.of(args[1]), args[2]);
+        } else {
+            System.err.println("Usage: Book build <book.bin> <file.pgn or database directory>...");
+            System.err.println("       Book probe <book.bin> <position (FEN or export format)>");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package pt.isec.pa.chess.tools;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.db.GameDatabase;
+import pt.isec.pa.chess.model.db.GameDatabaseBuilder;
+import pt.isec.pa.chess.model.db.OpeningExplorer;
+import pt.isec.pa.chess.model.db.OpeningExplorerBuilder;
+import pt.isec.pa.chess.model.io.PositionFormat;
+import pt.isec.pa.chess.model.io.pgn.San;
+import pt.isec.pa.chess.model.io.pgn.PgnReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ferramenta de linha de comandos para criar e consultar bases de dados de jogos ({@link GameDatabase}).
+ * <p>
+ * Uso:
+ * <ul>
+ *     <li>{@code GameDb build <pasta> <ficheiro.pgn>...}: cria a base de dados com os jogos válidos;</li>
+ *     <li>{@code GameDb query <pasta> <posição (FEN ou export)> [limite]}: lista os jogos que atingiram a posição;</li>
+ *     <li>{@code GameDb explorer <pasta> <ficheiro> [--max-ply N] [--min-games N] [--threads N]}:
+ *     calcula as estatísticas de aberturas ({@link OpeningExplorer}) de todos os jogos;</li>
+ *     <li>{@code GameDb explore <ficheiro> <posição (FEN ou export)>}: mostra as estatísticas de uma posição.</li>
+ * </ul>
+ */
+public final class GameDb {
+    private GameDb() {}
+
+    private static void build(Path directory, String[] files) throws IOException {
+        long start = System.nanoTime();
+        long rejected = 0;
+        int games;
+        long positions;
+        try (GameDatabaseBuilder builder = new GameDatabaseBuilder(directory)) {
+            for (String file : files) {
+                try (PgnReader reader = new PgnReader(Path.of(file))) {
+                    rejected += builder.addAll(reader);
+                }
+            }
+            games = builder.getGameCount();
+            positions = builder.getPositionCount();
+        }
+
+        System.out.println("Games: " + games);
+        System.out.println("Rejected: " + rejected);
+        System.out.println("Positions: " + positions);
+        System.out.printf("Time: %.3f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    private static ChessGame parsePosition(String position) {
+        ChessGame game = new ChessGame();
+        if (PositionFormat.isFen(position))
+            game.importFen(position);
+        else
+            game.importGame(position);
+        return game;
+    }
+
+    private static void query(Path directory, String position, int limit) throws IOException {
+        ChessGame game = parsePosition(position);
+
+        try (GameDatabase database = GameDatabase.open(directory)) {
+            long start = System.nanoTime();
+            long occurrences = database.count(game.getPositionHash());
+            int[] ids = database.findGames(game, limit);
+            long elapsed = System.nanoTime() - start;
+
+            for (int id : ids) {
+                GameDatabase.GameInfo info = database.getGameInfo(id);
+                System.out.println("#" + id + " " + info.whitePlayer() + " - " + info.blackPlayer()
+                        + " " + info.result() + " (" + info.plies() + " plies)");
+            }
+            System.out.println();
+            System.out.println("Occurrences: " + occurrences);
+            System.out.printf("Lookup: %.1f us%n", elapsed / 1e3);
+        }
+    }
+
+    private static void buildExplorer(Path directory, Path output, String[] options) throws IOException {
+        int maxPly = OpeningExplorerBuilder.DEFAULT_MAX_PLY;
+        int minGames = OpeningExplorerBuilder.DEFAULT_MIN_GAMES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < options.length; i++) {
+            switch (options[i]) {
+                case "--max-ply" -> maxPly = Integer.parseInt(options[++i]);
+                case "--min-games" -> minGames = Integer.parseInt(options[++i]);
+                case "--threads" -> threads = Integer.parseInt(options[++i]);
+                default -> {
+                    System.err.println("Unknown option: " + options[i]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        OpeningExplorerBuilder.Summary summary;
+        try (GameDatabase database = GameDatabase.open(directory)) {
+            summary = new OpeningExplorerBuilder(maxPly, minGames, threads).build(database, output);
+        }
+
+        System.out.println("Games: " + summary.games());
+        System.out.println("Positions: " + summary.positions());
+        System.out.println("Moves: " + summary.moves());
+        System.out.printf("Time: %.3f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void explore(Path file, String position) throws IOException {
+        ChessGame game = parsePosition(position);
+        OpeningExplorer explorer = OpeningExplorer.open(file);
+
+        long start = System.nanoTime();
+        List<OpeningExplorer.MoveStats> stats = explorer.lookup(game);
+        long elapsed = System.nanoTime() - start;
+
+        for (OpeningExplorer.MoveStats move : stats) {
+            System.out.printf("%-8s %8d games  +%5.1f%%  =%5.1f%%  -%5.1f%%%n",
+                    San.toString(game.getBoard(), move.move()), move.games(),
+                    move.whitePercent(), move.drawPercent(), move.blackPercent());
+        }
+        System.out.println();
+        System.out.println("Moves: " + stats.size());
+        System.out.printf("Lookup: %.1f us%n", elapsed / 1e3);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("build")) {
+            build(Path.of(args[1]), Arrays.copyOfRange(args, 2, args.length));
+        } else if (args.length >= 3 && args[0].equals("query")) {
+            query(Path.of(args[1]), args[2], args.length > 3 ? Integer.parseInt(args[3]) : 20);
+        } else if (args.length >= 3 && args[0].equals("explorer")) {
+            buildExplorer(Path.of(args[1]), Path.of(args[2]), Arrays.copyOfRange(args, 3, args.length));
+        } else if (args.length >= 3 && args[0].equals("explore")) {
+            explore(Path.of(args[1]), args[2]);
+        } else {
+            System.err.println("Usage: GameDb build <directory> <file.pgn>...");
+            System.err.println("       GameDb query <directory> <position (FEN or export format)> [limit]");
+            System.err.println("       GameDb explorer <directory> <output> [--max-ply N] [--min-games N] [--threads N]");
+            System.err.println("       GameDb explore <file> <position (FEN or export format)>");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package pt.isec.pa.chess.tools;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
+import pt.isec.pa.chess.model.data.board.Zobrist;
+import pt.isec.pa.chess.model.io.PositionFormat;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ferramenta de linha de comandos para contar os nós da árvore de movimentos legais (perft).
+ * Serve para validar o gerador de movimentos contra valores publicados e para medir o seu desempenho.
+ * <p>
+ * Uso: {@code Perft <posição> <profundidade> [--divide] [--threads N] [--hash MB]}
+ * <ul>
+ *     <li>a posição pode estar em FEN ou no formato de {@link ChessGame#exportGame()};</li>
+ *     <li>{@code --divide} mostra os nós de cada movimento da raiz;</li>
+ *     <li>{@code --threads} divide os movimentos da raiz por uma pool fork-join;</li>
+ *     <li>{@code --hash} reutiliza contagens de subárvores já calculadas numa tabela partilhada.</li>
+ * </ul>
+ */
+public final class Perft {
+    private final Board board;
+    private final boolean whiteToMove;
+    private final PerftTable table;
+    private final MoveList[] moveLists;
+
+    /**
+     * Cria um contador perft sobre uma cópia própria do tabuleiro.
+     * @param board tabuleiro inicial
+     * @param whiteToMove lado a jogar
+     * @param table tabela de hash partilhada ou null
+     */
+    public Perft(Board board, boolean whiteToMove, PerftTable table) {
+        this.board = board.copy();
+        this.whiteToMove = whiteToMove;
+        this.table = table;
+        this.moveLists = new MoveList[64];
+        for (int i = 0; i < moveLists.length; i++)
+            moveLists[i] = new MoveList();
+    }
+
+    /**
+     * Conta as posições folha à profundidade indicada.
+     * @param depth profundidade (>= 0; a profundidade 0 conta só a própria posição)
+     * @return número de nós
+     * @throws IllegalArgumentException se a profundidade for negativa
+     */
+    public long perft(int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Profundidade inválida: " + depth);
+        if (depth == 0)
+            return 1;
+        return perft(whiteToMove, depth, 0);
+    }
+
+    private long perft(boolean isWhite, int depth, int ply) {
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.generateLegalMoves(board, isWhite, moves);
+        if (depth == 1)
+            return moves.size();
+
+        long hash = 0;
+        if (table != null) {
+            hash = board.getHash() ^ (isWhite ? 0L : Zobrist.SIDE);
+            long cached = table.get(hash, depth);
+            if (cached >= 0)
+                return cached;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(!isWhite, depth - 1, ply + 1);
+            board.unmakeMove();
+        }
+
+        if (table != null)
+            table.put(hash, depth, nodes);
+        return nodes;
+    }
+
+    /**
+     * Conta os nós de cada movimento da raiz (perft divide).
+     * @param board tabuleiro inicial
+     * @param whiteToMove lado a jogar
+     * @param depth profundidade (>= 1)
+     * @param threads número de threads (1 = sequencial)
+     * @param table tabela de hash partilhada ou null
+     * @return contagens por movimento da raiz, pela ordem gerada
+     * @throws IllegalArgumentException se a profundidade for menor que 1
+     */
+    public static List<Divide> divide(Board board, boolean whiteToMove, int depth, int threads, PerftTable table) {
+        if (depth < 1)
+            throw new IllegalArgumentException("Profundidade inválida: " + depth);
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.generateLegalMoves(board, whiteToMove, rootMoves);
+
+        List<RootTask> tasks = new ArrayList<>(rootMoves.size());
+        for (int i = 0; i < rootMoves.size(); i++)
+            tasks.add(new RootTask(board, whiteToMove, rootMoves.get(i), depth, table));
+
+        if (threads > 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.submit(() -> RecursiveTask.invokeAll(tasks)).join();
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            tasks.forEach(RootTask::invoke);
+        }
+
+        List<Divide> result = new ArrayList<>(tasks.size());
+        for (RootTask task : tasks)
+            result.add(new Divide(task.move, task.join()));
+        return result;
+    }
+
+    /**
+     * Contagem de nós de um movimento da raiz.
+     * @param move movimento codificado
+     * @param nodes nós da subárvore
+     */
+    public record Divide(int move, long nodes) {}
+
+    /**
+     * Tarefa que conta a subárvore de um movimento da raiz, numa cópia do tabuleiro.
+     */
+    private static final class RootTask extends RecursiveTask<Long> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final boolean whiteToMove;
+        private final int move;
+        private final int depth;
+        private final PerftTable table;
+
+        RootTask(Board board, boolean whiteToMove, int move, int depth, PerftTable table) {
+            this.board = board;
+            this.whiteToMove = whiteToMove;
+            this.move = move;
+            this.depth = depth;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth == 1)
+                return 1L;
+            Board copy = board.copy();
+            copy.makeMove(move);
+            return new Perft(copy, !whiteToMove, table).perft(depth - 1);
+        }
+    }
+
+    /**
+     * Tabela de hash de tamanho fixo (potência de 2) com as contagens de subárvores.
+     * Cada entrada guarda a chave XOR o valor, para que leituras e escritas concorrentes
+     * sem locks nunca devolvam uma contagem de outra posição.
+     */
+    public static final class PerftTable {
+        private final long[] keys;
+        private final long[] values;
+        private final int mask;
+
+        /**
+         * @param megabytes tamanho aproximado da tabela em MB
+         */
+        public PerftTable(int megabytes) {
+            long entries = Math.max(1L, (long) megabytes * 1024 * 1024 / 16);
+            int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+            keys = new long[size];
+            values = new long[size];
+            mask = size - 1;
+        }
+
+        private static long key(long hash, int depth) {
+            return hash ^ (depth * 0x9E3779B97F4A7C15L);
+        }
+
+        long get(long hash, int depth) {
+            long key = key(hash, depth);
+            int index = (int) key & mask;
+            long value = values[index];
+            return (keys[index] ^ value) == key ? value : -1;
+        }
+
+        void put(long hash, int depth, long nodes) {
+            long key = key(hash, depth);
+            int index = (int) key & mask;
+            keys[index] = key ^ nodes;
+            values[index] = nodes;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: Perft <position (FEN or export format)> <depth> [--divide] [--threads N] [--hash MB]");
+            System.exit(1);
+        }
+
+        int depth;
+        try {
+            depth = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            depth = 0;
+        }
+        if (depth < 1) {
+            System.err.println("Invalid depth: " + args[1] + " (must be at least 1)");
+            System.exit(1);
+        }
+        boolean showDivide = false;
+        int threads = 1;
+        int hashMegabytes = 0;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--divide" -> showDivide = true;
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--hash" -> hashMegabytes = Integer.parseInt(args[++i]);
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        try {
+            if (PositionFormat.isFen(args[0]))
+                game.importFen(args[0]);
+            else
+                game.importGame(args[0]);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid position: " + e.getMessage());
+            System.exit(1);
+        }
+
+        PerftTable table = hashMegabytes > 0 ? new PerftTable(hashMegabytes) : null;
+
+        long start = System.nanoTime();
+        List<Divide> divide = divide(game.getBoard(), game.isWhiteToMove(), depth, threads, table);
+        long elapsed = System.nanoTime() - start;
+
+        long nodes = 0;
+        for (Divide entry : divide) {
+            if (showDivide)
+                System.out.println(Move.toString(entry.move()) + ": " + entry.nodes());
+            nodes += entry.nodes();
+        }
+
+        double seconds = elapsed / 1e9;
+        System.out.println();
+        System.out.println("Moves: " + divide.size());
+        System.out.println("Nodes: " + nodes);
+        System.out.printf("Time: %.3f s%n", seconds);
+        System.out.printf("NPS: %.0f%n", nodes / Math.max(seconds, 1e-9));
+    }
+}
@@ -0,0 +1,328 @@
+package pt.isec.pa.chess.tools;
+
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.MoveList;
+import pt.isec.pa.chess.model.io.GameFile;
+import pt.isec.pa.chess.model.io.pgn.PgnException;
+import pt.isec.pa.chess.model.io.pgn.PgnGame;
+import pt.isec.pa.chess.model.io.pgn.PgnReader;
+import pt.isec.pa.chess.model.io.pgn.PgnWriter;
+import pt.isec.pa.chess.model.io.pgn.San;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Processamento em lote de ficheiros PGN: valida todos os lances de todos os jogos e,
+ * opcionalmente, converte cada jogo para outro formato.
+ * <p>
+ * O ficheiro é lido sequencialmente por um {@link PgnReader} e dividido em blocos de jogos,
+ * que são validados e convertidos em paralelo numa pool fork-join. O número de blocos em
+ * processamento é limitado, por isso a memória usada não depende do tamanho do ficheiro.
+ * Os resultados são escritos pela ordem do ficheiro ou, com {@code --unordered}, à medida
+ * que ficam prontos.
+ * <p>
+ * Uso: {@code PgnBatch <ficheiro.pgn> [--format none|fen|export|pgn|binary] [--output caminho]
+ * [--threads N] [--chunk N] [--unordered]}
+ * <ul>
+ *     <li>{@code fen}/{@code export}: uma linha por jogo com a posição final;</li>
+ *     <li>{@code pgn}: os jogos válidos reescritos em PGN normalizado (etiquetas originais,
+ *     SAN gerado a partir dos lances validados);</li>
+ *     <li>{@code binary}: um ficheiro {@link GameFile} por jogo, na pasta de saída.</li>
+ * </ul>
+ * Os jogos com erros são indicados no stderr (número do jogo e linha) e não são convertidos.
+ */
+public final class PgnBatch {
+    /**
+     * Formato de saída dos jogos convertidos.
+     */
+    public enum Format { NONE, FEN, EXPORT, PGN, BINARY }
+
+    /**
+     * Totais de uma execução.
+     * @param games jogos lidos
+     * @param errors jogos com erros de sintaxe ou lances ilegais
+     * @param plies meios-lances validados
+     * @param nanos tempo total
+     */
+    public record Summary(long games, long errors, long plies, long nanos) {
+        public double gamesPerSecond() {
+            return games / Math.max(nanos / 1e9, 1e-9);
+        }
+    }
+
+    /**
+     * Jogo lido do ficheiro, ou o erro de sintaxe que impediu a sua leitura.
+     */
+    private record Entry(long index, PgnGame game, String syntaxError) {}
+
+    private record Outcome(long index, String text, String error, int plies) {}
+
+    private record Chunk(long sequence, List<Outcome> outcomes) {}
+
+    private final Format format;
+    private final int threads;
+    private final int chunkSize;
+    private final boolean ordered;
+
+    /**
+     * @param format formato de saída
+     * @param threads número de threads da pool
+     * @param chunkSize número de jogos por bloco
+     * @param ordered se os resultados devem sair pela ordem do ficheiro
+     */
+    public PgnBatch(Format format, int threads, int chunkSize, boolean ordered) {
+        this.format = format;
+        this.threads = Math.max(1, threads);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.ordered = ordered;
+    }
+
+    /**
+     * Processa um ficheiro PGN.
+     * @param input ficheiro PGN
+     * @param output ficheiro de saída (pasta no formato binário) ou null para apenas validar
+     * @param errors destino das mensagens de erro
+     * @return totais da execução
+     * @throws IOException se a leitura ou a escrita falharem
+     */
+    public Summary run(Path input, Path output, PrintStream errors) throws IOException {
+        long start = System.nanoTime();
+        if (format == Format.BINARY && output != null)
+            Files.createDirectories(output);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        CompletionService<Chunk> completion = new ExecutorCompletionService<>(pool);
+        int maxInFlight = threads * 4;
+
+        try (PgnReader reader = new PgnReader(input);
+             Writer out = output != null && format != Format.BINARY && format != Format.NONE
+                     ? Files.newBufferedWriter(output, StandardCharsets.UTF_8) : null) {
+            Sink sink = new Sink(out, errors);
+
+            long index = 0;
+            long submitted = 0;
+            int inFlight = 0;
+            List<Entry> entries = new ArrayList<>(chunkSize);
+            boolean eof = false;
+
+            while (!eof) {
+                // Os erros de sintaxe seguem no bloco do jogo, para saírem pela mesma ordem que os restantes
+                PgnGame game = null;
+                String syntaxError = null;
+                try {
+                    game = reader.next();
+                } catch (PgnException e) {
+                    syntaxError = e.getMessage();
+                }
+                if (game != null || syntaxError != null)
+                    entries.add(new Entry(++index, game, syntaxError));
+                eof = game == null && syntaxError == null;
+
+                if (!entries.isEmpty() && (entries.size() == chunkSize || eof)) {
+                    long sequence = submitted++;
+                    List<Entry> chunkEntries = entries;
+                    completion.submit(() -> process(sequence, chunkEntries, output));
+                    entries = new ArrayList<>(chunkSize);
+                    inFlight++;
+                }
+
+                // Limita os blocos pendentes (em processamento ou à espera da sua vez)
+                while (inFlight > 0 && (sink.pending() + inFlight >= maxInFlight || eof)) {
+                    sink.accept(take(completion));
+                    inFlight--;
+                }
+            }
+            sink.flush();
+
+            return new Summary(index, sink.errors, sink.plies, System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Chunk take(CompletionService<Chunk> completion) throws IOException {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Processamento interrompido", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao processar jogos: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private Chunk process(long sequence, List<Entry> entries, Path output) {
+        List<Outcome> outcomes = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            PgnGame pgn = entry.game();
+            long index = entry.index();
+            if (pgn == null) {
+                outcomes.add(new Outcome(index, null, entry.syntaxError(), 0));
+                continue;
+            }
+            try {
+                ChessGame game = pgn.toChessGame();
+                outcomes.add(new Outcome(index, convert(index, pgn, game, output), null,
+                        game.getBoard().getPly()));
+            } catch (IOException e) {
+                outcomes.add(new Outcome(index, null, e.getMessage(), 0));
+            }
+        }
+        return new Chunk(sequence, outcomes);
+    }
+
+    private String convert(long index, PgnGame pgn, ChessGame game, Path output) throws IOException {
+        return switch (format) {
+            case NONE -> null;
+            case FEN -> game.exportFen();
+            case EXPORT -> game.exportGame();
+            case PGN -> {
+                StringWriter text = new StringWriter();
+                PgnWriter writer = new PgnWriter(text);
+                writer.write(normalized(pgn, game));
+                yield text.toString();
+            }
+            case BINARY -> {
+                if (output != null)
+                    GameFile.write(game, output.resolve(String.format("%08d.chess", index)));
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * Jogo PGN com as etiquetas e o resultado do original e o SAN gerado de novo a partir dos
+     * lances validados (sem anotações, com a desambiguação e os sinais de xeque corretos).
+     * @param pgn jogo lido
+     * @param game o mesmo jogo reproduzido (o tabuleiro fica igual no fim)
+     */
+    private static PgnGame normalized(PgnGame pgn, ChessGame game) {
+        PgnGame normalized = new PgnGame();
+        for (Map.Entry<String, String> tag : pgn.getTags().entrySet())
+            normalized.setTag(tag.getKey(), tag.getValue());
+        normalized.setResult(pgn.getResult());
+
+        Board board = game.getBoard();
+        int[] history = new int[board.getPly()];
+        for (int i = 0; i < history.length; i++)
+            history[i] = board.getMove(i);
+        for (int i = 0; i < history.length; i++)
+            board.unmakeMove();
+
+        MoveList buffer = new MoveList();
+        StringBuilder san = new StringBuilder(8);
+        for (int move : history) {
+            san.setLength(0);
+            normalized.addMove(San.append(board, move, buffer, san).toString());
+            board.makeMove(move);
+        }
+        return normalized;
+    }
+
+    /**
+     * Recebe os blocos processados (na thread principal) e escreve-os,
+     * respeitando a ordem do ficheiro se necessário.
+     */
+    private final class Sink {
+        private final Writer out;
+        private final PrintStream log;
+        private final Map<Long, Chunk> waiting = new HashMap<>();
+        private long nextSequence;
+        long errors;
+        long plies;
+
+        Sink(Writer out, PrintStream log) {
+            this.out = out;
+            this.log = log;
+        }
+
+        int pending() {
+            return waiting.size();
+        }
+
+        void accept(Chunk chunk) throws IOException {
+            if (!ordered) {
+                write(chunk);
+                return;
+            }
+            waiting.put(chunk.sequence(), chunk);
+            for (Chunk next = waiting.remove(nextSequence); next != null; next = waiting.remove(nextSequence)) {
+                write(next);
+                nextSequence++;
+            }
+        }
+
+        private void write(Chunk chunk) throws IOException {
+            for (Outcome outcome : chunk.outcomes()) {
+                plies += outcome.plies();
+                if (outcome.error() != null) {
+                    errors++;
+                    log.println("Game " + outcome.index() + ": " + outcome.error());
+                } else if (out != null && outcome.text() != null) {
+                    out.write(outcome.text());
+                    if (format != Format.PGN)
+                        out.write('\n');
+                }
+            }
+        }
+
+        void flush() throws IOException {
+            if (out != null)
+                out.flush();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: PgnBatch <input.pgn> [--format none|fen|export|pgn|binary] [--output PATH]"
+                    + " [--threads N] [--chunk N] [--unordered]");
+            System.exit(1);
+        }
+
+        Format format = Format.NONE;
+        Path output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkSize = 256;
+        boolean ordered = true;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--format" -> format = Format.valueOf(args[++i].toUpperCase());
+                case "--output" -> output = Path.of(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--chunk" -> chunkSize = Integer.parseInt(args[++i]);
+                case "--unordered" -> ordered = false;
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+        if (format != Format.NONE && output == null) {
+            System.err.println("--output is required with --format " + format.name().toLowerCase());
+            System.exit(1);
+        }
+
+        Summary summary = new PgnBatch(format, threads, chunkSize, ordered).run(Path.of(args[0]), output, System.err);
+
+        System.out.println("Games: " + summary.games());
+        System.out.println("Errors: " + summary.errors());
+        System.out.println("Plies: " + summary.plies());
+        System.out.printf("Time: %.3f s%n", summary.nanos() / 1e9);
+        System.out.printf("Games/s: %.0f%n", summary.gamesPerSecond());
+    }
+}
@@ -37,7 +37,7 @@ public class AudioPlayer {
                     specialMove = gameManager.getSpecialMove();
             if (endState != null)
                 effect = switch (endState) {
-                    case "Stalemate" -> "game-draw";
+                    case "Stalemate", "Draw" -> "game-draw";
                     case "White Won" -> "game-win";
                     case "Black Won" -> "game-lose";
                     case "White is in Check", "Black is in Check" -> "move-check";
@@ -156,7 +156,11 @@ public class BoardEditor {
         if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
             // Clear the board by importing an empty game state
             String emptyBoard = gameManager.getWhitePlayerName() + "-" + gameManager.getBlackPlayerName() + ",WHITE,";
-            gameManager.importGame(emptyBoard);
+            try {
+                gameManager.importGame(emptyBoard);
+            } catch (ChessGameManager.ChessException e) {
+                System.out.println("Erro ao limpar o tabuleiro: " + e.getMessage());
+            }
             boardCanvas.update();
         }
     }
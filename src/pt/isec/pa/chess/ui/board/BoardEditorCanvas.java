@@ -81,7 +81,7 @@ public class BoardEditorCanvas extends Canvas {
 
         // Reconstruct the game state
         String newState = parts[0] + "," + parts[1] + "," + newPieces.toString();
-        gameManager.importGame(newState);
+        importState(newState);
     }
 
     public void removePieceAt(Position position) {
@@ -108,7 +108,15 @@ public class BoardEditorCanvas extends Canvas {
 
         // Reconstruct the game state
         String newState = parts[0] + "," + parts[1] + "," + newPieces.toString();
-        gameManager.importGame(newState);
+        importState(newState);
+    }
+
+    private void importState(String state) {
+        try {
+            gameManager.importGame(state);
+        } catch (ChessGameManager.ChessException e) {
+            System.out.println("Erro ao editar o tabuleiro: " + e.getMessage());
+        }
     }
 
     public void update() {
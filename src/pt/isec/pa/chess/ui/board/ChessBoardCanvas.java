@@ -179,13 +179,14 @@ public class ChessBoardCanvas extends Canvas {
         gc.setFont(new Font(fontSize));
 
         String text = "";
-        if (gameManager.getWinner() == 2)
+        int winner = gameManager.getWinner();
+        if (winner == 2)
             text = "White Won!";
-        else if (gameManager.getWinner() == -2)
+        else if (winner == -2)
             text = "Black Won!";
-        else if (gameManager.getWinner() == 1)
+        else if (winner == 1)
             text = "White Is Check!";
-        else if (gameManager.getWinner() == -1)
+        else if (winner == -1)
             text = "Black Is Check!";
 
         String whitePlayer = gameManager.getCurrentPlayer().equals("WHITE") ?
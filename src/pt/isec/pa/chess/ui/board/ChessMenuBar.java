@@ -115,12 +115,16 @@ public class ChessMenuBar extends MenuBar {
         fileChooser.setInitialDirectory(new File("."));
         fileChooser.getExtensionFilters().addAll(
                 new FileChooser.ExtensionFilter("Chess file (*.chess)", "*.chess"),
+                new FileChooser.ExtensionFilter("PGN file (*.pgn)", "*.pgn"),
                 new FileChooser.ExtensionFilter("All Files", "*.*"));
 
         File file = fileChooser.showOpenDialog(this.getScene().getWindow());
         if (file != null) {
             try {
-                gameManager.loadGame(file.getAbsolutePath());
+                if (isPgn(file))
+                    gameManager.loadPgn(file.getAbsolutePath());
+                else
+                    gameManager.loadGame(file.getAbsolutePath());
                 System.out.println("Jogo carregado com sucesso!");
                 System.out.println(gameManager.exportGame());
             } catch (ChessGameManager.ChessException e) {
@@ -135,12 +139,16 @@ public class ChessMenuBar extends MenuBar {
         fileChooser.setInitialDirectory(new File("."));
         fileChooser.getExtensionFilters().addAll(
                 new FileChooser.ExtensionFilter("Chess file (*.chess)", "*.chess"),
+                new FileChooser.ExtensionFilter("PGN file (*.pgn)", "*.pgn"),
                 new FileChooser.ExtensionFilter("All Files", "*.*"));
 
         File file = fileChooser.showSaveDialog(this.getScene().getWindow());
         if (file != null) {
             try {
-                gameManager.saveGame(file.getAbsolutePath());
+                if (isPgn(file))
+                    gameManager.savePgn(file.getAbsolutePath());
+                else
+                    gameManager.saveGame(file.getAbsolutePath());
                 System.out.println("Jogo salvo com sucesso!");
             } catch (ChessGameManager.ChessException e) {
                 throw new RuntimeException(e);
@@ -148,6 +156,10 @@ public class ChessMenuBar extends MenuBar {
         }
     }
 
+    private static boolean isPgn(File file) {
+        return file.getName().toLowerCase().endsWith(".pgn");
+    }
+
     private void importGame() {
         //askNames();
 
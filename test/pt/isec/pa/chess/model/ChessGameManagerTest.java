@@ -0,0 +1,63 @@
+package pt.isec.pa.chess.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import pt.isec.pa.chess.model.data.board.Position;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ChessGameManagerTest {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private ChessGameManager manager;
+
+    @Before
+    public void createManager() {
+        manager = new ChessGameManager();
+        manager.resetGame();
+    }
+
+    @Test
+    public void invalidImportLeavesTheGameAndHistoryUntouched() {
+        assertThrows(ChessGameManager.ChessException.class, () -> manager.importGame("WHITE,Ke1,Xz9"));
+        assertThrows(ChessGameManager.ChessException.class, () -> manager.importGame("8/8/8/8/8/8/8/8 w - - 0 1"));
+        assertEquals(START, manager.exportFen());
+
+        // Nenhum estado foi guardado para desfazer
+        manager.undo();
+        assertEquals(START, manager.exportFen());
+    }
+
+    @Test
+    public void importCanBeUndone() throws ChessGameManager.ChessException {
+        manager.importGame("4k3/8/8/8/8/8/8/4K3 b - - 0 1");
+        assertEquals("4k3/8/8/8/8/8/8/4K3 b - - 0 1", manager.exportFen());
+
+        manager.undo();
+        assertEquals(START, manager.exportFen());
+    }
+
+    @Test
+    public void undoingAnImportRestoresNamesModeAndMoves() throws ChessGameManager.ChessException {
+        manager.setPlayerNames("Ana", "Rui");
+        manager.setLearningMode(true);
+        assertTrue(manager.makeMove(new Position(6, 4), new Position(4, 4)));
+        String afterMove = manager.exportFen();
+
+        manager.importGame("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        manager.setPlayerNames("Outro", "Jogador");
+        manager.setLearningMode(false);
+
+        manager.undo();
+        assertEquals(afterMove, manager.exportFen());
+        assertEquals("Ana", manager.getWhitePlayerName());
+        assertEquals("Rui", manager.getBlackPlayerName());
+        assertTrue(manager.isLearningMode());
+
+        // O lance feito antes da importação continua a poder ser desfeito
+        manager.undo();
+        assertEquals(START, manager.exportFen());
+    }
+}
@@ -0,0 +1,43 @@
+package pt.isec.pa.chess.model.book;
+
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Chaves de referência da especificação do formato Polyglot.
+ */
+public class PolyglotKeyTest {
+    private static long keyAfter(String... moves) {
+        ChessGame game = new ChessGame();
+        game.initializeBoard();
+        MoveList legal = new MoveList();
+        for (String uci : moves) {
+            legal.clear();
+            MoveGenerator.generateLegalMoves(game.getBoard(), game.isWhiteToMove(), legal);
+            int move = Move.NONE;
+            for (int i = 0; i < legal.size(); i++)
+                if (Move.toString(legal.get(i)).equals(uci))
+                    move = legal.get(i);
+            game.redoMove(move);
+        }
+        return PolyglotKey.compute(game.getBoard(), game.isWhiteToMove());
+    }
+
+    @Test
+    public void specificationKeys() {
+        assertEquals(0x463b96181691fc9cL, keyAfter());
+        assertEquals(0x823c9b50fd114196L, keyAfter("e2e4"));
+        assertEquals(0x0756b94461c50fb0L, keyAfter("e2e4", "d7d5"));
+        assertEquals(0x662fafb965db29d4L, keyAfter("e2e4", "d7d5", "e4e5"));
+        assertEquals(0x22a48b5a8e47ff78L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5"));
+        assertEquals(0x652a607ca3f242c1L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5", "e1e2"));
+        assertEquals(0x00fdd303c946bdd9L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7"));
+        assertEquals(0x3c8123ea7b067637L, keyAfter("a2a4", "b7b5", "h2h4", "b5b4", "c2c4"));
+        assertEquals(0x5c3f9b829b279560L, keyAfter("a2a4", "b7b5", "h2h4", "b5b4", "c2c4", "b4c3", "a1a2"));
+    }
+}
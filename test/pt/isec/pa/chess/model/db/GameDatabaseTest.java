@@ -0,0 +1,132 @@
+package pt.isec.pa.chess.model.db;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Position;
+import pt.isec.pa.chess.model.io.pgn.PgnReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameDatabaseTest {
+    private static final String GAMES = """
+            [White "A"]
+            [Black "B"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 1-0
+
+            [Result "*"]
+
+            1. d4 d5 *
+
+            [Result "0-1"]
+
+            1. e4 c5 0-1
+
+            [Result "1/2-1/2"]
+
+            1. Nf3 Nf6 2. Ng1 Ng8 1/2-1/2
+
+            [Result "*"]
+
+            1. e4 e4 *
+            """;
+
+    private Path small;
+    private Path large;
+
+    @Before
+    public void createDirectories() throws IOException {
+        small = Files.createTempDirectory("db");
+        large = Files.createTempDirectory("db");
+    }
+
+    @After
+    public void deleteDirectories() throws IOException {
+        for (Path directory : new Path[] {small, large}) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                    Files.delete(file);
+            }
+        }
+    }
+
+    private static long build(Path directory, int runEntries) throws IOException {
+        try (GameDatabaseBuilder builder = new GameDatabaseBuilder(directory, runEntries);
+             PgnReader reader = new PgnReader(Channels.newChannel(
+                     new ByteArrayInputStream(GAMES.getBytes(StandardCharsets.UTF_8))))) {
+            return builder.addAll(reader);
+        }
+    }
+
+    private static long hashAfter(int... squares) {
+        ChessGame game = new ChessGame();
+        game.initializeBoard();
+        for (int i = 0; i < squares.length; i += 4)
+            assertTrue(game.makeMove(new Position(squares[i], squares[i + 1]), new Position(squares[i + 2], squares[i + 3])));
+        return game.getPositionHash();
+    }
+
+    @Test
+    public void severalRunsMergeIntoTheSameIndex() throws IOException {
+        // Blocos de 3 entradas: as 15 posições ficam em 5 ficheiros temporários
+        assertEquals(1, build(small, 3));
+        assertEquals(1, build(large, 1 << 10));
+
+        assertArrayEquals(Files.readAllBytes(large.resolve(GameDatabase.POSITIONS_FILE)),
+                Files.readAllBytes(small.resolve(GameDatabase.POSITIONS_FILE)));
+        // Os blocos temporários são apagados no fim
+        try (Stream<Path> files = Files.list(small)) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    public void countAndFindGames() throws IOException {
+        build(small, 3);
+        try (GameDatabase db = GameDatabase.open(small)) {
+            assertEquals(4, db.getGameCount());
+            assertEquals(15, db.getPositionCount());
+
+            // Posição inicial: uma vez nos três primeiros jogos e duas no último
+            long start = hashAfter();
+            assertEquals(5, db.count(start));
+            int[] games = new int[8];
+            assertEquals(4, db.findGames(start, games));
+            assertArrayEquals(new int[] {0, 1, 2, 3}, Arrays.copyOf(games, 4));
+
+            long e4 = hashAfter(6, 4, 4, 4);
+            int[] out = new int[8];
+            assertEquals(2, db.findGames(e4, out));
+            assertEquals(0, out[0]);
+            assertEquals(2, out[1]);
+            assertEquals(2, db.count(e4));
+
+            assertEquals(1, db.count(hashAfter(6, 4, 4, 4, 1, 4, 3, 4)));
+            assertEquals(0, db.count(hashAfter(6, 2, 4, 2)));
+
+            // O limite corta os resultados
+            assertEquals(2, db.findGames(start, new int[2]));
+
+            GameDatabase.GameInfo info = db.getGameInfo(0);
+            assertEquals("A", info.whitePlayer());
+            assertEquals("1-0", info.result());
+            assertEquals(3, info.plies());
+            assertEquals(hashAfter(6, 4, 4, 4, 1, 4, 3, 4, 7, 6, 5, 5), db.loadGame(0).getPositionHash());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package pt.isec.pa.chess.model.db;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.Position;
+import pt.isec.pa.chess.model.io.pgn.PgnReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OpeningExplorerTest {
+    /**
+     * e4: 2 vitórias das brancas, 1 empate, 1 vitória das pretas; d4: 2 vitórias das brancas;
+     * c4 só aparece num jogo e Nf3 num jogo sem resultado.
+     */
+    private static final String GAMES = """
+            [Result "1-0"]
+
+            1. e4 e5 1-0
+
+            [Result "0-1"]
+
+            1. e4 e5 0-1
+
+            [Result "1/2-1/2"]
+
+            1. e4 c5 1/2-1/2
+
+            [Result "1-0"]
+
+            1. d4 d5 1-0
+
+            [Result "1-0"]
+
+            1. d4 Nf6 1-0
+
+            [Result "1-0"]
+
+            1. e4 e5 1-0
+
+            [Result "1-0"]
+
+            1. c4 1-0
+
+            [Result "*"]
+
+            1. Nf3 Nf6 *
+            """;
+
+    private Path directory;
+
+    @Before
+    public void buildDatabase() throws IOException {
+        directory = Files.createTempDirectory("explorer");
+        try (GameDatabaseBuilder builder = new GameDatabaseBuilder(directory);
+             PgnReader reader = new PgnReader(Channels.newChannel(
+                     new ByteArrayInputStream(GAMES.getBytes(StandardCharsets.UTF_8))))) {
+            builder.addAll(reader);
+        }
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    private OpeningExplorer explorer(int maxPly) throws IOException {
+        Path file = directory.resolve("explorer-" + maxPly + ".bin");
+        try (GameDatabase db = GameDatabase.open(directory)) {
+            new OpeningExplorerBuilder(maxPly, 2, 2).build(db, file);
+        }
+        return OpeningExplorer.open(file);
+    }
+
+    private static ChessGame start() {
+        ChessGame game = new ChessGame();
+        game.initializeBoard();
+        return game;
+    }
+
+    private static ChessGame afterE4() {
+        ChessGame game = start();
+        assertTrue(game.makeMove(new Position(6, 4), new Position(4, 4)));
+        return game;
+    }
+
+    private static void assertStats(String move, int whiteWins, int draws, int blackWins, OpeningExplorer.MoveStats stats) {
+        assertEquals(move, Move.toString(stats.move()));
+        assertEquals(whiteWins, stats.whiteWins());
+        assertEquals(draws, stats.draws());
+        assertEquals(blackWins, stats.blackWins());
+    }
+
+    @Test
+    public void movesAreCountedAndSortedByGames() throws IOException {
+        OpeningExplorer explorer = explorer(4);
+        assertEquals(7, explorer.getGameCount());
+
+        // c4 (1 jogo) fica abaixo do mínimo e Nf3 não tem resultado
+        List<OpeningExplorer.MoveStats> stats = explorer.lookup(start());
+        assertEquals(2, stats.size());
+        assertStats("e2e4", 2, 1, 1, stats.get(0));
+        assertStats("d2d4", 2, 0, 0, stats.get(1));
+        assertEquals(50.0, stats.get(0).whitePercent(), 1e-9);
+
+        List<OpeningExplorer.MoveStats> replies = explorer.lookup(afterE4());
+        assertEquals(1, replies.size());
+        assertStats("e7e5", 2, 0, 1, replies.get(0));
+        assertEquals(1, explorer.getMoveCount(afterE4().getPositionHash()));
+    }
+
+    @Test
+    public void onlyTheFirstPliesAreCounted() throws IOException {
+        OpeningExplorer explorer = explorer(1);
+        assertEquals(2, explorer.lookup(start()).size());
+        assertTrue(explorer.lookup(afterE4()).isEmpty());
+    }
+}
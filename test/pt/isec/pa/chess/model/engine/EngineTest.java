@@ -0,0 +1,112 @@
+package pt.isec.pa.chess.model.engine;
+
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EngineTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            KIWIPETE,
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3",
+    };
+
+    private static ChessGame game(String fen) {
+        ChessGame game = new ChessGame();
+        game.importFen(fen);
+        return game;
+    }
+
+    private static SearchResult search(ChessGame game, SearchLimits limits, int threads) {
+        Engine engine = new Engine();
+        engine.setThreads(threads);
+        return engine.search(game, limits);
+    }
+
+    private static boolean isLegal(ChessGame game, int move) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegalMoves(game.getBoard(), game.isWhiteToMove(), moves);
+        return moves.contains(move);
+    }
+
+    @Test
+    public void findsMateInOne() {
+        SearchResult result = search(game("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1"), SearchLimits.depth(3), 1);
+        assertEquals("d1d8", Move.toString(result.bestMove()));
+        assertEquals(1, result.mateIn());
+    }
+
+    @Test
+    public void findsMateInTwo() {
+        // Ra7 prende o rei na última fila e Rb8 dá mate; nenhum xeque imediato é mate
+        ChessGame game = game("7k/8/8/8/8/8/R7/1R5K w - - 0 1");
+        SearchResult result = search(game, SearchLimits.depth(5), 1);
+        assertEquals(2, result.mateIn());
+        assertTrue(isLegal(game, result.bestMove()));
+    }
+
+    @Test
+    public void seesBeingMated() {
+        // As pretas só podem adiar: Rb8 e Ra8 dão mate no lance seguinte
+        SearchResult result = search(game("7k/R7/8/8/8/8/8/1R5K b - - 0 1"), SearchLimits.depth(4), 1);
+        assertEquals(-1, result.mateIn());
+    }
+
+    @Test
+    public void quiescenceSeesTheRecaptureBeyondTheHorizon() {
+        // A 1 meio-lance, Qxd5 parece ganhar um peão; a pesquisa de capturas vê cxd5
+        ChessGame game = game("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1");
+        SearchResult result = search(game, SearchLimits.depth(1), 1);
+
+        assertNotEquals("d1d5", Move.toString(result.bestMove()));
+        assertTrue(isLegal(game, result.bestMove()));
+        assertTrue(String.valueOf(result.score()), result.score() < 900 - 100);
+    }
+
+    @Test
+    public void stopDuringFirstIterationStillReturnsALegalMove() {
+        for (int threads : new int[] {1, 4}) {
+            ChessGame game = game(KIWIPETE);
+            SearchResult result = search(game, SearchLimits.nodes(1), threads);
+
+            assertEquals(1, result.depth());
+            assertTrue(isLegal(game, result.bestMove()));
+            assertFalse(result.isMate());
+            assertTrue(Math.abs(result.score()) < 1000);
+        }
+    }
+
+    @Test
+    public void searchDoesNotChangeTheCallersBoard() {
+        ChessGame game = game(KIWIPETE);
+        String fen = game.exportFen();
+        long hash = game.getBoard().getHash();
+
+        search(game, SearchLimits.depth(4), 4);
+        assertEquals(fen, game.exportFen());
+        assertEquals(hash, game.getBoard().getHash());
+    }
+
+    @Test
+    public void severalThreadsReachTheRequestedDepthWithALegalMove() {
+        // Em Lazy SMP o resultado depende da ordem em que as threads escrevem na tabela,
+        // por isso só se verifica que o lance é legal e que a profundidade é atingida
+        for (String fen : POSITIONS) {
+            ChessGame game = game(fen);
+            SearchResult parallel = search(game, SearchLimits.depth(5), 4);
+
+            assertEquals(fen, 5, parallel.depth());
+            assertTrue(fen, isLegal(game, parallel.bestMove()));
+            assertFalse(fen, parallel.isMate());
+        }
+    }
+}
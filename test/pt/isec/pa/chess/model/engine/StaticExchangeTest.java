@@ -0,0 +1,54 @@
+package pt.isec.pa.chess.model.engine;
+
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class StaticExchangeTest {
+    private static final int PAWN = 100, KNIGHT = 320, ROOK = 500, QUEEN = 900;
+
+    private static int see(String fen, String uci) {
+        ChessGame game = new ChessGame();
+        game.importFen(fen);
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegalMoves(game.getBoard(), game.isWhiteToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.toString(moves.get(i)).equals(uci))
+                return new StaticExchange().evaluate(game.getBoard(), moves.get(i));
+        }
+        fail(uci + " não é legal em " + fen);
+        return 0;
+    }
+
+    @Test
+    public void undefendedPieceIsWon() {
+        assertEquals(PAWN, see("4k3/8/8/3p4/4P3/8/8/4K3 w - - 0 1", "e4d5"));
+        assertEquals(PAWN, see("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1", "e1e5"));
+    }
+
+    @Test
+    public void defendedPawnCostsTheKnight() {
+        assertEquals(PAWN - KNIGHT, see("4k3/8/2p5/3p4/8/4N3/8/4K3 w - - 0 1", "e3d5"));
+    }
+
+    @Test
+    public void xRayAttackersJoinTheExchange() {
+        // Nxe5 Nxe5 Rxe5 Bxe5 Qxe5 Qxe5: as brancas ficam com um peão por um cavalo
+        assertEquals(PAWN - KNIGHT,
+                see("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1", "d3e5"));
+        // A torre de trás defende d5, por isso o rei preto não pode recapturar
+        assertEquals(ROOK, see("8/8/4k3/3r4/8/8/3R4/3RK3 w - - 0 1", "d2d5"));
+        assertEquals(0, see("8/8/4k3/3r4/8/8/3R4/4K3 w - - 0 1", "d2d5"));
+    }
+
+    @Test
+    public void promotionAndEnPassant() {
+        assertEquals(QUEEN - PAWN, see("4k3/P7/8/8/8/8/8/4K3 w - - 0 1", "a7a8q"));
+        assertEquals(PAWN, see("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5d6"));
+    }
+}
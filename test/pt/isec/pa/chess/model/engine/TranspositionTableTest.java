@@ -0,0 +1,83 @@
+package pt.isec.pa.chess.model.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TranspositionTableTest {
+    /** Chaves com os mesmos 32 bits altos ficam no mesmo bucket. */
+    private static long key(int index) {
+        return 0x12345L << 32 | (index + 1);
+    }
+
+    @Test
+    public void storedEntryIsFoundWithAllFields() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(key(0), 0x2ABCD, -123, 7, TranspositionTable.BOUND_LOWER);
+
+        long data = table.probe(key(0));
+        assertEquals(0x2ABCD, TranspositionTable.move(data));
+        assertEquals(-123, TranspositionTable.score(data));
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(data));
+
+        // Outra chave do mesmo bucket não é confundida
+        assertEquals(0, table.probe(key(1)));
+
+        table.clear();
+        assertEquals(0, table.probe(key(0)));
+    }
+
+    @Test
+    public void sameKeyIsOverwrittenKeepingTheMove() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(key(0), 0x1234, 50, 3, TranspositionTable.BOUND_EXACT);
+        table.store(key(0), 0, 80, 6, TranspositionTable.BOUND_UPPER);
+
+        long data = table.probe(key(0));
+        assertEquals(0x1234, TranspositionTable.move(data));
+        assertEquals(80, TranspositionTable.score(data));
+        assertEquals(6, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.BOUND_UPPER, TranspositionTable.bound(data));
+    }
+
+    @Test
+    public void mateScoresAreStoredRelativeToTheNode() {
+        int mateIn5 = Search.MATE - 5;
+        int stored = TranspositionTable.toStored(mateIn5, 3);
+        assertEquals(Search.MATE - 2, stored);
+        assertEquals(mateIn5, TranspositionTable.fromStored(stored, 3));
+        // A mesma posição atingida mais longe da raiz: o mate fica mais distante
+        assertEquals(Search.MATE - 9, TranspositionTable.fromStored(stored, 7));
+
+        int matedIn4 = -Search.MATE + 4;
+        assertEquals(-Search.MATE + 1, TranspositionTable.toStored(matedIn4, 3));
+        assertEquals(matedIn4, TranspositionTable.fromStored(TranspositionTable.toStored(matedIn4, 3), 3));
+
+        assertEquals(250, TranspositionTable.toStored(250, 10));
+        assertEquals(-250, TranspositionTable.fromStored(-250, 10));
+    }
+
+    @Test
+    public void oldEntriesAreReplacedFirst() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(key(0), 1, 0, 10, TranspositionTable.BOUND_EXACT);
+        table.newSearch();
+        table.store(key(1), 1, 0, 5, TranspositionTable.BOUND_EXACT);
+        table.store(key(2), 1, 0, 6, TranspositionTable.BOUND_EXACT);
+        table.store(key(3), 1, 0, 7, TranspositionTable.BOUND_EXACT);
+
+        // Bucket cheio: a entrada antiga (10 - 8 = 2) perde para as atuais, apesar de ser mais profunda
+        table.store(key(4), 1, 0, 4, TranspositionTable.BOUND_EXACT);
+        assertEquals(0, table.probe(key(0)));
+        for (int i = 1; i <= 4; i++)
+            assertNotEquals(0L, table.probe(key(i)));
+
+        // Entre entradas da mesma pesquisa sai a menos profunda
+        table.store(key(5), 1, 0, 3, TranspositionTable.BOUND_EXACT);
+        assertEquals(0, table.probe(key(4)));
+        assertNotEquals(0L, table.probe(key(1)));
+        assertNotEquals(0L, table.probe(key(5)));
+    }
+}
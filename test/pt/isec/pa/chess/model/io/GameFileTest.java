@@ -0,0 +1,100 @@
+package pt.isec.pa.chess.model.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class GameFileTest {
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("game", ".chess");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Jogo a partir de uma posição FEN com alguns lances (o primeiro legal em cada posição).
+     */
+    private static ChessGame playedGame() {
+        ChessGame game = new ChessGame();
+        game.importFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 4 23");
+        game.setWhitePlayerName("Brancas");
+        game.setBlackPlayerName("Pretas çãé");
+        game.setLearningMode(true);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < 7; i++) {
+            moves.clear();
+            MoveGenerator.generateLegalMoves(game.getBoard(), game.isWhiteToMove(), moves);
+            game.redoMove(moves.get(i % moves.size()));
+        }
+        return game;
+    }
+
+    @Test
+    public void writtenGameReadsBack() throws IOException {
+        ChessGame game = playedGame();
+        GameFile.write(game, file);
+        ChessGame read = GameFile.read(file);
+
+        assertEquals(game.exportFen(), read.exportFen());
+        assertEquals(game.getFullmoveNumber(), read.getFullmoveNumber());
+        assertEquals(game.getPlayerWhite(), read.getPlayerWhite());
+        assertEquals(game.getPlayerBlack(), read.getPlayerBlack());
+        assertTrue(read.isLearningMode());
+
+        // O histórico também é reposto: os lances podem ser desfeitos
+        Board board = read.getBoard();
+        assertEquals(game.getBoard().getPly(), board.getPly());
+        for (int i = 0; i < board.getPly(); i++)
+            assertEquals(game.getBoard().getMove(i), board.getMove(i));
+    }
+
+    @Test
+    public void headerIsReadWithoutMoves() throws IOException {
+        ChessGame game = playedGame();
+        GameFile.write(game, file);
+        GameFile.Header header = GameFile.readHeader(file);
+
+        assertEquals(GameFile.VERSION, header.version());
+        assertEquals(7, header.moveCount());
+        assertEquals(game.getFullmoveNumber(), header.fullmoveNumber());
+        assertArrayEquals(game.toSnapshot(), header.finalPosition());
+        assertTrue(GameFile.isGameFile(file));
+    }
+
+    @Test
+    public void corruptedFileIsRejected() throws IOException {
+        GameFile.write(playedGame(), file);
+        byte[] data = Files.readAllBytes(file);
+        data[data.length - 8] ^= 1; // último movimento
+        Files.write(file, data);
+
+        assertThrows(IOException.class, () -> GameFile.read(file));
+    }
+
+    @Test
+    public void otherFilesAreNotGameFiles() throws IOException {
+        Files.writeString(file, "WHITE,Ke1,ke8");
+        assertFalse(GameFile.isGameFile(file));
+        assertThrows(IOException.class, () -> GameFile.read(file));
+    }
+}
@@ -0,0 +1,65 @@
+package pt.isec.pa.chess.model.io;
+
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+public class PositionCodecTest {
+    // O número do lance não faz parte do snapshot, por isso fica sempre 1
+    private static final String[] FENS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 37 1",
+    };
+
+    @Test
+    public void decodeRestoresTheSamePosition() {
+        for (String fen : FENS) {
+            ChessGame game = new ChessGame();
+            game.importFen(fen);
+            byte[] snapshot = PositionCodec.encode(game.getBoard(), game.isWhiteToMove());
+            assertEquals(PositionCodec.SIZE, snapshot.length);
+
+            Board board = new Board();
+            boolean white = PositionCodec.decode(snapshot, board);
+            assertEquals(game.isWhiteToMove(), white);
+            assertEquals(fen, PositionFormat.appendFen(board, white, 1, new StringBuilder()).toString());
+            assertEquals(game.getBoard().getHash(), board.getHash());
+            assertArrayEquals(snapshot, PositionCodec.encode(board, white));
+        }
+    }
+
+    @Test
+    public void encodeIntoExistingArrayAtOffset() {
+        ChessGame game = new ChessGame();
+        game.importFen(FENS[1]);
+        byte[] data = new byte[PositionCodec.SIZE + 3];
+        PositionCodec.encode(game.getBoard(), true, data, 3);
+
+        Board board = new Board();
+        PositionCodec.decode(data, 3, board);
+        assertArrayEquals(game.toSnapshot(), PositionCodec.encode(board, true));
+    }
+
+    @Test
+    public void sideToMoveIsPartOfTheSnapshot() {
+        ChessGame game = new ChessGame();
+        game.initializeBoard();
+        byte[] white = PositionCodec.encode(game.getBoard(), true);
+        byte[] black = PositionCodec.encode(game.getBoard(), false);
+        assertFalse(java.util.Arrays.equals(white, black));
+    }
+
+    @Test
+    public void invalidSnapshotIsRejected() {
+        byte[] data = new byte[PositionCodec.SIZE];
+        data[0] = 0x0F; // valor de peça inexistente
+        assertThrows(IllegalArgumentException.class, () -> PositionCodec.decode(data, new Board()));
+    }
+}
@@ -0,0 +1,120 @@
+package pt.isec.pa.chess.model.io;
+
+import org.junit.Test;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.io.pgn.PgnGame;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class PositionFormatTest {
+    private static String roundTrip(String fen) {
+        Board board = new Board();
+        PositionFormat.Info info = PositionFormat.parseFen(fen, board);
+        return PositionFormat.appendFen(board, info.whiteToMove(), info.fullmoveNumber(), new StringBuilder()).toString();
+    }
+
+    private static void assertRejected(String fen) {
+        assertThrows(fen, IllegalArgumentException.class, () -> PositionFormat.parseFen(fen, new Board()));
+    }
+
+    @Test
+    public void fenRoundTrips() {
+        String[] fens = {
+                PgnGame.STANDARD_START,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 12 40",
+        };
+        for (String fen : fens)
+            assertEquals(fen, roundTrip(fen));
+    }
+
+    @Test
+    public void missingFieldsTakeDefaults() {
+        assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", roundTrip("4k3/8/8/8/8/8/8/4K3"));
+    }
+
+    @Test
+    public void malformedPlacementIsRejected() {
+        assertRejected("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP");
+        assertRejected("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        assertRejected("rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        assertRejected("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1");
+    }
+
+    @Test
+    public void exactlyOneKingPerSideIsRequired() {
+        assertRejected("rKnqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        assertRejected("rnbq1bnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQ - 0 1");
+        assertRejected("8/8/8/8/8/8/8/8 w - - 0 1");
+    }
+
+    @Test
+    public void sideToMoveMustBeWOrB() {
+        assertRejected("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1");
+        assertRejected("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR white KQkq - 0 1");
+    }
+
+    @Test
+    public void enPassantSquareMustBeOnTheRankBehindTheMovedPawn() {
+        assertRejected("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e6 0 1");
+        assertRejected("rnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 2");
+        assertRejected("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e 0 1");
+        assertRejected("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq x3 0 1");
+    }
+
+    @Test
+    public void enPassantSquareNeedsThePawnThatJustMoved() {
+        assertRejected("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq d3 0 1");
+        assertRejected("rnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBNR w KQkq d6 0 2");
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBNR w KQkq e6 0 2",
+                roundTrip("rnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBNR w KQkq e6 0 2"));
+    }
+
+    @Test
+    public void badCastlingAndClocksAreRejected() {
+        assertRejected("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1");
+        assertRejected("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - a 1");
+        assertRejected("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 10000 1");
+        assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 9999 1",
+                roundTrip("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 9999 1"));
+    }
+
+    @Test
+    public void exportFormatRoundTrips() {
+        Board board = new Board();
+        PositionFormat.parseFen(PgnGame.STANDARD_START, board);
+        String export = PositionFormat.appendExport(board, false, new StringBuilder()).toString();
+
+        Board copy = new Board();
+        assertFalse(PositionFormat.parseExport(export, copy).whiteToMove());
+        assertEquals(board.getHash(), copy.getHash());
+        assertTrue(PositionFormat.parse(export.replace("BLACK", "WHITE"), copy).whiteToMove());
+    }
+
+    @Test
+    public void exportFormatRequiresTheSideToMove() {
+        assertThrows(IllegalArgumentException.class, () -> PositionFormat.parseExport("startpos", new Board()));
+        assertThrows(IllegalArgumentException.class, () -> PositionFormat.parseExport("Ke1,ke8", new Board()));
+        assertThrows(IllegalArgumentException.class, () -> PositionFormat.parseExport("WHITE,Ke9", new Board()));
+    }
+
+    @Test
+    public void editorClearStringGivesAnEmptyBoard() {
+        Board board = new Board();
+        PositionFormat.parseFen(PgnGame.STANDARD_START, board);
+
+        assertTrue(PositionFormat.parse("Player1-Player2,WHITE,", board).whiteToMove());
+        assertEquals(0L, board.getOccupied());
+        assertFalse(PositionFormat.parseExport("Player1-Player2,BLACK,Ke1,ke8", board).whiteToMove());
+    }
+
+    @Test
+    public void fenIsDetectedBySlashes() {
+        assertTrue(PositionFormat.isFen(PgnGame.STANDARD_START));
+        assertFalse(PositionFormat.isFen("WHITE,Ke1,ke8"));
+    }
+}
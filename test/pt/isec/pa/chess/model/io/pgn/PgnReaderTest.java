@@ -0,0 +1,145 @@
+package pt.isec.pa.chess.model.io.pgn;
+
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class PgnReaderTest {
+    private static PgnReader reader(String text) {
+        return new PgnReader(Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * Lê todos os jogos, registando os erros como "!" seguido da linha.
+     */
+    private static List<String> readAll(String text) throws IOException {
+        List<String> read = new ArrayList<>();
+        try (PgnReader reader = reader(text)) {
+            while (true) {
+                try {
+                    PgnGame game = reader.next();
+                    if (game == null)
+                        return read;
+                    read.add(game.getTag("Event") + " " + game.getMoves());
+                } catch (PgnException e) {
+                    read.add("!" + e.getLine());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void tagsMovesCommentsAndVariations() throws IOException {
+        PgnGame game = reader("""
+                [Event "Teste"]
+                [White "Brancas"]
+                [Black "Pretas"]
+                [Result "1-0"]
+
+                1. e4 {abertura} e5 2. Nf3 (2. f4 exf4 (2... d5)) Nc6 $1 3. Bb5!? ; comentário
+                a6 1-0
+                """).next();
+
+        assertEquals("Teste", game.getTag("Event"));
+        assertEquals("Pretas", game.getTag("Black"));
+        // As anotações coladas ao lance ficam no texto; são ignoradas ao reproduzir o jogo
+        assertEquals(List.of("e4", "e5", "Nf3", "Nc6", "Bb5!?", "a6"), game.getMoves());
+        assertEquals(PgnGame.RESULT_WHITE_WINS, game.getResult());
+        assertEquals(6, game.toChessGame().getBoard().getPly());
+    }
+
+    @Test
+    public void errorInTagsDiscardsTheWholeGame() throws IOException {
+        List<String> read = readAll("""
+                [Event "A"]
+
+                1. e4 e5 1-0
+
+                [Event "B"]
+                [Site "sem fim
+                [Round "1"]
+                [White "x"]
+
+                1. d4 d5 2. c4
+                0-1
+
+                [Event "C"]
+
+                1. Nf3 *
+                """);
+        assertEquals(List.of("A [e4, e5]", "!6", "C [Nf3]"), read);
+    }
+
+    @Test
+    public void errorInMovesResumesAtTheNextGame() throws IOException {
+        List<String> read = readAll("""
+                [Event "A"]
+
+                1. e4 ) e5 *
+                [Event "B"]
+
+                1. c4 *
+                """);
+        assertEquals(List.of("!3", "B [c4]"), read);
+    }
+
+    @Test
+    public void gameWithoutResultEndsAtTheNextTag() throws IOException {
+        List<String> read = readAll("""
+                [Event "A"]
+
+                1. e4 e5
+                [Event "B"]
+
+                1. d4 *
+                """);
+        assertEquals(List.of("A [e4, e5]", "B [d4]"), read);
+    }
+
+    @Test
+    public void unterminatedCommentIsAnError() {
+        assertThrows(PgnException.class, () -> reader("[Event \"A\"]\n\n1. e4 {sem fim\n").next());
+    }
+
+    @Test
+    public void emptyInputHasNoGames() throws IOException {
+        assertNull(reader("\n\n").next());
+    }
+
+    @Test
+    public void illegalMoveIsReportedWhenReplayed() throws IOException {
+        PgnGame game = reader("[Event \"A\"]\n\n1. e4 e4 *\n").next();
+        assertThrows(PgnException.class, game::toChessGame);
+    }
+
+    @Test
+    public void writtenGameReadsBack() throws IOException {
+        PgnGame original = reader("""
+                [Event "A"]
+                [SetUp "1"]
+                [FEN "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"]
+
+                1. O-O-O Bxe2 2. Nxf7 O-O *
+                """).next();
+        ChessGame game = original.toChessGame();
+
+        StringWriter text = new StringWriter();
+        new PgnWriter(text).write(PgnGame.of(game));
+        PgnGame copy = reader(text.toString()).next();
+
+        assertEquals(original.getMoves(), copy.getMoves());
+        assertEquals(original.getTag("FEN"), copy.getTag("FEN"));
+        assertEquals(game.exportFen(), copy.toChessGame().exportFen());
+    }
+}
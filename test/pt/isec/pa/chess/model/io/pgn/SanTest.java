@@ -0,0 +1,100 @@
+package pt.isec.pa.chess.model.io.pgn;
+
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Board;
+import pt.isec.pa.chess.model.data.board.Move;
+import pt.isec.pa.chess.model.data.board.MoveGenerator;
+import pt.isec.pa.chess.model.data.board.MoveList;
+
+import static org.junit.Assert.assertEquals;
+
+public class SanTest {
+    private static ChessGame game(String fen) {
+        ChessGame game = new ChessGame();
+        game.importFen(fen);
+        return game;
+    }
+
+    private static String san(String fen, String uci) {
+        ChessGame game = game(fen);
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegalMoves(game.getBoard(), game.isWhiteToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.toString(moves.get(i)).equals(uci))
+                return San.toString(game.getBoard(), moves.get(i));
+        }
+        throw new AssertionError("Movimento não encontrado: " + uci);
+    }
+
+    /**
+     * Escreve cada movimento legal em SAN e volta a lê-lo, até à profundidade indicada.
+     */
+    private static int roundTrip(Board board, boolean white, int depth) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegalMoves(board, white, moves);
+        MoveList buffer = new MoveList();
+        StringBuilder sb = new StringBuilder();
+        int checked = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            sb.setLength(0);
+            String san = San.append(board, move, buffer, sb).toString();
+            assertEquals(san, move, San.parse(board, white, san, buffer));
+            checked++;
+            if (depth > 1) {
+                board.makeMove(move);
+                checked += roundTrip(board, !white, depth - 1);
+                board.unmakeMove();
+            }
+        }
+        return checked;
+    }
+
+    @Test
+    public void everyLegalMoveRoundTrips() {
+        String[] fens = {
+                PgnGame.STANDARD_START,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        };
+        for (String fen : fens) {
+            ChessGame game = game(fen);
+            roundTrip(game.getBoard(), game.isWhiteToMove(), 2);
+        }
+    }
+
+    @Test
+    public void castling() {
+        String fen = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+        assertEquals("O-O", san(fen, "e1g1"));
+        assertEquals("O-O-O", san(fen, "e1c1"));
+    }
+
+    @Test
+    public void disambiguation() {
+        assertEquals("Rad1", san("4k3/8/8/8/8/8/8/R4RK1 w - - 0 1", "a1d1"));
+        assertEquals("R1a3", san("4k3/8/8/8/R7/8/8/R5K1 w - - 0 1", "a1a3"));
+        assertEquals("Qd5e4", san("7k/8/8/3Q1Q2/8/3Q4/8/7K w - - 0 1", "d5e4"));
+    }
+
+    @Test
+    public void promotionCaptureAndCheck() {
+        assertEquals("bxa8=Q+", san("r3k3/1P6/8/8/8/8/8/4K3 w - - 0 1", "b7a8q"));
+        assertEquals("Qh5#", san("rnbqkbnr/ppppp2p/5p2/6p1/4P3/8/PPPP1PPP/RNBQKBNR w KQkq g6 0 3", "d1h5"));
+    }
+
+    @Test
+    public void enPassant() {
+        assertEquals("exd6", san("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5d6"));
+    }
+
+    @Test
+    public void ambiguousOrIllegalSanIsRejected() {
+        ChessGame game = game("4k3/8/8/8/8/8/8/R4RK1 w - - 0 1");
+        MoveList buffer = new MoveList();
+        assertEquals(Move.NONE, San.parse(game.getBoard(), true, "Rd1", buffer));
+        assertEquals(Move.NONE, San.parse(game.getBoard(), true, "Ke3", buffer));
+    }
+}
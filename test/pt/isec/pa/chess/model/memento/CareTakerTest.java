@@ -0,0 +1,62 @@
+package pt.isec.pa.chess.model.memento;
+
+import org.junit.Before;
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.data.board.Position;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CareTakerTest {
+    private ChessGame game;
+    private CareTaker careTaker;
+
+    @Before
+    public void createGame() {
+        game = new ChessGame();
+        game.initializeBoard();
+        careTaker = new CareTaker(game, 2);
+    }
+
+    private void play(int fromRow, int fromCol, int toRow, int toCol) {
+        assertTrue(game.makeMove(new Position(fromRow, fromCol), new Position(toRow, toCol)));
+        careTaker.saveMove();
+    }
+
+    private IMemento checkpointOnTop() {
+        return ((MoveMemento) careTaker.history.peek()).getCheckpoint();
+    }
+
+    @Test
+    public void undoAndRedoKeepTheMoveCount() {
+        play(6, 4, 4, 4); // e4
+        play(1, 4, 3, 4); // e5
+        assertEquals(2, careTaker.movesSaved);
+        assertNotNull(checkpointOnTop());
+
+        assertTrue(careTaker.undo());
+        assertTrue(careTaker.undo());
+        assertEquals(0, careTaker.movesSaved);
+
+        assertTrue(careTaker.redo());
+        assertEquals(1, careTaker.movesSaved);
+    }
+
+    @Test
+    public void checkpointsStayOnTheSameMovesAfterUndo() {
+        play(6, 4, 4, 4); // e4
+        play(1, 4, 3, 4); // e5
+        assertTrue(careTaker.undo());
+
+        // Um lance diferente no lugar de e5 volta a ser o 2.º e recebe o checkpoint
+        play(1, 3, 3, 3); // d5
+        assertEquals(2, careTaker.movesSaved);
+        assertNotNull(checkpointOnTop());
+
+        play(6, 3, 4, 3); // d4
+        assertNull(checkpointOnTop());
+    }
+}
@@ -0,0 +1,88 @@
+package pt.isec.pa.chess.tools;
+
+import org.junit.Test;
+import pt.isec.pa.chess.model.ChessGame;
+import pt.isec.pa.chess.model.io.pgn.PgnGame;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Contagens perft de referência (Chess Programming Wiki), que validam o gerador de movimentos legais.
+ */
+public class PerftTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    private static Perft perft(String fen, Perft.PerftTable table) {
+        ChessGame game = new ChessGame();
+        game.importFen(fen);
+        return new Perft(game.getBoard(), game.isWhiteToMove(), table);
+    }
+
+    private static void assertCounts(String fen, long... expected) {
+        Perft perft = perft(fen, null);
+        for (int depth = 1; depth <= expected.length; depth++)
+            assertEquals(fen + " depth " + depth, expected[depth - 1], perft.perft(depth));
+    }
+
+    @Test
+    public void startPosition() {
+        assertCounts(PgnGame.STANDARD_START, 20, 400, 8_902, 197_281);
+    }
+
+    @Test
+    public void kiwipete() {
+        assertCounts(KIWIPETE, 48, 2_039, 97_862);
+    }
+
+    @Test
+    public void enPassantAndPins() {
+        assertCounts(POSITION_3, 14, 191, 2_812, 43_238);
+    }
+
+    @Test
+    public void promotionsAndCastlingOutOfCheck() {
+        assertCounts(POSITION_4, 6, 264, 9_467);
+    }
+
+    @Test
+    public void discoveredChecksAndPromotionCaptures() {
+        assertCounts(POSITION_5, 44, 1_486, 62_379);
+    }
+
+    @Test
+    public void depthZeroCountsOnlyTheRoot() {
+        assertEquals(1, perft(PgnGame.STANDARD_START, null).perft(0));
+    }
+
+    @Test
+    public void negativeDepthIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> perft(PgnGame.STANDARD_START, null).perft(-1));
+    }
+
+    @Test
+    public void divideMatchesPerftWithThreadsAndHash() {
+        ChessGame game = new ChessGame();
+        game.importFen(KIWIPETE);
+        List<Perft.Divide> divide = Perft.divide(game.getBoard(), true, 3, 4, new Perft.PerftTable(4));
+
+        assertEquals(48, divide.size());
+        long nodes = 0;
+        for (Perft.Divide entry : divide)
+            nodes += entry.nodes();
+        assertEquals(97_862, nodes);
+    }
+
+    @Test
+    public void divideRejectsDepthZero() {
+        ChessGame game = new ChessGame();
+        game.initializeBoard();
+        assertThrows(IllegalArgumentException.class,
+                () -> Perft.divide(game.getBoard(), true, 0, 1, null));
+    }
+}
@@ -0,0 +1,122 @@
+package pt.isec.pa.chess.tools;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pt.isec.pa.chess.model.io.pgn.PgnGame;
+import pt.isec.pa.chess.model.io.pgn.PgnReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PgnBatchTest {
+    private static final String[] SHUFFLE = {"Nf3", "Nf6", "Ng1", "Ng8"};
+    private static final int GAMES = 12;
+
+    private Path input;
+    private Path output;
+    private final List<String> expectedFens = new ArrayList<>();
+
+    /**
+     * Jogo i: i lances de cavalo (cada posição final tem um relógio de meios-lances diferente);
+     * os jogos múltiplos de 5 têm um lance ilegal e o 7.º tem uma etiqueta por fechar.
+     */
+    @Before
+    public void writeInput() throws IOException {
+        StringBuilder pgn = new StringBuilder();
+        for (int i = 1; i <= GAMES; i++) {
+            if (i == 7) {
+                pgn.append("[Event \"G7\"]\n[Site \"sem fim\n\n1. e4 *\n\n");
+                continue;
+            }
+            pgn.append("[Event \"G").append(i).append("\"]\n\n");
+            for (int ply = 0; ply < i; ply++) {
+                if (ply % 2 == 0)
+                    pgn.append(ply / 2 + 1).append(". ");
+                pgn.append(SHUFFLE[ply % 4]).append(ply == 0 ? "!" : "").append(' ');
+            }
+            if (i % 5 == 0)
+                pgn.append("Ke3 ");
+            else
+                expectedFens.add(fen(i));
+            pgn.append("*\n\n");
+        }
+        input = Files.createTempFile("batch", ".pgn");
+        output = Files.createTempFile("batch", ".out");
+        Files.writeString(input, pgn);
+    }
+
+    @After
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    private static String fen(int plies) {
+        String[] positions = {
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -",
+                "rnbqkbnr/pppppppp/8/8/8/5N2/PPPPPPPP/RNBQKB1R b KQkq -",
+                "rnbqkb1r/pppppppp/5n2/8/8/5N2/PPPPPPPP/RNBQKB1R w KQkq -",
+                "rnbqkb1r/pppppppp/5n2/8/8/8/PPPPPPPP/RNBQKBNR b KQkq -",
+        };
+        return positions[plies % 4] + " " + plies + " " + (plies / 2 + 1);
+    }
+
+    private PgnBatch.Summary run(PgnBatch.Format format, boolean ordered, ByteArrayOutputStream errors) throws IOException {
+        return new PgnBatch(format, 4, 1, ordered)
+                .run(input, output, new PrintStream(errors, true, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void orderedOutputFollowsTheFile() throws IOException {
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PgnBatch.Summary summary = run(PgnBatch.Format.FEN, true, errors);
+
+        assertEquals(GAMES, summary.games());
+        assertEquals(3, summary.errors());
+        assertEquals(expectedFens, Files.readAllLines(output));
+
+        String log = errors.toString(StandardCharsets.UTF_8);
+        assertTrue(log, log.indexOf("Game 5:") < log.indexOf("Game 7:"));
+        assertTrue(log, log.indexOf("Game 7:") < log.indexOf("Game 10:"));
+    }
+
+    @Test
+    public void unorderedOutputHasTheSameGames() throws IOException {
+        PgnBatch.Summary summary = run(PgnBatch.Format.FEN, false, new ByteArrayOutputStream());
+
+        List<String> lines = new ArrayList<>(Files.readAllLines(output));
+        List<String> expected = new ArrayList<>(expectedFens);
+        lines.sort(null);
+        expected.sort(null);
+        assertEquals(expected, lines);
+        assertEquals(3, summary.errors());
+        assertEquals(1 + 2 + 3 + 4 + 6 + 8 + 9 + 11 + 12, summary.plies());
+    }
+
+    @Test
+    public void pgnOutputIsRebuiltFromTheValidatedMoves() throws IOException {
+        run(PgnBatch.Format.PGN, true, new ByteArrayOutputStream());
+
+        try (PgnReader reader = new PgnReader(output)) {
+            PgnGame first = reader.next();
+            assertEquals("G1", first.getTag("Event"));
+            // A anotação do original não é copiada
+            assertEquals(List.of("Nf3"), first.getMoves());
+
+            int games = 1;
+            while (reader.next() != null)
+                games++;
+            assertEquals(GAMES - 3, games);
+        }
+    }
+}